@@ -1,5 +1,13 @@
 package com.ctrip.platform.dal.dao;
 
+import java.io.File;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -10,6 +18,8 @@ import com.ctrip.platform.dal.dao.client.DalLogger;
 import com.ctrip.platform.dal.dao.client.DalWatcher;
 import com.ctrip.platform.dal.dao.configure.DalConfigure;
 import com.ctrip.platform.dal.dao.configure.DalConfigureFactory;
+import com.ctrip.platform.dal.dao.configure.DatabasePoolConfigParser;
+import com.ctrip.platform.dal.dao.datasource.DefaultDalConnectionLocator;
 import com.ctrip.platform.dal.dao.status.DalStatusManager;
 import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
 import com.ctrip.platform.dal.dao.task.DalTaskFactory;
@@ -18,6 +28,11 @@ public class DalClientFactory {
 	private static Logger logger = LoggerFactory.getLogger(Version.getLoggerName());
 
 	private static AtomicReference<DalConfigure> configureRef = new AtomicReference<DalConfigure>();
+	
+	// Path given at initialization, null means dal.xml in classpath
+	private static volatile String configurePath;
+	
+	private static ScheduledExecutorService reloadScheduler;
 
 	static {
 		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
@@ -71,11 +86,130 @@ public class DalClientFactory {
 			}
 			
 			DalWatcher.init();
-			DalRequestExecutor.init(config.getFacory().getProperty(DalRequestExecutor.MAX_POOL_SIZE));
+			DalRequestExecutor.init(config.getFacory());
 			DalStatusManager.initialize(config);
 			
+			configurePath = path;
+			configureRef.set(config);
+			
+		}
+	}
+	
+	/**
+	 * Reload dal.xml and datasource.xml without restart. Both files are parsed and
+	 * every data source of the new configure is resolved before anything is published.
+	 * Then the pools of changed or added data sources are created before they replace
+	 * the current ones. Clients created before reloading turn to the new configure, the
+	 * replaced pools are closed after their borrowed connections are returned.
+	 * 
+	 * Logger and task factory are not reloaded. If parsing or validation fails, the
+	 * current configure and pools are kept.
+	 * 
+	 * @throws Exception
+	 */
+	public static void reloadClientFactory() throws Exception {
+		synchronized (DalClientFactory.class) {
+			DalConfigure current = getDalConfigure();
+			long start = System.currentTimeMillis();
+			
+			DatabasePoolConfigParser parser = DatabasePoolConfigParser.load();
+			DalConfigure config = DalConfigureFactory.reload(getConfigureUrl(), current);
+			
+			DefaultDalConnectionLocator locator = config.getLocator() instanceof DefaultDalConnectionLocator ?
+					(DefaultDalConnectionLocator)config.getLocator() : null;
+			Set<String> names = config.getDataSourceNames();
+			if(locator != null)
+				locator.validate(names, parser);
+			
+			DatabasePoolConfigParser.setInstance(parser);
+			Set<String> refreshed = new HashSet<>();
+			if(locator != null)
+				refreshed = locator.refresh(names);
+			
+			Set<String> added = new HashSet<>(names);
+			added.removeAll(current.getDataSourceNames());
+			config.warmUpConnections(added, DalConfigure.DEFAULT_WARM_UP_PARALLELISM);
+			
+			DalStatusManager.refresh(config);
 			configureRef.set(config);
+			current.replaceWith(config);
 			
+			// Removed ones are closed only after new requests can not reach them
+			Set<String> removed = new HashSet<>(current.getDataSourceNames());
+			removed.removeAll(names);
+			if(locator != null)
+				removed = locator.remove(removed);
+			DalStatusManager.removeOthers(config);
+			
+			logger.info(String.format("Dal Java Client Factory is reloaded in %dms, recreated data sources: %s, added data sources: %s, removed data sources: %s",
+					System.currentTimeMillis() - start, refreshed, added, removed));
+		}
+	}
+	
+	/**
+	 * Check dal.xml and datasource.xml periodically and reload when any of them is
+	 * modified. Only files on the file system can be watched.
+	 * 
+	 * @param intervalSeconds check interval
+	 */
+	public static void startAutoReload(long intervalSeconds) {
+		synchronized (DalClientFactory.class) {
+			if(reloadScheduler != null)
+				return;
+			
+			final URL[] urls = new URL[]{getConfigureUrl(), DatabasePoolConfigParser.getConfigureUrl()};
+			final long[] lastModified = new long[urls.length];
+			for(int i = 0; i < urls.length; i++)
+				lastModified[i] = getLastModified(urls[i]);
+			
+			reloadScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "DAL-ConfigureReload");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			
+			reloadScheduler.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					boolean modified = false;
+					for(int i = 0; i < urls.length; i++) {
+						long current = getLastModified(urls[i]);
+						modified |= current != lastModified[i];
+						lastModified[i] = current;
+					}
+					
+					if(!modified)
+						return;
+					
+					try {
+						reloadClientFactory();
+					} catch (Throwable e) {
+						logger.error("Reloading Dal Java Client Factory failed, the current configure is kept", e);
+					}
+				}
+			}, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+		}
+	}
+	
+	private static URL getConfigureUrl() {
+		try {
+			return configurePath == null ? DalConfigureFactory.getConfigureUrl() : new File(configurePath).toURI().toURL();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static long getLastModified(URL url) {
+		if(url == null || !"file".equals(url.getProtocol()))
+			return 0;
+		
+		try {
+			return new File(url.toURI()).lastModified();
+		} catch (Exception e) {
+			return 0;
 		}
 	}
 	
@@ -86,6 +220,14 @@ public class DalClientFactory {
 	public static void warmUpConnections() {
 		getDalConfigure().warmUpConnections();
 	}
+	
+	/**
+	 * Actively initialize connection pools for all the logic db in the
+	 * Dal.config, at most parallelism pools are created at the same time
+	 */
+	public static void warmUpConnections(int parallelism) {
+		getDalConfigure().warmUpConnections(parallelism);
+	}
 
 	public static DalClient getClient(String logicDbName) {
 		if (logicDbName == null)
@@ -153,6 +295,11 @@ public class DalClientFactory {
 				
 				DalWatcher.destroy();
 				logger.info("DalWatcher has been destoryed");
+				
+				if(reloadScheduler != null) {
+					reloadScheduler.shutdown();
+					reloadScheduler = null;
+				}
 			} catch (Throwable e) {
 				logger.error("Error during shutdown", e);
 			}
@@ -0,0 +1,22 @@
+package com.ctrip.platform.dal.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Cursor over query result that is read from database while iterating, so that
+ * the whole result does not need to be held in memory.
+ * 
+ * The cursor MUST be closed if it is not iterated to the end, otherwise the 
+ * connection will not be released. 
+ */
+public interface DalCursor<T> extends AutoCloseable {
+	boolean hasNext() throws SQLException;
+	
+	/**
+	 * @throws java.util.NoSuchElementException if there is no more row
+	 */
+	T next() throws SQLException;
+	
+	@Override
+	void close() throws SQLException;
+}
@@ -117,6 +117,7 @@ public enum DalHintEnum {
     
 	/*
 	 *  Parameter for statement.setFetchSize(fetchSize); 
+	 *  Integer.MIN_VALUE is passed as well, it makes MySQL driver stream rows one by one.
 	 */
 	fetchSize,
 	
@@ -180,6 +181,29 @@ public enum DalHintEnum {
 	 */
 	sequentialExecution,
 	
+	/*
+	 * Deadline in milliseconds for the whole cross shard parallel execution. Shards that are not
+	 * completed before deadline will be cancelled. Value should be Integer
+	 */
+	crossShardTimeout,
+	
+	/*
+	 * To execute the table shards of bulk CUD in the same DB shard at the same time.
+	 * It is ignored in transaction.
+	 */
+	parallelTableShardExecution,
+	
+	/*
+	 * To round the placeholder count of IN clauses up to power of two, the last value
+	 * of the list is repeated to fill the extra placeholders.
+	 */
+	inParameterBucketing,
+	
+	/*
+	 * Internal use. The DalStatementCanceller that tracks in-flight statements of a cross shard execution
+	 */
+	statementCanceller,
+	
 	/**
 	 * Indicate the queryCallback for async execution
 	 */
@@ -131,6 +131,11 @@ public class DalHints {
 		return this;
 	}
 	
+	public DalHints remove(DalHintEnum hint) {
+		hints.remove(hint);
+		return this;
+	}
+	
 	public DalHints setIfAbsent(DalHintEnum hint, Object value) {
 		if(is(hint))
 			return this;
@@ -262,6 +267,26 @@ public class DalHints {
 		return this;
 	}
 
+	/**
+	 * Execute the table shards of batch insert, update, delete or combined insert in
+	 * parallel, each on its own connection. The table shards are executed sequentially
+	 * in transaction, because they must share the transaction connection.
+	 */
+	public DalHints parallelTableShardExecute() {
+		set(DalHintEnum.parallelTableShardExecution);
+		return this;
+	}
+
+	/**
+	 * Pad IN parameter lists to the next power of two size by repeating the last value.
+	 * Queries with different list sizes then share a few statements, which is friendly
+	 * to the statement cache of driver and database.
+	 */
+	public DalHints bucketInParameters() {
+		set(DalHintEnum.inParameterBucketing);
+		return this;
+	}
+
 	public DalHints masterOnly() {
 		set(DalHintEnum.masterOnly, true);
 		return this;
@@ -349,6 +374,29 @@ public class DalHints {
 		return this;
 	}
 	
+	/**
+	 * Number of rows fetched from database each time. For query cursor, it is also
+	 * the number of rows buffered for each shard.
+	 */
+	public DalHints fetchSize(int fetchSize) {
+		set(DalHintEnum.fetchSize, fetchSize);
+		return this;
+	}
+	
+	/**
+	 * Set deadline for cross shard parallel execution. When the deadline passes, the shards
+	 * not yet completed will be cancelled, including their in-flight statements. The timed out 
+	 * shards are treated as errors, so with continueOnError set, the results of completed
+	 * shards will still be merged and returned.
+	 * 
+	 * @param milliseconds deadline for all shards to complete
+	 * @return
+	 */
+	public DalHints crossShardTimeout(int milliseconds) {
+		set(DalHintEnum.crossShardTimeout, milliseconds);
+		return this;
+	}
+	
 	public DalHints enableIdentityInsert() {
 		set(DalHintEnum.enableIdentityInsert);
 		return this;
@@ -6,9 +6,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.helper.DalColumnArrays;
+import com.ctrip.platform.dal.dao.helper.DalColumnArraysExtractor;
+import com.ctrip.platform.dal.dao.helper.DalColumnArraysMerger;
 import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
+import com.ctrip.platform.dal.dao.helper.DalRowBatchCallbackExtractor;
 import com.ctrip.platform.dal.dao.helper.DalRowCallbackExtractor;
 import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
 import com.ctrip.platform.dal.dao.sqlbuilder.FreeSelectSqlBuilder;
@@ -19,6 +24,7 @@ import com.ctrip.platform.dal.dao.task.DalSqlTaskRequest;
 import com.ctrip.platform.dal.dao.task.FreeSqlUpdateTask;
 import com.ctrip.platform.dal.dao.task.MultipleQueryTask;
 import com.ctrip.platform.dal.dao.task.QuerySqlTask;
+import com.ctrip.platform.dal.dao.task.StreamQuerySqlTask;
 
 /**
  * DAO class that provides multiple common query functions and simple update function.
@@ -95,6 +101,45 @@ public final class DalQueryDao {
 		query(new FreeSelectSqlBuilder<>(dbCategory).setTemplate(sql).extractorWith(new DalRowCallbackExtractor(callback)).nullable(), parameters, hints);
 	}
 	
+	/**
+	 * Execute query by the given sql with parameters. The result will be stored by column, numeric column
+	 * in primitive array and character column in dictionary encoded array. Results of shards are concatenated.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return column arrays that represent the query result
+	 * @throws SQLException when things going wrong during the execution
+	 */
+	public DalColumnArrays queryColumns(String sql, StatementParameters parameters, DalHints hints) 
+			throws SQLException {
+		return query(new FreeSelectSqlBuilder<DalColumnArrays>(dbCategory).setTemplate(sql).extractorWith(new DalColumnArraysExtractor()).mergerWith(new DalColumnArraysMerger()), parameters, hints);
+	}
+	
+	/**
+	 * Execute query by the given sql with parameters. The rows will be converted by the mapper and 
+	 * processed by the given callback in batches of batchSize rows. For cross shard query, shards are
+	 * read in parallel unless sequentialExecution is set in hints. 
+	 * Use hints.fetchSize to limit the rows fetched from database each time.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param mapper Helper that converters each row to entity.
+	 * @param callback Helper that process each batch of rows.
+	 * @param batchSize max number of rows in each batch
+	 * @return number of rows processed
+	 * @throws SQLException when things going wrong during the execution
+	 */
+	public <T> int query(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper, DalRowBatchCallback<T> callback, int batchSize) 
+			throws SQLException {
+		DalRowBatchCallbackExtractor<T> extractor = new DalRowBatchCallbackExtractor<>(FreeSelectSqlBuilder.checkAllowPartial(hints, mapper), callback, batchSize);
+		DalSqlTaskRequest<Integer> request = new DalSqlTaskRequest<>(
+				logicDbName, new FreeSelectSqlBuilder<Integer>(dbCategory).setTemplate(sql).with(parameters), hints, new QuerySqlTask<>(extractor), new ResultMerger.IntSummary());
+		
+		return getSafeResult(executor.execute(hints, request, NULLABLE));
+	}
+	
 	/**
 	 * Execute query by the given sqls with parameters. The result will be wrapped into type defined by the given extractors.
 	 * 
@@ -325,6 +370,8 @@ public final class DalQueryDao {
 	 * Execute query and return partial result against the given start and count.
 	 * If the query is executed under cross shard mode(all shards, or in some shards), 
 	 * the result will be ranged after result from all shard is collected and sorted.
+	 * Each shard only returns its top start + count rows, so the sql should order rows 
+	 * the same way as the sorter in hints.
 	 * For non-corss shard case, just do the range when walk through result set.
 	 *  
 	 * @param sql The sql statement to be executed
@@ -355,6 +402,107 @@ public final class DalQueryDao {
 		return getSafeResult((Integer)executor.execute(hints, new DalSqlTaskRequest<>(logicDbName, builder.with(parameters), hints, new FreeSqlUpdateTask(), new ResultMerger.IntSummary())));
 	}
 	
+	/**
+	 * Execute query by the given sql with parameters and return cursor over the result. Rows are
+	 * read from database while iterating, so that large result does not need to be held in memory.
+	 * For cross shard query, shards are read one after another, or merged by the sorter in hints. 
+	 * In the later case, the sql should order rows the same way as the sorter.
+	 * Use hints.fetchSize to control how many rows are buffered for each shard. For MySQL, rows are
+	 * streamed by the driver one by one. For other databases, hints.fetchSize is also passed to the
+	 * driver, check the driver for whether it fetches by that size. Closing the cursor before the end
+	 * may still let the driver read the rest of the rows of the shard being read.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param mapper Helper that converters each row to entity. 
+	 * @return cursor that MUST be closed if it is not iterated to the end
+	 * @throws SQLException when things going wrong during the execution
+	 */
+	public <T> DalCursor<T> queryCursor(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper) 
+			throws SQLException {
+		StreamQuerySqlTask<T> task = new StreamQuerySqlTask<>(FreeSelectSqlBuilder.checkAllowPartial(hints, mapper), hints, dbCategory);
+		DalSqlTaskRequest<Integer> request = new DalSqlTaskRequest<>(
+				logicDbName, new FreeSelectSqlBuilder<Integer>(dbCategory).setTemplate(sql).with(parameters), hints, task, new ResultMerger.IntSummary());
+		
+		return executor.openCursor(hints, request, task);
+	}
+
+	/**
+	 * Same as queryCursor(String, StatementParameters, DalHints, DalRowMapper), each row is 
+	 * converted to instance of the given clazz.
+	 */
+	public <T> DalCursor<T> queryCursor(String sql, StatementParameters parameters, DalHints hints, Class<T> clazz) 
+			throws SQLException {
+		return queryCursor(sql, parameters, hints, getMapper(clazz));
+	}
+
+	/**
+	 * Asynchronous version of query(String, StatementParameters, DalHints, DalRowMapper).
+	 * 
+	 * @return future of the list of entities. Error during execution is reported by the future.
+	 * @throws SQLException when the request can not be created
+	 */
+	public <T> CompletableFuture<List<T>> queryAsync(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper) 
+			throws SQLException {
+		return queryAsync(new FreeSelectSqlBuilder<List<T>>(dbCategory).setTemplate(sql).mapWith(mapper), parameters, hints);
+	}
+
+	/**
+	 * Asynchronous version of query(String, StatementParameters, DalHints, Class).
+	 * 
+	 * @return future of the list of instance of clazz. Error during execution is reported by the future.
+	 * @throws SQLException when the request can not be created
+	 */
+	public <T> CompletableFuture<List<T>> queryAsync(String sql, StatementParameters parameters, DalHints hints, Class<T> clazz) 
+			throws SQLException {
+		return queryAsync(new FreeSelectSqlBuilder<List<T>>(dbCategory).setTemplate(sql).mapWith(getMapper(clazz)), parameters, hints);
+	}
+
+	/**
+	 * Asynchronous version of query(MultipleSqlBuilder, DalHints).
+	 * 
+	 * @return future of the list of results. Error during execution is reported by the future.
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<List<?>> queryAsync(MultipleSqlBuilder mqr, DalHints hints) 
+			throws SQLException {
+		DalSqlTaskRequest<List<?>> request = new DalSqlTaskRequest<>(
+				logicDbName, mqr, hints, 
+				new MultipleQueryTask(mqr.getExtractors()), mqr.getMergers());
+		
+		return executor.executeAsync(hints, request, NULLABLE);
+	}
+
+	/**
+	 * Asynchronous version of query(FreeSelectSqlBuilder, StatementParameters, DalHints).
+	 * For cross shard query, the result is merged when the last shard completes, 
+	 * no thread is blocked waiting for the shards.
+	 * 
+	 * @return future of the result defined by the type specified when constructing builder
+	 * @throws SQLException when the request can not be created
+	 */
+	public <T> CompletableFuture<T> queryAsync(FreeSelectSqlBuilder<T> builder, StatementParameters parameters, DalHints hints) throws SQLException {
+		ResultMerger<T> merger = builder.getResultMerger(hints);
+		DalResultSetExtractor<T> extractor = builder.getResultExtractor(hints);
+		
+		DalSqlTaskRequest<T> request = new DalSqlTaskRequest<>(
+				logicDbName, builder.with(parameters), hints, new QuerySqlTask<>(extractor), merger);
+		
+		return executor.executeAsync(hints, request, builder.isNullable());
+	}
+
+	/**
+	 * Asynchronous version of update(FreeUpdateSqlBuilder, StatementParameters, DalHints).
+	 * 
+	 * @return future of affected rows
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<Integer> updateAsync(FreeUpdateSqlBuilder builder, StatementParameters parameters, DalHints hints) throws SQLException {
+		CompletableFuture<Integer> future = executor.executeAsync(hints, new DalSqlTaskRequest<>(logicDbName, builder.with(parameters), hints, new FreeSqlUpdateTask(), new ResultMerger.IntSummary()));
+		return future.thenApply(this::getSafeResult);
+	}
+	
 	private int getSafeResult(Integer value) {
 		if(value == null)
 			return 0;
@@ -377,12 +525,20 @@ public final class DalQueryDao {
 		
 		mapper = FreeSelectSqlBuilder.checkAllowPartial(hints, mapper);
 		if(hints.isAllShards() || hints.isInShards()) {
+			// Only the top start + count rows of each shard can fall into the range
+			int limit = DalRangedResultMerger.getLimit(start, count);
 			builder.mergerWith(new DalRangedResultMerger<>((Comparator<T>)hints.getSorter(), start, count));
-			builder.extractorWith(new DalRowMapperExtractor<T>(mapper));
-		} else {
-			builder.extractorWith(new DalRowMapperExtractor<T>(mapper, start, count));
+			builder.extractorWith(new DalRowMapperExtractor<T>(mapper, limit));
+			
+			// Do not leave maxRows in caller's hints
+			DalHints rangeHints = hints.clone().set(DalHintEnum.maxRows, limit);
+			List<T> result = query(builder, parameters, rangeHints);
+			if(rangeHints.is(DalHintEnum.futureResult))
+				hints.set(DalHintEnum.futureResult, rangeHints.get(DalHintEnum.futureResult));
+			return result;
 		}
-
+		
+		builder.extractorWith(new DalRowMapperExtractor<T>(mapper, start, count));
 		return query(builder, parameters, hints);
 	}	
 }
@@ -0,0 +1,16 @@
+package com.ctrip.platform.dal.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Process query result in batches. For cross shard query, shards are read in parallel
+ * and each shard calls back in its own thread, so this interface MUST consider potential
+ * multiple-thread concurrent access. 
+ * 
+ * The shard stops reading while its batch is being processed, so a slow callback slows 
+ * down reading instead of piling up rows in memory.
+ */
+public interface DalRowBatchCallback<T> {
+	void process(List<T> rows) throws SQLException;
+}
@@ -1,13 +1,16 @@
 package com.ctrip.platform.dal.dao;
 
 import java.sql.SQLException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.client.DalWatcher;
 import com.ctrip.platform.dal.dao.helper.DalDefaultJpaParser;
 import com.ctrip.platform.dal.dao.helper.DalObjectRowMapper;
+import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
 import com.ctrip.platform.dal.dao.sqlbuilder.BaseTableSelectBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.DeleteSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.FreeUpdateSqlBuilder;
@@ -25,6 +28,7 @@ import com.ctrip.platform.dal.dao.task.DalTaskFactory;
 import com.ctrip.platform.dal.dao.task.DeleteSqlTask;
 import com.ctrip.platform.dal.dao.task.QuerySqlTask;
 import com.ctrip.platform.dal.dao.task.SingleTask;
+import com.ctrip.platform.dal.dao.task.StreamQuerySqlTask;
 import com.ctrip.platform.dal.dao.task.TaskAdapter;
 import com.ctrip.platform.dal.dao.task.UpdateSqlTask;
 import com.ctrip.platform.dal.exceptions.DalException;
@@ -277,6 +281,10 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 	 * where clause can contain value placeholder "?". The parameter should
 	 * match the index of the placeholder.
 	 * 
+	 * For cross shard query, each shard only returns its top start + count rows, and the
+	 * range is taken after the results are merged by the sorter in hints. So the where 
+	 * clause should order rows the same way as the sorter.
+	 * 
 	 * @param whereClause the where section for the search statement.
 	 * @param parameters A container that holds all the necessary parameters
 	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
@@ -291,9 +299,21 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 			StatementParameters parameters, DalHints hints, int start, int count)
 			throws SQLException {
 		DalWatcher.begin();
-		return query(new BaseTableSelectBuilder().where(whereClause).with(parameters).range(start, count), hints);
+		BaseTableSelectBuilder builder = new BaseTableSelectBuilder().where(whereClause).with(parameters);
+		
+		if(hints.isAllShards() || hints.isInShards()) {
+			builder.top(DalRangedResultMerger.getLimit(start, count));
+			@SuppressWarnings("unchecked")
+			Comparator<T> sorter = (Comparator<T>)hints.getSorter();
+			builder.mergerWith(new DalRangedResultMerger<>(sorter, start, count));
+		} else {
+			builder.range(start, count);
+		}
+		
+		return query(builder, hints);
 	}
 
+	@SuppressWarnings("unchecked")
 	private <K> K commonQuery(TableSelectBuilder builder, DalHints hints) throws SQLException {
 		DalSqlTaskRequest<K> request = new DalSqlTaskRequest<K>(
 				logicDbName, populate(builder), hints, 
@@ -574,6 +594,178 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		return builder;
 	}
 	
+	/**
+	 * Query by the given where clause and parameters and return cursor over the result. Rows are
+	 * read from database while iterating, so that large result does not need to be held in memory.
+	 * For cross shard query, shards are read one after another, or merged by the sorter in hints.
+	 * In the later case, the where clause should order rows the same way as the sorter.
+	 * Use hints.fetchSize to control how many rows are buffered for each shard. For MySQL, rows are
+	 * streamed by the driver one by one. For other databases, hints.fetchSize is also passed to the
+	 * driver, check the driver for whether it fetches by that size. Closing the cursor before the end
+	 * may still let the driver read the rest of the rows of the shard being read.
+	 * 
+	 * @param whereClause the where section for the search statement.
+	 * @param parameters A container that holds all the necessary parameters 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return cursor that MUST be closed if it is not iterated to the end
+	 * @throws SQLException
+	 */
+	public DalCursor<T> queryCursor(String whereClause, StatementParameters parameters, DalHints hints) throws SQLException {
+		StreamQuerySqlTask<T> task = new StreamQuerySqlTask<>(parser, hints, dbCategory);
+		TableSelectBuilder builder = new BaseTableSelectBuilder(rawTableName, dbCategory).where(whereClause).with(parameters);
+		DalSqlTaskRequest<Integer> request = new DalSqlTaskRequest<>(logicDbName, populate(builder), hints, task, new ResultMerger.IntSummary());
+		
+		return executor.openCursor(hints, request, task);
+	}
+
+	/**
+	 * Asynchronous version of query(String, StatementParameters, DalHints).
+	 * 
+	 * @return future of the list of pojos. Error during execution is reported by the future.
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<List<T>> queryAsync(String whereClause, StatementParameters parameters, DalHints hints) throws SQLException {
+		return queryAsync(new BaseTableSelectBuilder(rawTableName, dbCategory).where(whereClause).with(parameters), hints);
+	}
+
+	/**
+	 * Asynchronous version of query(TableSelectBuilder, DalHints). For cross shard query, 
+	 * the result is merged when the last shard completes, no thread is blocked waiting for the shards.
+	 * 
+	 * @return future of the list of pojos. Error during execution is reported by the future.
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<List<T>> queryAsync(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		return commonQueryAsync((TableSelectBuilder)selectBuilder.mapWith(parser).nullable(), hints);
+	}
+
+	/**
+	 * Asynchronous version of queryObject(TableSelectBuilder, DalHints).
+	 * 
+	 * @return future of the pojo
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<T> queryObjectAsync(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		return commonQueryAsync((TableSelectBuilder)selectBuilder.mapWith(parser), hints);
+	}
+
+	/**
+	 * Asynchronous version of count(TableSelectBuilder, DalHints).
+	 * 
+	 * @return future of the count
+	 * @throws SQLException when the request can not be created
+	 */
+	public CompletableFuture<Number> countAsync(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		return commonQueryAsync(selectBuilder, hints);
+	}
+
+	/**
+	 * Asynchronous version of insert(DalHints, T). The key holder in hints is filled
+	 * before the future completes.
+	 * 
+	 * @return future of affected rows
+	 */
+	public CompletableFuture<Integer> insertAsync(DalHints hints, T daoPojo) {
+		return singleAsync(setSize(hints, hints.getKeyHolder(), daoPojo), new DalSingleTaskRequest<>(logicDbName, hints, daoPojo, singleInsertTask));
+	}
+
+	/**
+	 * Asynchronous version of insert(DalHints, List). The key holder in hints is filled
+	 * before the future completes.
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> insertAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(setSize(hints, hints.getKeyHolder(), daoPojos), new DalSingleTaskRequest<>(logicDbName, hints, daoPojos, singleInsertTask));
+	}
+
+	/**
+	 * Asynchronous version of combinedInsert(DalHints, List).
+	 * 
+	 * @return future of affected rows
+	 */
+	public CompletableFuture<Integer> combinedInsertAsync(DalHints hints, List<T> daoPojos) {
+		CompletableFuture<Integer> future = executor.executeAsync(setSize(hints, hints.getKeyHolder(), daoPojos), new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, combinedInsertTask));
+		return future.thenApply(this::getSafeResult);
+	}
+
+	/**
+	 * Asynchronous version of batchInsert(DalHints, List).
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> batchInsertAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(hints, new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, batchInsertTask));
+	}
+
+	/**
+	 * Asynchronous version of delete(DalHints, T).
+	 * 
+	 * @return future of affected rows
+	 */
+	public CompletableFuture<Integer> deleteAsync(DalHints hints, T daoPojo) {
+		return singleAsync(hints, new DalSingleTaskRequest<>(logicDbName, hints, daoPojo, singleDeleteTask));
+	}
+
+	/**
+	 * Asynchronous version of delete(DalHints, List).
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> deleteAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(hints, new DalSingleTaskRequest<>(logicDbName, hints, daoPojos, singleDeleteTask));
+	}
+
+	/**
+	 * Asynchronous version of batchDelete(DalHints, List).
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> batchDeleteAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(hints, new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, batchDeleteTask));
+	}
+
+	/**
+	 * Asynchronous version of update(DalHints, T).
+	 * 
+	 * @return future of affected rows
+	 */
+	public CompletableFuture<Integer> updateAsync(DalHints hints, T daoPojo) {
+		return singleAsync(hints, new DalSingleTaskRequest<>(logicDbName, hints, daoPojo, singleUpdateTask));
+	}
+
+	/**
+	 * Asynchronous version of update(DalHints, List).
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> updateAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(hints, new DalSingleTaskRequest<>(logicDbName, hints, daoPojos, singleUpdateTask));
+	}
+
+	/**
+	 * Asynchronous version of batchUpdate(DalHints, List).
+	 * 
+	 * @return future of affected rows of each pojo
+	 */
+	public CompletableFuture<int[]> batchUpdateAsync(DalHints hints, List<T> daoPojos) {
+		return executor.executeAsync(hints, new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, batchUpdateTask));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <K> CompletableFuture<K> commonQueryAsync(TableSelectBuilder builder, DalHints hints) throws SQLException {
+		DalSqlTaskRequest<K> request = new DalSqlTaskRequest<K>(
+				logicDbName, populate(builder), hints, 
+				new QuerySqlTask<>((DalResultSetExtractor<K>)builder.getResultExtractor(hints)), (ResultMerger<K>)builder.getResultMerger(hints));
+		
+		return executor.executeAsync(hints, request, builder.isNullable());
+	}
+
+	private CompletableFuture<Integer> singleAsync(DalHints hints, DalSingleTaskRequest<T> request) {
+		CompletableFuture<int[]> future = executor.executeAsync(hints, request);
+		return future.thenApply(this::getSafeResult);
+	}
+	
 	private int getSafeResult(Integer value) {
 		if(value == null)
 			return 0;
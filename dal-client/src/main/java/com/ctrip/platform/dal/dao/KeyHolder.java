@@ -148,12 +148,22 @@ public class KeyHolder {
 	 * For internal use. Add partial generated keys, it will only be invoked for cross shard combine insert case 
 	 * @param indexList
 	 * @param tmpHolder
+	 * @throws DalException if the count of generated keys does not match the count of indexes
 	 */
-	public void addPatial(Integer[] indexList, KeyHolder tmpHolder) {
+	public void addPatial(Integer[] indexList, KeyHolder tmpHolder) throws DalException {
+		int[] indexes = new int[indexList.length];
+		for(int i = 0; i < indexes.length; i++)
+			indexes[i] = indexList[i];
+		addPatial(indexes, tmpHolder);
+	}
+	
+	public void addPatial(int[] indexList, KeyHolder tmpHolder) throws DalException {
+		if(tmpHolder.keyList.size() != indexList.length)
+			throw new DalException(ErrorCode.ValidateKeyHolderPartialSize, tmpHolder.keyList.size(), indexList.length);
+		
 		int i = 0;
-		for(Integer index: indexList) {
-			allKeys.put(index, tmpHolder.keyList.get(i++));
-		}
+		for(Map<String, Object> key: tmpHolder.keyList)
+			allKeys.put(indexList[i++], key);
 		
 		// All partial is added, start merge generated keys
 		if(pojoListSize == allKeys.size())
@@ -6,6 +6,20 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Merge results of cross shard execution.
+ * 
+ * For parallel execution, addPartial is invoked in the order that shards complete, 
+ * while the other shards may still be running. So implementation should do as much work 
+ * as possible, like sorting, in addPartial and leave as little as possible to merge.
+ * 
+ * Calls are never concurrent, but may come from different threads. For synchronous
+ * execution, addPartial and merge are invoked from the requesting thread. For parallel
+ * execution by DalRequestExecutor.executeAsync, each addPartial is invoked from the pool 
+ * thread that completes the shard, and merge from the thread that completes the last one.
+ * All of them are serialized by synchronizing on the merger, which also makes the state 
+ * written by one call visible to the next, so implementation needs no locking of its own.
+ */
 public interface ResultMerger<T> {
 	void addPartial(String shard, T partial) throws SQLException;
 	T merge() throws SQLException;
@@ -74,6 +74,25 @@ public class StatementParameter implements Comparable<StatementParameter> {
 		this.direction = ParameterDirection.Input;
 	}
 	
+	/**
+	 * Reinitialize a recycled parameter as an input parameter.
+	 */
+	StatementParameter reset(int index, int sqlType, Object value) {
+		this.defaultType = false;
+		this.dbType = null;
+		this.sqlType = sqlType;
+		this.direction = ParameterDirection.Input;
+		this.nullable = false;
+		this.name = null;
+		this.index = index;
+		this.sensitive = false;
+		this.value = value;
+		this.inParam = false;
+		this.resultsParameter = false;
+		this.resultSetExtractor = null;
+		return this;
+	}
+	
 	public static StatementParameter registerInOut(String name, int sqlType, Object value) {
 		StatementParameter parameter = new StatementParameter(name, sqlType, value);
 		parameter.setDirection(ParameterDirection.InputOutput);
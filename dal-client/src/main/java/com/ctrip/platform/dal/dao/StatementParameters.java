@@ -2,7 +2,6 @@ package com.ctrip.platform.dal.dao;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import com.ctrip.platform.dal.common.enums.ParameterDirection;
@@ -10,7 +9,46 @@ import com.ctrip.platform.dal.common.enums.ParameterDirection;
 public class StatementParameters {
 	private static final String SQLHIDDENString = "*";
 	
-	private List<StatementParameter> parameters = new LinkedList<StatementParameter>();
+	private static final int DEFAULT_CAPACITY = 8;
+	
+	private List<StatementParameter> parameters;
+	// Parameters released by reset, reused by set and setSensitive with index
+	private List<StatementParameter> recycled;
+
+	public StatementParameters() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * @param expectedSize number of parameters, e.g. column count of a CRUD statement
+	 */
+	public StatementParameters(int expectedSize) {
+		parameters = new ArrayList<StatementParameter>(expectedSize);
+	}
+
+	/**
+	 * Remove all the parameters so that this container can be filled again for the next 
+	 * execution of a statement. The removed parameter objects are reused by the setters 
+	 * that take index. Only call it when the previous execution is completed and no one 
+	 * else, like hints, holds the parameters.
+	 */
+	public StatementParameters reset() {
+		if(recycled == null)
+			recycled = new ArrayList<StatementParameter>(parameters.size());
+		
+		// Do not keep the values of the previous execution reachable
+		for(StatementParameter p: parameters)
+			recycled.add(p.reset(0, 0, null));
+		parameters.clear();
+		return this;
+	}
+	
+	private StatementParameter create(int index, int sqlType, Object value) {
+		if(recycled == null || recycled.isEmpty())
+			return new StatementParameter(index, sqlType, value);
+		
+		return recycled.remove(recycled.size() - 1).reset(index, sqlType, value);
+	}
 
 	public StatementParameters add(StatementParameter parameter) {
 		parameters.add(parameter);
@@ -29,11 +67,11 @@ public class StatementParameters {
 	}
 	
 	public StatementParameters set(int index, int sqlType, Object value) {
-		return add(new StatementParameter(index, sqlType, value));
+		return add(create(index, sqlType, value));
 	}
 
 	public StatementParameters set(int index, String name, int sqlType, Object value) {
-		return add(new StatementParameter(index, sqlType, value).setName(name));
+		return add(create(index, sqlType, value).setName(name));
 	}
 
 	public StatementParameters set(String name, int sqlType, Object value) {
@@ -49,11 +87,11 @@ public class StatementParameters {
 	}
 	
 	public StatementParameters setSensitive(int index, int sqlType, Object value) {
-		return add(new StatementParameter(index, sqlType, value).setSensitive(true));
+		return add(create(index, sqlType, value).setSensitive(true));
 	}
 
 	public StatementParameters setSensitive(int index, String name, int sqlType, Object value) {
-		return add(new StatementParameter(index, sqlType, value).setSensitive(true).setName(name));
+		return add(create(index, sqlType, value).setSensitive(true).setName(name));
 	}
 	
 	public StatementParameters setSensitive(String name, int sqlType, Object value) {
@@ -134,7 +172,7 @@ public class StatementParameters {
 	}
 	
 	public StatementParameters duplicateWith(String name, Object value) {
-		StatementParameters tempParameters = new StatementParameters();
+		StatementParameters tempParameters = new StatementParameters(parameters.size());
 		
 		for(StatementParameter parameter: parameters){
 			Object pValue = name.equals(parameter.getName()) ? value: parameter.getValue();
@@ -146,7 +184,7 @@ public class StatementParameters {
 	}
 	
 	public StatementParameters duplicate() {
-		StatementParameters tempParameters = new StatementParameters();
+		StatementParameters tempParameters = new StatementParameters(parameters.size());
 		
 		for(StatementParameter parameter: parameters){
 			tempParameters.add(new StatementParameter(parameter));
@@ -171,33 +209,58 @@ public class StatementParameters {
 		return false;
 	}
 	
+	/**
+	 * Bucket size of an in parameter list, shared by SQL compiling and parameter padding.
+	 * @return the smallest power of two that is not less than size. 0 and 1 are kept as is.
+	 */
+	public static int bucket(int size) {
+		if(size <= 1)
+			return size;
+		int highest = Integer.highestOneBit(size - 1) << 1;
+		// Can not round up beyond the largest int power of two
+		return highest <= 0 ? size : highest;
+	}
+	
 	/**
 	 * Expand in parameters if necessary. This must be executed before execution
 	 */
 	public void compile() {
+		compile(false);
+	}
+	
+	/**
+	 * Expand in parameters if necessary. This must be executed before execution
+	 * 
+	 * @param bucketed if true, each in parameter list is padded to its bucket size by
+	 * repeating its last value, so that it matches the SQL compiled with the same buckets
+	 */
+	public void compile(boolean bucketed) {
 		if(!containsInParameter())
 			return;
 		
 		//To be safe, order parameters by original index
 		Collections.sort(parameters);
 
-		// Make a copy of original parameters
-		List<StatementParameter> tmpParameters = new LinkedList<StatementParameter>(parameters);
-
-		// The change will be made into original parameters
-		int i = 0;
-		for(StatementParameter p: tmpParameters) {
+		// Expand into a new list in one pass
+		List<StatementParameter> expanded = new ArrayList<StatementParameter>(parameters.size());
+		for(StatementParameter p: parameters) {
 			if(p.isInParam()) {
-				// Remove the original
-				parameters.remove(p);
 				List<?> values = p.getValue();
-				for(Object val : values) {
-					parameters.add(i, new StatementParameter(p).setIndex((i+1)).setInParam(false).setValue(val));
-					i++;
-				}
+				// The original is dropped, clear the flag so that copy does not duplicate the list
+				p.setInParam(false);
+				for(Object val : values)
+					expanded.add(new StatementParameter(p).setValue(val).setIndex(expanded.size() + 1));
+				
+				if(!bucketed || values.isEmpty())
+					continue;
+
+				Object last = values.get(values.size() - 1);
+				for(int i = values.size(); i < bucket(values.size()); i++)
+					expanded.add(new StatementParameter(p).setValue(last).setIndex(expanded.size() + 1));
 			}else {
-				p.setIndex(++i);
+				expanded.add(p.setIndex(expanded.size() + 1));
 			}
 		}
+		parameters = expanded;
 	}
 }
@@ -9,7 +9,9 @@ import java.sql.Statement;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.ctrip.platform.dal.dao.DalClientFactory;
 import com.ctrip.platform.dal.dao.DalCommand;
@@ -18,9 +20,14 @@ import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.Version;
+import com.ctrip.platform.dal.dao.configure.DataBaseLoad;
 import com.ctrip.platform.dal.exceptions.DalException;
 
 public abstract class ConnectionAction<T> {
+	private static final int MAX_WRAPPED_SQL_LENGTH = 4096;
+	private static final int MAX_WRAPPED_SQL_COUNT = 1024;
+	private static volatile WrappedSqlCache wrappedSqlCache;
+	
 	public DalEventEnum operation;
 	public String sql;
 	public String callString;
@@ -37,6 +44,9 @@ public abstract class ConnectionAction<T> {
 	public CallableStatement callableStatement;
 	public ResultSet rs;
 	public long start;
+	// Load of the database in use, it is not tracked in transaction
+	private DataBaseLoad load;
+	private long connectedNanos;
 	
 	public DalLogger logger = DalClientFactory.getDalLogger();
 	public LogEntry entry;
@@ -151,12 +161,34 @@ public abstract class ConnectionAction<T> {
 		return null != result && result instanceof Collection<?> ? ((Collection<?>)result).size() : 0;
 	}
 	
+	/**
+	 * Called when connection is got, start tracking load of the database for
+	 * DatabaseSelector. It is ended in cleanup.
+	 */
+	public void connected() {
+		if(DalTransactionManager.isInTransaction() || connHolder == null || connHolder.getMeta() == null)
+			return;
+		
+		load = DataBaseLoad.of(connHolder.getMeta().getDataBaseKeyName());
+		load.begin();
+		connectedNanos = System.nanoTime();
+	}
+	
 	public void cleanup() {
 		closeResultSet();
 		closeStatement();
+		endLoad();
 		closeConnection();
 	}
 	
+	private void endLoad() {
+		if(load == null)
+			return;
+		
+		load.end(System.nanoTime() - connectedNanos);
+		load = null;
+	}
+	
 	private void closeResultSet() {
 		if(rs != null) {
 			try {
@@ -179,7 +211,9 @@ public abstract class ConnectionAction<T> {
 		
 		if(_statement != null) {
 			try {
-				_statement.close();
+				DalStatementCanceller.unregister(_statement);
+				if(!DalStatementCache.release(_statement))
+					_statement.close();
 			} catch (Throwable e) {
 				logger.error("Close statement failed.", e);
 			}
@@ -206,8 +240,38 @@ public abstract class ConnectionAction<T> {
 			throw e instanceof SQLException ? (SQLException)e : DalException.wrap(e);
 	}
 
+	/**
+	 * Sql of the CRUD tasks is cached, the same sql string is passed in again and again.
+	 * So the wrapped sql is cached too, except for the very long one.
+	 */
 	private String wrapAPPID(String sql){
-		return "/*" + DalClientFactory.getDalLogger().getAppID() + "*/" + sql;
+		String appId = DalClientFactory.getDalLogger().getAppID();
+		if(sql == null || sql.length() > MAX_WRAPPED_SQL_LENGTH)
+			return "/*" + appId + "*/" + sql;
+
+		WrappedSqlCache cache = wrappedSqlCache;
+		if(cache == null || !Objects.equals(cache.appId, appId))
+			wrappedSqlCache = cache = new WrappedSqlCache(appId);
+
+		String wrapped = cache.sqls.get(sql);
+		if(wrapped != null)
+			return wrapped;
+
+		if(cache.sqls.size() >= MAX_WRAPPED_SQL_COUNT)
+			cache.sqls.clear();
+
+		wrapped = "/*" + appId + "*/" + sql;
+		cache.sqls.put(sql, wrapped);
+		return wrapped;
+	}
+	
+	private static class WrappedSqlCache {
+		private String appId;
+		private ConcurrentHashMap<String, String> sqls = new ConcurrentHashMap<>();
+		
+		WrappedSqlCache(String appId) {
+			this.appId = appId;
+		}
 	}
 	
 	public abstract T execute() throws Exception;
@@ -17,26 +17,25 @@ import com.ctrip.platform.dal.exceptions.ErrorCode;
 public class DalConnectionManager {
 	private DalConfigure config;
 	private String logicDbName;
-	private DalLogger logger;
-	private DalConnectionLocator locator;
 
 	public DalConnectionManager(String logicDbName, DalConfigure config) {
 		this.logicDbName = logicDbName;
 		this.config = config;
-		this.logger = config.getDalLogger();
-		this.locator = config.getLocator();
 	}
 	
 	public String getLogicDbName() {
 		return logicDbName;
 	}
 	
+	/**
+	 * @return the latest configure, it may be replaced by reloading after this is created
+	 */
 	public DalConfigure getConfig() {
-		return config;
+		return config.getCurrent();
 	}
 	
 	public DalLogger getLogger() {
-		return logger;
+		return getConfig().getDalLogger();
 	}
 
 	public DalConnection getNewConnection(DalHints hints, boolean useMaster, DalEventEnum operation)
@@ -64,7 +63,7 @@ public class DalConnectionManager {
 		}
 		catch(SQLException ex)
 		{
-			logger.getConnectionFailed(realDbName, ex);
+			getLogger().getConnectionFailed(realDbName, ex);
 			throw ex;
 		}
 		return connHolder;
@@ -74,6 +73,7 @@ public class DalConnectionManager {
 			boolean isMaster, boolean isSelect) throws SQLException {
 		Connection conn;
 		String allInOneKey;
+		DalConfigure config = getConfig();
 		DatabaseSet dbSet = config.getDatabaseSet(logicDbName);
 		String shardId = null;
 		
@@ -95,7 +95,7 @@ public class DalConnectionManager {
 		}
 		
 		try {	
-			conn = locator.getConnection(allInOneKey);
+			conn = config.getLocator().getConnection(allInOneKey);
 			DbMeta meta = DbMeta.createIfAbsent(allInOneKey, dbSet.getDatabaseCategory(), shardId, isMaster, conn);
 			return new DalConnection(conn, meta);
 		} catch (Throwable e) {
@@ -357,6 +357,7 @@ public class DalDirectClient implements DalClient {
 
 		action.connHolder = transManager.getConnection(hints, action.operation);
 		Connection conn = action.connHolder.getConn();
+		action.connected();
 
 		DalWatcher.endConnect();
 		return conn;
@@ -0,0 +1,263 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.status.StatementCacheStatus;
+
+/**
+ * LRU cache of prepared statements of one physical connection. The pooled connection 
+ * handed out to DAL is a new proxy for each checkout, so the statements are prepared
+ * on and cached for the physical connection behind it. They survive the connection 
+ * being returned to pool and are reused by the next checkout of the same connection.
+ * 
+ * Cached statement is not closed after execution, it is released back to the cache
+ * by ConnectionAction cleanup. Statement that is in use is never handed out twice.
+ * 
+ * Looking up the cache of a connection takes no lock. Caches of closed connections are
+ * dropped when a new physical connection shows up and the number of caches has doubled
+ * since the last purge, so the scan is amortized over the connections created.
+ * 
+ * It is enabled and sized through StatementCacheStatus.
+ */
+public class DalStatementCache {
+	private static final int MIN_PURGE_THRESHOLD = 64;
+	
+	// Physical connections of JDBC drivers do not override equals and hashCode
+	private static final ConcurrentHashMap<Connection, DalStatementCache> caches = new ConcurrentHashMap<>();
+	private static final Map<Statement, Entry> inUse = new ConcurrentHashMap<>();
+	private static final AtomicInteger purgeThreshold = new AtomicInteger(MIN_PURGE_THRESHOLD);
+	
+	private LinkedHashMap<Key, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+	private Connection conn;
+	
+	private DalStatementCache(Connection conn) {
+		this.conn = conn;
+	}
+	
+	public static boolean isEnabled() {
+		StatementCacheStatus status = DalStatusManager.getStatementCacheStatus();
+		return status != null && status.isEnabled() && status.getMaxSize() > 0;
+	}
+	
+	/**
+	 * @return cache of the physical connection behind the given pooled connection
+	 */
+	public static DalStatementCache of(Connection conn) {
+		Connection physical = unwrap(conn);
+		DalStatementCache cache = caches.get(physical);
+		if(cache != null)
+			return cache;
+		
+		cache = new DalStatementCache(physical);
+		DalStatementCache existing = caches.putIfAbsent(physical, cache);
+		if(existing != null)
+			return existing;
+		
+		int threshold = purgeThreshold.get();
+		if(caches.size() >= threshold && purgeThreshold.compareAndSet(threshold, Integer.MAX_VALUE))
+			purgeClosed();
+		
+		return cache;
+	}
+	
+	private static void purgeClosed() {
+		Iterator<Map.Entry<Connection, DalStatementCache>> it = caches.entrySet().iterator();
+		while(it.hasNext()) {
+			Map.Entry<Connection, DalStatementCache> cache = it.next();
+			if(isClosed(cache.getKey())) {
+				it.remove();
+				cache.getValue().clear();
+			}
+		}
+		purgeThreshold.set(Math.max(MIN_PURGE_THRESHOLD, caches.size() * 2));
+	}
+	
+	/**
+	 * @return number of physical connections that have cache
+	 */
+	public static int getCacheCount() {
+		return caches.size();
+	}
+	
+	private static boolean isClosed(Connection conn) {
+		try {
+			return conn.isClosed();
+		} catch (Throwable e) {
+			return true;
+		}
+	}
+	
+	private static Connection unwrap(Connection conn) {
+		try {
+			return conn.isWrapperFor(Connection.class) ? conn.unwrap(Connection.class) : conn;
+		} catch (Throwable e) {
+			return conn;
+		}
+	}
+	
+	/**
+	 * Release the statement if it is cached. The statement is unregistered from
+	 * any canceller first, because it may be borrowed by other request right after.
+	 * @return false if the statement is not cached and should be closed by caller 
+	 */
+	public static boolean release(Statement statement) {
+		Entry entry = inUse.remove(statement);
+		if(entry == null)
+			return false;
+		
+		DalStatementCanceller.unregister(statement);
+		entry.cache.release(entry);
+		return true;
+	}
+	
+	public PreparedStatement prepare(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return prepare(new Key(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS));
+	}
+	
+	public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		return prepare(new Key(sql, -1, -1, autoGeneratedKeys));
+	}
+	
+	public synchronized int size() {
+		return statements.size();
+	}
+	
+	private synchronized PreparedStatement prepare(Key key) throws SQLException {
+		StatementCacheStatus status = DalStatusManager.getStatementCacheStatus();
+		Entry entry = statements.get(key);
+		
+		if(entry != null && !entry.inUse) {
+			if(!isClosed(entry.statement)) {
+				status.hit();
+				return use(entry);
+			}
+			
+			statements.remove(key);
+			entry = null;
+		}
+		
+		status.miss();
+		PreparedStatement statement = key.create(conn);
+		
+		// Same sql is still in use, e.g. nested query in a transaction. Do not cache the second one
+		if(entry != null)
+			return statement;
+		
+		entry = new Entry(this, statement);
+		statements.put(key, entry);
+		evict(status);
+		return use(entry);
+	}
+	
+	private PreparedStatement use(Entry entry) {
+		entry.inUse = true;
+		inUse.put(entry.statement, entry);
+		return entry.statement;
+	}
+	
+	private void evict(StatementCacheStatus status) {
+		Iterator<Entry> it = statements.values().iterator();
+		while(statements.size() > status.getMaxSize() && it.hasNext()) {
+			Entry eldest = it.next();
+			if(eldest.inUse)
+				continue;
+			
+			it.remove();
+			close(eldest.statement);
+			status.evicted();
+		}
+	}
+	
+	private synchronized void release(Entry entry) {
+		try {
+			PreparedStatement statement = entry.statement;
+			statement.clearParameters();
+			statement.clearBatch();
+			statement.setMaxRows(0);
+			statement.setFetchSize(0);
+			entry.inUse = false;
+		} catch (Throwable e) {
+			// Can not be reused
+			statements.values().remove(entry);
+			close(entry.statement);
+		}
+	}
+	
+	private synchronized void clear() {
+		for(Entry entry: statements.values())
+			close(entry.statement);
+		statements.clear();
+	}
+	
+	private boolean isClosed(Statement statement) {
+		try {
+			return statement.isClosed();
+		} catch (Throwable e) {
+			return true;
+		}
+	}
+	
+	private void close(Statement statement) {
+		try {
+			statement.close();
+		} catch (Throwable e) {
+			DalClientFactory.getDalLogger().error("Close cached statement failed.", e);
+		}
+	}
+	
+	private static class Entry {
+		private DalStatementCache cache;
+		private PreparedStatement statement;
+		private boolean inUse;
+		
+		Entry(DalStatementCache cache, PreparedStatement statement) {
+			this.cache = cache;
+			this.statement = statement;
+		}
+	}
+	
+	private static class Key {
+		private String sql;
+		private int resultSetType;
+		private int resultSetConcurrency;
+		private int autoGeneratedKeys;
+		
+		Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.resultSetType = resultSetType;
+			this.resultSetConcurrency = resultSetConcurrency;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+		}
+		
+		PreparedStatement create(Connection conn) throws SQLException {
+			return autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? 
+					conn.prepareStatement(sql, autoGeneratedKeys) :
+					conn.prepareStatement(sql, resultSetType, resultSetConcurrency);
+		}
+		
+		@Override
+		public int hashCode() {
+			return ((sql.hashCode() * 31 + resultSetType) * 31 + resultSetConcurrency) * 31 + autoGeneratedKeys;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+			
+			Key other = (Key)obj;
+			return resultSetType == other.resultSetType && resultSetConcurrency == other.resultSetConcurrency
+					&& autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+		}
+	}
+}
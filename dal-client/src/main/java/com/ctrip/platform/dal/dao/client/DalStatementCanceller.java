@@ -0,0 +1,92 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Track statements created for one cross shard execution, so that the in-flight
+ * statements can be cancelled from the requesting thread when the deadline passes.
+ *
+ * Interrupting the shard thread is not enough, because most JDBC drivers block in
+ * socket read and ignore interruption.
+ *
+ * Statements are unregistered when the execution that uses them is cleaned up, so
+ * that a cached statement can not be cancelled after it is handed to other request.
+ */
+public class DalStatementCanceller {
+	private static final Map<Statement, DalStatementCanceller> owners = new ConcurrentHashMap<>();
+	
+	private Set<Statement> statements = Collections.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>());
+	private volatile boolean cancelled;
+
+	/**
+	 * Register statement before it is executed. If the execution is already cancelled,
+	 * the statement will be closed and exception will be thrown.
+	 */
+	public void register(Statement statement) throws SQLException {
+		statements.add(statement);
+		owners.put(statement, this);
+
+		// Must check after add, cancel() may be iterating statements in other thread
+		if(!cancelled)
+			return;
+
+		unregister(statement);
+		try {
+			statement.close();
+		} catch (Throwable e) {
+			DalClientFactory.getDalLogger().error("Close statement failed.", e);
+		}
+		throw new DalException(ErrorCode.StatementCancelled);
+	}
+
+	/**
+	 * Stop tracking the statement by whichever canceller registered it. 
+	 * Called when the execution that uses the statement is completed, or the
+	 * statement is released to cache. Waits for the owner if it is cancelling,
+	 * so that the statement is not cancelled after it is handed to others.
+	 */
+	public static void unregister(Statement statement) {
+		DalStatementCanceller owner = owners.get(statement);
+		if(owner == null)
+			return;
+		
+		synchronized (owner) {
+			owners.remove(statement, owner);
+			owner.statements.remove(statement);
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Cancel statements that are still registered. Statement that is already
+	 * unregistered is left untouched.
+	 */
+	public synchronized void cancel() {
+		cancelled = true;
+
+		for(Statement statement: statements) {
+			if(!owners.remove(statement, this))
+				continue;
+			
+			try {
+				if(!statement.isClosed())
+					statement.cancel();
+			} catch (Throwable e) {
+				DalClientFactory.getDalLogger().error("Cancel statement failed.", e);
+			}
+		}
+		statements.clear();
+	}
+}
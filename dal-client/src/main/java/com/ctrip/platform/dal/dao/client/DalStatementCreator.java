@@ -1,11 +1,16 @@
 package com.ctrip.platform.dal.dao.client;
 
+import java.math.BigDecimal;
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 
 import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
@@ -27,30 +32,47 @@ public class DalStatementCreator {
 	}
 
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters parameters, DalHints hints) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+		PreparedStatement statement = prepareStatement(conn, sql, hints);
 		
-		applyHints(statement, hints);
-		setParameter(statement, parameters);
+		try {
+			applyHints(statement, hints);
+			setParameter(statement, parameters);
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
+		}
 		
 		return statement;
 	}
 	
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters parameters, DalHints hints, KeyHolder keyHolder) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql,Statement.RETURN_GENERATED_KEYS);
+		PreparedStatement statement = DalStatementCache.isEnabled() ?
+				DalStatementCache.of(conn).prepare(sql, Statement.RETURN_GENERATED_KEYS) :
+				conn.prepareStatement(sql,Statement.RETURN_GENERATED_KEYS);
 		
-		applyHints(statement, hints);
-		setParameter(statement, parameters);
+		try {
+			applyHints(statement, hints);
+			setParameter(statement, parameters);
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
+		}
 		
 		return statement;
 	}
 	
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters[] parametersList, DalHints hints) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+		PreparedStatement statement = prepareStatement(conn, sql, hints);
 		
-		applyHints(statement, hints);
-		for(StatementParameters parameters: parametersList) {
-			setParameter(statement, parameters);
-			statement.addBatch();
+		try {
+			applyHints(statement, hints);
+			for(StatementParameters parameters: parametersList) {
+				setParameter(statement, parameters);
+				statement.addBatch();
+			}
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
 		}
 		
 		return statement;
@@ -79,15 +101,36 @@ public class DalStatementCreator {
 		return statement;
 	}
 
+	private PreparedStatement prepareStatement(Connection conn, String sql, DalHints hints) throws SQLException {
+		if(DalStatementCache.isEnabled())
+			return DalStatementCache.of(conn).prepare(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+		
+		return conn.prepareStatement(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+	}
+	
+	/**
+	 * The statement is not returned to caller, so it will not be cleaned up by caller.
+	 */
+	private void discard(Statement statement) {
+		try {
+			if(!DalStatementCache.release(statement))
+				statement.close();
+		} catch (Throwable e) {
+		}
+	}
+	
+	// Access by position, no iterator is created for each statement or batch row
 	private void setParameter(PreparedStatement statement, StatementParameters parameters) throws Exception {
-		for (StatementParameter parameter: parameters.values()) {
+		for (int i = 0, size = parameters.size(); i < size; i++) {
+			StatementParameter parameter = parameters.get(i);
 			if(parameter.isInputParameter())
 				setObject(statement, parameter);
 		}
 	}
 	
 	private void setParameter(CallableStatement statement, StatementParameters parameters) throws Exception {
-		for (StatementParameter parameter: parameters.values()) {
+		for (int i = 0, size = parameters.size(); i < size; i++) {
+			StatementParameter parameter = parameters.get(i);
 			if(parameter.isInputParameter()) {
 				setObject(statement, parameter);
 			}
@@ -99,11 +142,95 @@ public class DalStatementCreator {
 		if(parameter.isDefaultType()){
 			statement.setObject(parameter.getIndex(), parameter.getValue());
 		}
-		else{
+		else if(!setTyped(statement, parameter.getIndex(), parameter.getSqlType(), parameter.getValue())){
 			statement.setObject(parameter.getIndex(), parameter.getValue(), parameter.getSqlType());
 		}
 	}
 	
+	/**
+	 * Bind by the typed setter when the value already has the java type of the declared
+	 * sql type, so the driver does not need to inspect and convert the value. 
+	 * @return false if the value needs conversion, it should be set by setObject
+	 */
+	static boolean setTyped(PreparedStatement statement, int index, int sqlType, Object value) throws SQLException{
+		if(value == null) {
+			statement.setNull(index, sqlType);
+			return true;
+		}
+		
+		switch (sqlType) {
+		case Types.BIGINT:
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			if(value instanceof Long)
+				statement.setLong(index, (Long)value);
+			else if(value instanceof Integer)
+				statement.setInt(index, (Integer)value);
+			else if(value instanceof Short)
+				statement.setShort(index, (Short)value);
+			else if(value instanceof Byte)
+				statement.setByte(index, (Byte)value);
+			else
+				return false;
+			return true;
+		case Types.DOUBLE:
+		case Types.FLOAT:
+		case Types.REAL:
+			if(value instanceof Double)
+				statement.setDouble(index, (Double)value);
+			else if(value instanceof Float)
+				statement.setFloat(index, (Float)value);
+			else
+				return false;
+			return true;
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			if(!(value instanceof BigDecimal))
+				return false;
+			statement.setBigDecimal(index, (BigDecimal)value);
+			return true;
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+			if(!(value instanceof String))
+				return false;
+			statement.setString(index, (String)value);
+			return true;
+		case Types.TIMESTAMP:
+			if(!(value instanceof Timestamp))
+				return false;
+			statement.setTimestamp(index, (Timestamp)value);
+			return true;
+		case Types.DATE:
+			if(!(value instanceof Date))
+				return false;
+			statement.setDate(index, (Date)value);
+			return true;
+		case Types.TIME:
+			if(!(value instanceof Time))
+				return false;
+			statement.setTime(index, (Time)value);
+			return true;
+		case Types.BIT:
+		case Types.BOOLEAN:
+			if(!(value instanceof Boolean))
+				return false;
+			statement.setBoolean(index, (Boolean)value);
+			return true;
+		case Types.BINARY:
+		case Types.VARBINARY:
+		case Types.LONGVARBINARY:
+			if(!(value instanceof byte[]))
+				return false;
+			statement.setBytes(index, (byte[])value);
+			return true;
+		default:
+			// National character, LOB and vendor types are left to the driver
+			return false;
+		}
+	}
+	
 	private void setObject(CallableStatement statement, StatementParameter parameter) throws SQLException{
 		if(parameter.getValue() == null) {
 			if(parameter.isDefaultType()){
@@ -132,7 +259,8 @@ public class DalStatementCreator {
 	private void applyHints(Statement statement, DalHints hints) throws SQLException {
 		Integer fetchSize = (Integer)hints.get(DalHintEnum.fetchSize);
 		
-		if(fetchSize != null && fetchSize > 0)
+		// Integer.MIN_VALUE is the row streaming mode of MySQL driver
+		if(fetchSize != null && (fetchSize > 0 || fetchSize == Integer.MIN_VALUE))
 			statement.setFetchSize(fetchSize);
 
 		Integer maxRows = (Integer)hints.get(DalHintEnum.maxRows);
@@ -148,6 +276,9 @@ public class DalStatementCreator {
 				statement.setQueryTimeout(timeout);
 		}
 		
+		DalStatementCanceller canceller = (DalStatementCanceller)hints.get(DalHintEnum.statementCanceller);
+		if(canceller != null)
+			canceller.register(statement);
 	}
 	
 	private int getResultSetType(DalHints hints) {
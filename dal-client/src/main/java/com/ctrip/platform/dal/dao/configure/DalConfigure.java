@@ -1,21 +1,38 @@
 package com.ctrip.platform.dal.dao.configure;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.ctrip.platform.dal.dao.client.DalConnectionLocator;
 import com.ctrip.platform.dal.dao.client.DalLogger;
 import com.ctrip.platform.dal.dao.task.DalTaskFactory;
 
 public class DalConfigure {
+	private static final Logger logger = LoggerFactory.getLogger(DalConfigure.class);
+	
+	public static final int DEFAULT_WARM_UP_PARALLELISM = 10;
+	
 	private String name;
 	private Map<String, DatabaseSet> databaseSets = new ConcurrentHashMap<String, DatabaseSet>();
 	private DalLogger dalLogger;
 	private DalConnectionLocator locator;
 	private DalTaskFactory facory;
+	// Set when this configure is replaced by reloading
+	private volatile DalConfigure replacement;
 	
 	public DalConfigure(String name, Map<String, DatabaseSet> databaseSets, DalLogger dalLogger, DalConnectionLocator locator, DalTaskFactory facory) {
 		this.name = name;
@@ -29,6 +46,23 @@ public class DalConfigure {
 		return name;
 	}
 	
+	/**
+	 * Mark this configure as replaced, so that clients created with it turn to the new one
+	 */
+	public void replaceWith(DalConfigure replacement) {
+		this.replacement = replacement;
+	}
+	
+	/**
+	 * @return the latest configure that replaces this one, or this one if it is not replaced
+	 */
+	public DalConfigure getCurrent() {
+		DalConfigure current = this;
+		while(current.replacement != null)
+			current = current.replacement;
+		return current;
+	}
+	
 	public DatabaseSet getDatabaseSet(String logicDbName) {
 		if (!databaseSets.containsKey(logicDbName))
 			throw new IllegalArgumentException(
@@ -40,23 +74,78 @@ public class DalConfigure {
 	}
 	
 	public void warmUpConnections() {
-		for(DatabaseSet dbSet: databaseSets.values()){
-			Map<String, DataBase> dbs = dbSet.getDatabases();
-			for(DataBase db: dbs.values()) {
-				Connection conn = null;
+		warmUpConnections(DEFAULT_WARM_UP_PARALLELISM);
+	}
+	
+	/**
+	 * Create the connection pools of all the data sources at the same time, and
+	 * open one connection from each of them. The time spent and failures are logged
+	 * when all are done.
+	 * 
+	 * @param parallelism max number of pools being created at the same time
+	 */
+	public void warmUpConnections(int parallelism) {
+		warmUpConnections(getDataSourceNames(), parallelism);
+	}
+	
+	/**
+	 * Warm up the given data sources only
+	 */
+	public void warmUpConnections(Set<String> names, int parallelism) {
+		if(names.isEmpty())
+			return;
+		
+		long start = System.currentTimeMillis();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, names.size())), new WarmUpThreadFactory());
+		
+		List<Future<Long>> results = new ArrayList<>(names.size());
+		List<String> submitted = new ArrayList<>(names.size());
+		try {
+			for(final String name: names) {
+				submitted.add(name);
+				results.add(executor.submit(new Callable<Long>() {
+					@Override
+					public Long call() throws Exception {
+						return warmUp(name);
+					}
+				}));
+			}
+			
+			StringBuilder report = new StringBuilder();
+			int failed = 0;
+			for(int i = 0; i < results.size(); i++) {
+				report.append("\n\t").append(submitted.get(i)).append(": ");
 				try {
-					conn = locator.getConnection(db.getConnectionString());
+					report.append(results.get(i).get()).append("ms");
 				} catch (Throwable e) {
-					e.printStackTrace();
-				}finally {
-					if(conn != null)
-						try {
-							conn.close();
-						} catch (Throwable e) {
-							e.printStackTrace();
-						}
+					failed++;
+					report.append("failed");
+					logger.error("Warm up data source " + submitted.get(i) + " failed", e);
 				}
 			}
+			
+			logger.info(String.format("Warm up %d data sources with parallelism %d in %dms, %d failed.%s",
+					names.size(), parallelism, System.currentTimeMillis() - start, failed, report));
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	private long warmUp(String name) throws Exception {
+		long start = System.currentTimeMillis();
+		Connection conn = locator.getConnection(name);
+		conn.close();
+		return System.currentTimeMillis() - start;
+	}
+	
+	private static class WarmUpThreadFactory implements ThreadFactory {
+		private AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "DAL-WarmUp-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
 		}
 	}
 	
@@ -59,6 +59,12 @@ import com.ctrip.platform.dal.dao.task.DefaultTaskFactory;
   </ConnectionLocator>
   <TaskFactory>
       <factory>com.xxx.xxx.xxx</factory>
+      <settings>
+        <maxPoolSize>50</maxPoolSize>
+        <maxQueueSize>1000</maxQueueSize>
+        <executorMode>platform</executorMode>
+        <maxPoolSize.SimpleShard>100</maxPoolSize.SimpleShard>
+      </settings>
   </TaskFactory>
 </dal>
  */
@@ -79,6 +85,8 @@ public class DalConfigureFactory {
 	private static String DATABASE_TYPE = "databaseType";
 	private static String SHARDING = "sharding";
 	private static String CONNECTION_STRING = "connectionString";
+	private static String WEIGHT = "weight";
+	private static String SELECT_POLICY = "selectPolicy";
 	private static String MASTER = "Master";
 	private static String LOG_LISTENER = "LogListener";
 	private static String TASK_FACTORY = "TaskFactory";
@@ -95,6 +103,13 @@ public class DalConfigureFactory {
 	 * @throws Exception
 	 */
 	public static DalConfigure load() throws Exception {
+		return load(getConfigureUrl());
+	}
+	
+	/**
+	 * @return location of dal.xml or Dal.config in classpath
+	 */
+	public static URL getConfigureUrl() {
 		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 		if (classLoader == null) {
 			classLoader = DalClientFactory.class.getClassLoader();
@@ -108,7 +123,26 @@ public class DalConfigureFactory {
 			throw new IllegalStateException(
 					"Can not find " + DAL_XML + " or " + DAL_CONFIG + " to initilize dal configure");
 		
-		return load(dalconfigUrl);
+		return dalconfigUrl;
+	}
+	
+	/**
+	 * Load the configure again for reloading. Logger and task factory of the current
+	 * configure are kept, because they hold process wide resources. Database sets and
+	 * connection locator are created from the new configure.
+	 */
+	public static DalConfigure reload(URL url, DalConfigure current) throws Exception {
+		InputStream in = url.openStream();
+		try{
+			Document doc= DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+			return factory.getFromDocument(doc, current);
+		} finally {
+			try{
+				in.close();
+			}catch(Throwable e1){
+				
+			}
+		}
 	}
 		
 	public static DalConfigure load(URL url) throws Exception {
@@ -141,13 +175,17 @@ public class DalConfigureFactory {
 	}
 
 	public DalConfigure getFromDocument(Document doc) throws Exception{
+		return getFromDocument(doc, null);
+	}
+	
+	private DalConfigure getFromDocument(Document doc, DalConfigure current) throws Exception{
 		Element root = doc.getDocumentElement();
 
 		String name = getAttribute(root, NAME);
 
-		DalLogger logger = readComponent(root, LOG_LISTENER, new DefaultLogger(), LOGGER);
+		DalLogger logger = current != null ? current.getDalLogger() : readComponent(root, LOG_LISTENER, new DefaultLogger(), LOGGER);
 		
-		DalTaskFactory factory = readComponent(root, TASK_FACTORY, new DefaultTaskFactory(), FACTORY);
+		DalTaskFactory factory = current != null ? current.getFacory() : readComponent(root, TASK_FACTORY, new DefaultTaskFactory(), FACTORY);
 		
 		DalConnectionLocator locator = readComponent(root, CONNECTION_LOCATOR, new DefaultDalConnectionLocator(), LOCATOR);
 
@@ -187,23 +225,29 @@ public class DalConfigureFactory {
 			databases.put(database.getName(), database);
 		}
 		
+		DatabaseSet databaseSet;
 		if(hasAttribute(databaseSetNode, SHARD_STRATEGY))
-			return new DatabaseSet(
+			databaseSet = new DatabaseSet(
 					getAttribute(databaseSetNode, NAME),
 					getAttribute(databaseSetNode, PROVIDER),
 					getAttribute(databaseSetNode, SHARD_STRATEGY),
 					databases);
 		else if(hasAttribute(databaseSetNode, SHARDING_STRATEGY))
-			return new DatabaseSet(
+			databaseSet = new DatabaseSet(
 					getAttribute(databaseSetNode, NAME),
 					getAttribute(databaseSetNode, PROVIDER),
 					getAttribute(databaseSetNode, SHARDING_STRATEGY),
 					databases);
 		else
-			return new DatabaseSet(
+			databaseSet = new DatabaseSet(
 					getAttribute(databaseSetNode, NAME),
 					getAttribute(databaseSetNode, PROVIDER),
 					databases);
+		
+		if(hasAttribute(databaseSetNode, SELECT_POLICY))
+			databaseSet.setSelectPolicy(DatabaseSelectPolicies.create(getAttribute(databaseSetNode, SELECT_POLICY)));
+		
+		return databaseSet;
 	}
 	
 	private DataBase readDataBase(Node dataBaseNode) {
@@ -211,7 +255,8 @@ public class DalConfigureFactory {
 				getAttribute(dataBaseNode, NAME),
 				getAttribute(dataBaseNode, DATABASE_TYPE).equals(MASTER),
 				getAttribute(dataBaseNode, SHARDING),
-				getAttribute(dataBaseNode, CONNECTION_STRING));
+				getAttribute(dataBaseNode, CONNECTION_STRING),
+				hasAttribute(dataBaseNode, WEIGHT) ? Integer.parseInt(getAttribute(dataBaseNode, WEIGHT)) : 1);
 	}
 	
 	private <T extends DalComponent> T readComponent(Node root, String componentName, T defaultImpl, String implNodeName) throws Exception {
@@ -6,15 +6,28 @@ public class DataBase {
 	private boolean master;
 	private String sharding;
 	private String connectionString;
+	private int weight;
 	
 	public DataBase(String name, 
 			boolean master, 
 			String sharding, 
 			String connectionString) {
+		this(name, master, sharding, connectionString, 1);
+	}
+	
+	/**
+	 * @param weight relative chance to be selected among the slaves or masters of the same shard
+	 */
+	public DataBase(String name, 
+			boolean master, 
+			String sharding, 
+			String connectionString,
+			int weight) {
 		this.name = name;
 		this.master = master;
 		this.sharding = sharding;
 		this.connectionString = connectionString;
+		this.weight = weight;
 	}
 	
 	public String getName() {
@@ -32,4 +45,8 @@ public class DataBase {
 	public String getConnectionString() {
 		return connectionString;
 	}
+
+	public int getWeight() {
+		return weight;
+	}
 }
@@ -0,0 +1,59 @@
+package com.ctrip.platform.dal.dao.configure;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outstanding requests and EWMA latency of a physical database, keyed by the
+ * connection string. It is fed by ConnectionAction and read by the select
+ * policies of DatabaseSelector.
+ */
+public class DataBaseLoad {
+	// Weight of the latest sample in the moving average
+	public static final double EWMA_ALPHA = 0.3;
+	
+	private static final ConcurrentHashMap<String, DataBaseLoad> loads = new ConcurrentHashMap<>();
+	
+	private AtomicInteger outstanding = new AtomicInteger();
+	private volatile double latency;
+	
+	public static DataBaseLoad of(String connectionString) {
+		DataBaseLoad load = loads.get(connectionString);
+		if(load != null)
+			return load;
+		
+		load = new DataBaseLoad();
+		DataBaseLoad existing = loads.putIfAbsent(connectionString, load);
+		return existing == null ? load : existing;
+	}
+	
+	/**
+	 * A request starts using the database
+	 */
+	public void begin() {
+		outstanding.incrementAndGet();
+	}
+	
+	/**
+	 * A request that is began is done
+	 * @param elapsedNanos time spent on the database
+	 */
+	public void end(long elapsedNanos) {
+		outstanding.decrementAndGet();
+		double sample = elapsedNanos / 1000000.0;
+		synchronized (this) {
+			latency = latency == 0 ? sample : latency + EWMA_ALPHA * (sample - latency);
+		}
+	}
+	
+	public int getOutstanding() {
+		return outstanding.get();
+	}
+	
+	/**
+	 * @return moving average latency in milliseconds, 0 if there is no sample
+	 */
+	public double getLatency() {
+		return latency;
+	}
+}
@@ -22,7 +22,7 @@ import com.ctrip.platform.dal.dao.datasource.DataSourceLocator;
 public class DatabasePoolConfigParser {
 	
 	private static final Logger logger = LoggerFactory.getLogger(DataSourceLocator.class);
-	private static DatabasePoolConfigParser poolConfigParser = new DatabasePoolConfigParser();
+	private static volatile DatabasePoolConfigParser poolConfigParser = new DatabasePoolConfigParser();
 	private static final String DBPOOL_CONFIG = "datasource.xml";
 	
 	private static final String LOCATION = "location";
@@ -52,6 +52,10 @@ public class DatabasePoolConfigParser {
 	private static final String INIT_SQL = "initSql";
 	private static final String INIT_SQL2 = "initSQL";
 	private static final String OPTION = "option";
+	private static final String POOL_FACTORY = "poolFactory";
+	private static final String ADAPTIVE_SIZING = "adaptiveSizing";
+	private static final String ADAPTIVE_MIN_ACTIVE = "adaptiveMinActive";
+	private static final String ADAPTIVE_MAX_ACTIVE = "adaptiveMaxActive";
 	
 	public static final boolean DEFAULT_TESTWHILEIDLE = false;
 	public static final boolean DEFAULT_TESTONBORROW = false;
@@ -79,11 +83,7 @@ public class DatabasePoolConfigParser {
 	
 	private DatabasePoolConfigParser() {
 		try {
-			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-			if (classLoader == null) {
-				classLoader = DatabasePoolConfigParser.class.getClassLoader();
-			}
-			URL url = classLoader.getResource(DBPOOL_CONFIG);
+			URL url = getConfigureUrl();
 			if (url == null) {
 				logger.warn(DBPOOL_CONFIG + " is not exist in the root directory of classpath.");
 			} else {
@@ -100,6 +100,29 @@ public class DatabasePoolConfigParser {
 		return poolConfigParser;
 	}
 	
+	/**
+	 * Parse datasource.xml again into a new instance. The current instance is not
+	 * affected until the new one is set by setInstance.
+	 */
+	public static DatabasePoolConfigParser load() {
+		return new DatabasePoolConfigParser();
+	}
+	
+	public static void setInstance(DatabasePoolConfigParser parser) {
+		poolConfigParser = parser;
+	}
+	
+	/**
+	 * @return location of datasource.xml in classpath, null if it does not exist
+	 */
+	public static URL getConfigureUrl() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader == null) {
+			classLoader = DatabasePoolConfigParser.class.getClassLoader();
+		}
+		return classLoader.getResource(DBPOOL_CONFIG);
+	}
+	
 	public DatabasePoolConifg getDatabasePoolConifg(String name) {
 		return poolConfigs.get(name);
 	}
@@ -226,6 +249,18 @@ public class DatabasePoolConfigParser {
 		if (hasAttribute(resource, OPTION)) {
 			poolConfig.setOption(getAttribute(resource, OPTION));
 		}
+		if (hasAttribute(resource, POOL_FACTORY)) {
+			poolConfig.setPoolFactory(getAttribute(resource, POOL_FACTORY));
+		}
+		if (hasAttribute(resource, ADAPTIVE_SIZING)) {
+			poolConfig.setAdaptiveSizing(Boolean.parseBoolean(getAttribute(resource, ADAPTIVE_SIZING)));
+		}
+		if (hasAttribute(resource, ADAPTIVE_MIN_ACTIVE)) {
+			poolConfig.setAdaptiveMinActive(Integer.parseInt(getAttribute(resource, ADAPTIVE_MIN_ACTIVE)));
+		}
+		if (hasAttribute(resource, ADAPTIVE_MAX_ACTIVE)) {
+			poolConfig.setAdaptiveMaxActive(Integer.parseInt(getAttribute(resource, ADAPTIVE_MAX_ACTIVE)));
+		}
 		return poolConfig;
 	}
 	
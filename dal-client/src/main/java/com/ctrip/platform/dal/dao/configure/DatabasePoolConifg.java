@@ -1,5 +1,10 @@
 package com.ctrip.platform.dal.dao.configure;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.apache.tomcat.jdbc.pool.PoolProperties;
 
 public class DatabasePoolConifg {
@@ -7,6 +12,10 @@ public class DatabasePoolConifg {
 	private String name = null;
 	private PoolProperties poolProperties = null;
 	private String option = null;
+	private String poolFactory = null;
+	private boolean adaptiveSizing = false;
+	private Integer adaptiveMinActive = null;
+	private Integer adaptiveMaxActive = null;
 	
 	public DatabasePoolConifg() {
 		poolProperties = new PoolProperties();
@@ -39,11 +48,62 @@ public class DatabasePoolConifg {
 	public PoolProperties getPoolProperties() {
 		return poolProperties;
 	}
+	/**
+	 * @return a copy of the pool properties, so that the pool created with it
+	 * can be changed at runtime without touching the parsed settings
+	 */
+	public PoolProperties copyPoolProperties() {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(poolProperties);
+			out.close();
+			return (PoolProperties)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		} catch (Exception e) {
+			throw new IllegalStateException("Can not copy pool properties of " + name, e);
+		}
+	}
 	public String getOption() {
 		return option;
 	}
 	public void setOption(String option) {
 		this.option = option;
 	}
+	/**
+	 * @return class name of the DataSourceFactory, null means the default one
+	 */
+	public String getPoolFactory() {
+		return poolFactory;
+	}
+	public void setPoolFactory(String poolFactory) {
+		this.poolFactory = poolFactory;
+	}
+	/**
+	 * @return true if maxActive is adjusted by the observed borrow wait time
+	 */
+	public boolean isAdaptiveSizing() {
+		return adaptiveSizing;
+	}
+	public void setAdaptiveSizing(boolean adaptiveSizing) {
+		this.adaptiveSizing = adaptiveSizing;
+	}
+	/**
+	 * @return lower bound of maxActive for adaptive sizing, null means the default
+	 */
+	public Integer getAdaptiveMinActive() {
+		return adaptiveMinActive;
+	}
+	public void setAdaptiveMinActive(Integer adaptiveMinActive) {
+		this.adaptiveMinActive = adaptiveMinActive;
+	}
+	/**
+	 * @return upper bound of maxActive for adaptive sizing, null means maxActive. It is limited to maxActive
+	 */
+	public Integer getAdaptiveMaxActive() {
+		return adaptiveMaxActive;
+	}
+	public void setAdaptiveMaxActive(Integer adaptiveMaxActive) {
+		this.adaptiveMaxActive = adaptiveMaxActive;
+	}
 	
 }
@@ -0,0 +1,129 @@
+package com.ctrip.platform.dal.dao.configure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Built-in select policies. All of them respect the weight of DataBase. Database with
+ * weight 0 is never chosen, unless all the candidates have weight 0, in which case
+ * they are treated as equal.
+ */
+public class DatabaseSelectPolicies {
+	public static final String RANDOM = "random";
+	public static final String LEAST_OUTSTANDING = "leastOutstanding";
+	public static final String EWMA_LATENCY = "ewmaLatency";
+	
+	/**
+	 * Choose randomly in proportion to weight. It is the default policy.
+	 */
+	public static final DatabaseSelectPolicy random = new DatabaseSelectPolicy() {
+		@Override
+		public DataBase select(List<DataBase> candidates) {
+			return candidates.get(weightedRandom(candidates, -1));
+		}
+	};
+	
+	/**
+	 * Choose the one with least outstanding requests per weight, ties are broken randomly.
+	 */
+	public static final DatabaseSelectPolicy leastOutstanding = new DatabaseSelectPolicy() {
+		@Override
+		public DataBase select(List<DataBase> candidates) {
+			DataBase selected = null;
+			double least = Double.MAX_VALUE;
+			int ties = 0;
+			for(DataBase db: weighted(candidates)) {
+				double load = (DataBaseLoad.of(db.getConnectionString()).getOutstanding() + 1) / (double)Math.max(1, db.getWeight());
+				if(load < least) {
+					least = load;
+					selected = db;
+					ties = 1;
+				} else if(load == least && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+					selected = db;
+				}
+			}
+			return selected;
+		}
+	};
+	
+	/**
+	 * Power of two choices. Pick two candidates by weight, choose the one with lower
+	 * EWMA latency times outstanding requests. Database without latency sample yet is
+	 * preferred, so that it gets sampled.
+	 */
+	public static final DatabaseSelectPolicy ewmaLatency = new DatabaseSelectPolicy() {
+		@Override
+		public DataBase select(List<DataBase> candidates) {
+			candidates = weighted(candidates);
+			if(candidates.size() == 1)
+				return candidates.get(0);
+			
+			int first = weightedRandom(candidates, -1);
+			int second = weightedRandom(candidates, first);
+			
+			DataBase a = candidates.get(first);
+			DataBase b = candidates.get(second);
+			return cost(a) <= cost(b) ? a : b;
+		}
+		
+		private double cost(DataBase db) {
+			DataBaseLoad load = DataBaseLoad.of(db.getConnectionString());
+			return load.getLatency() * (load.getOutstanding() + 1) / Math.max(1, db.getWeight());
+		}
+	};
+	
+	/**
+	 * @param policy name of built-in policy or class name, null means random
+	 */
+	public static DatabaseSelectPolicy create(String policy) throws Exception {
+		if(policy == null || policy.length() == 0 || RANDOM.equals(policy))
+			return random;
+		if(LEAST_OUTSTANDING.equals(policy))
+			return leastOutstanding;
+		if(EWMA_LATENCY.equals(policy))
+			return ewmaLatency;
+		
+		return (DatabaseSelectPolicy)Class.forName(policy).newInstance();
+	}
+	
+	/**
+	 * @return candidates with positive weight, or all the candidates if there is none
+	 */
+	private static List<DataBase> weighted(List<DataBase> candidates) {
+		List<DataBase> weighted = new ArrayList<>(candidates.size());
+		for(DataBase db: candidates)
+			if(db.getWeight() > 0)
+				weighted.add(db);
+		
+		return weighted.isEmpty() ? candidates : weighted;
+	}
+	
+	/**
+	 * @param excluded index that can not be chosen, -1 if none
+	 * @return index chosen in proportion to weight. If all the weights are 0, choose evenly.
+	 */
+	private static int weightedRandom(List<DataBase> candidates, int excluded) {
+		int total = 0;
+		for(int i = 0; i < candidates.size(); i++)
+			if(i != excluded)
+				total += Math.max(0, candidates.get(i).getWeight());
+		
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if(total == 0) {
+			int index = random.nextInt(excluded < 0 ? candidates.size() : candidates.size() - 1);
+			return excluded >= 0 && index >= excluded ? index + 1 : index;
+		}
+		
+		int point = random.nextInt(total);
+		for(int i = 0; i < candidates.size(); i++) {
+			if(i == excluded)
+				continue;
+			point -= Math.max(0, candidates.get(i).getWeight());
+			if(point < 0)
+				return i;
+		}
+		// Not reachable
+		return candidates.size() - 1;
+	}
+}
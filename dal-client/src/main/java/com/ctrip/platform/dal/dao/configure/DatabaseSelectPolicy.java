@@ -0,0 +1,18 @@
+package com.ctrip.platform.dal.dao.configure;
+
+import java.util.List;
+
+/**
+ * Choose one database from the available candidates of DatabaseSelector.
+ * It is set by the selectPolicy attribute of databaseSet in dal.xml, the value
+ * is random, leastOutstanding, ewmaLatency or the class name of the implementation.
+ * 
+ * Implementations must be thread safe.
+ */
+public interface DatabaseSelectPolicy {
+	/**
+	 * @param candidates not empty, all the candidates are available
+	 * @return one of the candidates
+	 */
+	DataBase select(List<DataBase> candidates);
+}
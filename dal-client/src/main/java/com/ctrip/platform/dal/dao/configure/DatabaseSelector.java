@@ -20,8 +20,14 @@ public class DatabaseSelector {
 	private DalHA ha;
 	private boolean masterOnly;
 	private boolean isSelect;
+	private DatabaseSelectPolicy policy;
 	
 	public DatabaseSelector(DalHints hints, List<DataBase> masters, List<DataBase> slaves, boolean masterOnly, boolean isSelect){
+		this(hints, masters, slaves, masterOnly, isSelect, DatabaseSelectPolicies.random);
+	}
+	
+	public DatabaseSelector(DalHints hints, List<DataBase> masters, List<DataBase> slaves, boolean masterOnly, boolean isSelect, DatabaseSelectPolicy policy){
+		this.policy = policy;
 		if(hints != null) {
 			this.ha = hints.getHA();
 			this.designatedDatasource = hints.getString(DalHintEnum.designatedDatabase);
@@ -87,47 +93,42 @@ public class DatabaseSelector {
 	private String getAvailableDb(List<DataBase> candidates) throws DalException{
 		if(isNullOrEmpty(candidates))
 			return null;
-		List<String> dbNames = this.selectValidDbNames(candidates);
-		if(dbNames.isEmpty())
+		List<DataBase> dbs = this.selectValidDbs(candidates);
+		if(dbs.isEmpty())
 			return null;
-		return this.getRandomRealDbName(dbNames);
+		return this.getRealDbName(dbs);
 	}
 	
-	private String getRandomRealDbName(List<String> dbs) throws DalException{
+	private String getRealDbName(List<DataBase> dbs) throws DalException{
 		if(ha == null|| dbs.size() == 1){
-			return choseByRandom(dbs);
+			return policy.select(dbs).getConnectionString();
 		}else{
-			List<String> dbNames = new ArrayList<String>();
-			for (String database : dbs) {
-				if(!ha.contains(database))
-					dbNames.add(database);
+			List<DataBase> notTried = new ArrayList<DataBase>();
+			for (DataBase database : dbs) {
+				if(!ha.contains(database.getConnectionString()))
+					notTried.add(database);
 			}
-			if(dbNames.isEmpty()){
+			if(notTried.isEmpty()){
 				return null;
 			}else{
-				String selected = choseByRandom(dbNames);
+				String selected = policy.select(notTried).getConnectionString();
 				ha.addDB(selected);
 				return selected;
 			}
 		}
 	}
 	
-	private String choseByRandom(List<String> dbs) throws DalException {
-		int index = (int)(Math.random() * dbs.size());	
-		return dbs.get(index);
-	}
-	
-	private List<String> selectValidDbNames(List<DataBase> dbs){
-		List<String> dbNames = new ArrayList<String>();
+	private List<DataBase> selectValidDbs(List<DataBase> dbs){
+		List<DataBase> valid = new ArrayList<DataBase>();
 		if(!this.isNullOrEmpty(dbs)){
 			for (DataBase database : dbs) {
 				if(MarkdownManager.isMarkdown(database.getConnectionString()))
 					continue;
 
-				dbNames.add(database.getConnectionString());
+				valid.add(database);
 			}
 		}
-		return dbNames;
+		return valid;
 	}
 	
 	private boolean containsDesignatedDatasource(List<DataBase> dbs){
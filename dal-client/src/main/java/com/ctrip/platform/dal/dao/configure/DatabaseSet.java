@@ -22,6 +22,7 @@ public class DatabaseSet {
 	private DatabaseCategory dbCategory;
 
 	private DalShardingStrategy strategy;
+	private DatabaseSelectPolicy selectPolicy = DatabaseSelectPolicies.random;
 	private Map<String, DataBase> databases;
 	// Key is shard id, value is all database under in this shard
 	private Map<String, List<DataBase>> masterDbByShard = new HashMap<String, List<DataBase>>();
@@ -126,6 +127,14 @@ public class DatabaseSet {
 		return masterDbByShard.keySet();
 	}
 
+	public DatabaseSelectPolicy getSelectPolicy() {
+		return selectPolicy;
+	}
+
+	public void setSelectPolicy(DatabaseSelectPolicy selectPolicy) {
+		this.selectPolicy = selectPolicy;
+	}
+	
 	public DalShardingStrategy getStrategy() throws SQLException {
 		if(strategy == null)
 			throw new SQLException("No sharding stradegy defined");
@@ -149,6 +158,6 @@ public class DatabaseSet {
 	}
 	
 	private String getRandomRealDbName(DalHints hints, boolean isMaster, boolean isSelect, List<DataBase> masterCandidates, List<DataBase> slaveCandidates) throws DalException {
-		return new DatabaseSelector(hints, masterCandidates, slaveCandidates, isMaster, isSelect).select();
+		return new DatabaseSelector(hints, masterCandidates, slaveCandidates, isMaster, isSelect, selectPolicy).select();
 	}
 }
@@ -0,0 +1,202 @@
+package com.ctrip.platform.dal.dao.datasource;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.status.DataSourceStatus;
+
+/**
+ * Adjust maxActive of tomcat pool within bounds by the borrow wait time observed
+ * in DefaultDalConnectionLocator. The pool grows when borrowing waits while all the
+ * connections are in use, and shrinks after it is less than half used for several
+ * checks in a row. Decisions are exposed by DataSourceStatus, which can also turn 
+ * sizing off at runtime.
+ * 
+ * Tomcat pool sizes the queue of busy connections by maxActive once when the pool is
+ * created. A connection borrowed beyond that is not tracked as busy and is closed when
+ * returned. So the configured maxActive is the upper bound, the pool is shrunk from
+ * there and grows back to it at most.
+ * 
+ * It is enabled by adaptiveSizing="true" in datasource.xml. The bounds are set by
+ * adaptiveMinActive and adaptiveMaxActive.
+ */
+public class AdaptivePoolSizer {
+	private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+	
+	public static final int CHECK_INTERVAL_SECONDS = 10;
+	// Average borrow wait above this means the pool is too small
+	public static final double WAIT_THRESHOLD_MILLIS = 10;
+	// Number of checks the pool must stay less than half used before it is shrunk
+	public static final int SHRINK_CHECKS = 6;
+	public static final int DEFAULT_MIN_ACTIVE = 10;
+	
+	private static final ConcurrentHashMap<String, AdaptivePoolSizer> sizers = new ConcurrentHashMap<>();
+	private static ScheduledExecutorService scheduler;
+	
+	private String name;
+	private DataSource dataSource;
+	private int minActive;
+	private int maxActive;
+	private LongAdder borrowCount = new LongAdder();
+	private LongAdder borrowWaitNanos = new LongAdder();
+	private int idleChecks;
+	
+	private AdaptivePoolSizer(String name, DataSource dataSource, int minActive, int maxActive) {
+		this.name = name;
+		this.dataSource = dataSource;
+		this.minActive = minActive;
+		this.maxActive = maxActive;
+	}
+	
+	/**
+	 * Start sizing the pool, it replaces the sizer of the same name. The pool is created
+	 * if it is not yet, and its maxActive at that time is the capacity.
+	 * 
+	 * @param minActive lower bound of maxActive, null means the smaller of configured maxActive and 10 
+	 * @param maxActive upper bound of maxActive, null means configured maxActive. It can not exceed configured maxActive
+	 */
+	public static void register(String name, DataSource dataSource, Integer minActive, Integer maxActive) throws SQLException {
+		int configured = dataSource.createPool().getPoolProperties().getMaxActive();
+		int lower = Math.min(minActive == null ? DEFAULT_MIN_ACTIVE : minActive, configured);
+		int upper = configured;
+		if(maxActive != null && maxActive < configured)
+			upper = maxActive;
+		if(maxActive != null && maxActive > configured)
+			logger.warn("Datasource[name=" + name + "] adaptiveMaxActive " + maxActive + " is limited to maxActive " + configured);
+		
+		sizers.put(name, new AdaptivePoolSizer(name, dataSource, lower, Math.max(lower, upper)));
+		startScheduler();
+	}
+	
+	public static void unregister(String name) {
+		sizers.remove(name);
+	}
+	
+	/**
+	 * @return the sizer of the data source, null if it is not sized
+	 */
+	public static AdaptivePoolSizer get(String name) {
+		return sizers.get(name);
+	}
+	
+	/**
+	 * Record time spent on getting connection from the pool, whether it succeeds or not
+	 */
+	public static void recordBorrow(String name, long waitNanos) {
+		AdaptivePoolSizer sizer = sizers.get(name);
+		if(sizer == null)
+			return;
+		
+		sizer.borrowCount.increment();
+		sizer.borrowWaitNanos.add(waitNanos);
+	}
+	
+	private static synchronized void startScheduler() {
+		if(scheduler != null)
+			return;
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "DAL-PoolSizer");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				for(AdaptivePoolSizer sizer: sizers.values()) {
+					try {
+						sizer.check();
+					} catch (Throwable e) {
+						logger.error("Sizing pool of " + sizer.name + " failed", e);
+					}
+				}
+			}
+		}, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Check the borrow wait time since last check and adjust maxActive if necessary.
+	 * It is called by the scheduler periodically.
+	 */
+	public synchronized void check() {
+		long count = borrowCount.sumThenReset();
+		long waitNanos = borrowWaitNanos.sumThenReset();
+		double averageWait = count == 0 ? 0 : waitNanos / (double)count / 1000000;
+		
+		DataSourceStatus status = DalStatusManager.containsDataSourceStatus(name) ? DalStatusManager.getDataSourceStatus(name) : null;
+		int current = dataSource.getMaxActive();
+		int active = dataSource.getActive();
+		int waiting = dataSource.getWaitCount();
+		
+		int target = current;
+		if(status == null || status.isAdaptiveSizingEnabled())
+			target = decide(averageWait, active, waiting, current);
+		
+		String decision = null;
+		if(target != current) {
+			resize(current, target);
+			decision = String.format("maxActive %d -> %d, active %d, waiting %d, average borrow wait %.2fms", 
+					current, target, active, waiting, averageWait);
+			logger.info("Datasource[name=" + name + "] " + decision);
+		}
+		
+		if(status != null)
+			status.sized(target, active, averageWait, decision);
+	}
+	
+	private int decide(double averageWaitMillis, int active, int waiting, int current) {
+		// Borrow time includes creating connection, it means the pool is too small only when all are in use
+		if(waiting > 0 || (averageWaitMillis > WAIT_THRESHOLD_MILLIS && active >= current)) {
+			idleChecks = 0;
+			return current >= maxActive ? current : Math.min(maxActive, current + step(current));
+		}
+		
+		if(active * 2 >= current || current <= minActive) {
+			idleChecks = 0;
+			return current;
+		}
+		
+		if(++idleChecks < SHRINK_CHECKS)
+			return current;
+		
+		idleChecks = 0;
+		return Math.max(Math.max(minActive, active), current - step(current));
+	}
+	
+	private static int step(int current) {
+		return Math.max(1, current / 4);
+	}
+	
+	private void resize(int current, int target) {
+		// Idle connections above maxIdle are closed by the pool cleaner 
+		if(target > current && dataSource.getMaxIdle() == current)
+			dataSource.setMaxIdle(target);
+		if(dataSource.getMaxIdle() > target)
+			dataSource.setMaxIdle(target);
+		if(dataSource.getMinIdle() > target)
+			dataSource.setMinIdle(target);
+		dataSource.setMaxActive(target);
+	}
+	
+	public int getMinActive() {
+		return minActive;
+	}
+	
+	public int getMaxActive() {
+		return maxActive;
+	}
+}
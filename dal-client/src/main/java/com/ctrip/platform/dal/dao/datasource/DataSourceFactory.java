@@ -0,0 +1,28 @@
+package com.ctrip.platform.dal.dao.datasource;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * Create the pooled DataSource of a data source name. The implementation can be set
+ * for all data sources by the dataSourceFactory setting of ConnectionLocator in dal.xml,
+ * or for a single data source by the poolFactory attribute in datasource.xml.
+ * 
+ * Implementations must have a public no-arg constructor and be thread safe.
+ */
+public interface DataSourceFactory {
+	/**
+	 * @param settings settings of the data source. Implementation should translate the
+	 * settings it supports, such as maxActive, minIdle, maxWait, initialSize and
+	 * validationQuery, into its own pool.
+	 * @return the created DataSource, it is ready for getting connection
+	 */
+	DataSource createDataSource(DataSourceSettings settings) throws SQLException;
+	
+	/**
+	 * Close the DataSource that is replaced by reloading. Connections in use must not
+	 * be broken, they should be released when they are returned.
+	 */
+	void close(DataSource dataSource);
+}
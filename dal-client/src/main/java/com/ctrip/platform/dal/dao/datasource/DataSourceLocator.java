@@ -1,7 +1,13 @@
 package com.ctrip.platform.dal.dao.datasource;
 
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import javax.naming.NamingException;
 import javax.sql.DataSource;
@@ -20,12 +26,25 @@ import com.ctrip.platform.dal.dao.configure.DefaultDataSourceConfigureProvider;
 public class DataSourceLocator {
 	private static final Logger logger = LoggerFactory.getLogger(DataSourceLocator.class);
 	
-	private static final ConcurrentHashMap<String,DataSource> cache = new ConcurrentHashMap<String,DataSource>();
+	// Each name has its own future, so that pools of different names are created at the same time
+	private static final ConcurrentHashMap<String, CompletableFuture<Pool>> cache = new ConcurrentHashMap<>();
+	
+	// Factories set by poolFactory in datasource.xml, one instance for each class
+	private static final ConcurrentHashMap<String, DataSourceFactory> factories = new ConcurrentHashMap<>();
 	
 	private DataSourceConfigureProvider provider;
+	private DataSourceFactory defaultFactory;
 	
 	public DataSourceLocator(DataSourceConfigureProvider provider) {
+		this(provider, new TomcatDataSourceFactory());
+	}
+	
+	/**
+	 * @param defaultFactory used for data source that does not have poolFactory in datasource.xml
+	 */
+	public DataSourceLocator(DataSourceConfigureProvider provider, DataSourceFactory defaultFactory) {
 		this.provider = provider;
+		this.defaultFactory = defaultFactory;
 	}
 	
 	/**
@@ -36,37 +55,148 @@ public class DataSourceLocator {
 	}
 	
 	/**
-	 * Get DataSource by real db source name
+	 * Get DataSource by real db source name. The first caller of a name creates
+	 * the DataSource, other callers of the same name wait for it. Callers of
+	 * different names do not block each other.
+	 * 
 	 * @param name
 	 * @return DataSource
 	 * @throws NamingException
 	 */
 	public DataSource getDataSource(String name) throws Exception {
-		DataSource ds = cache.get(name); 
+		CompletableFuture<Pool> future = cache.get(name);
 		
-		if (ds != null) {
-			return ds;
+		if (future == null) {
+			CompletableFuture<Pool> created = new CompletableFuture<>();
+			future = cache.putIfAbsent(name, created);
+			if (future == null) {
+				future = created;
+				create(name, created);
+			}
 		}
 		
-		synchronized (this.getClass()) {
-			ds = cache.get(name); 
-			if (ds != null) {
-				return ds;
-			}
+		try {
+			return future.get().dataSource;
+		} catch (ExecutionException e) {
+			throw (RuntimeException)e.getCause();
+		}
+	}
+	
+	/**
+	 * Recreate the created data sources whose settings are changed in datasource.xml
+	 * or the config provider. The new DataSource replaces the old one at once, the old
+	 * one is closed by its factory after the borrowed connections are returned.
+	 * If a data source fails to be recreated, the old one is kept.
+	 * 
+	 * @param names data sources in the new configure, others are left to remove
+	 * @return names of the recreated data sources
+	 */
+	public Set<String> refresh(Set<String> names) {
+		Set<String> refreshed = new HashSet<>();
+		for (Map.Entry<String, CompletableFuture<Pool>> entry: cache.entrySet()) {
+			String name = entry.getKey();
+			CompletableFuture<Pool> future = entry.getValue();
+			// Being created, it already uses the latest settings
+			if (!names.contains(name) || !future.isDone() || future.isCompletedExceptionally())
+				continue;
+			
+			Pool old = future.getNow(null);
 			try {
-				ds = createDataSource(name);
-				cache.put(name, ds);
+				if (resolve(name).signature.equals(old.signature))
+					continue;
+				
+				Pool pool = createPool(name);
+				if (cache.replace(name, future, CompletableFuture.completedFuture(pool))) {
+					refreshed.add(name);
+					activate(name, pool);
+					old.factory.close(old.dataSource);
+					logger.info("Datasource[name=" + name + "] is replaced, the old one is retired.");
+				} else {
+					pool.factory.close(pool.dataSource);
+				}
 			} catch (Throwable e) {
-				String msg = "Creating DataSource "+name+" error:"+e.getMessage();
-				logger.error(msg, e);
-				throw new RuntimeException(msg, e);
+				logger.error("Refreshing DataSource " + name + " error, the old one is kept: " + e.getMessage(), e);
 			}
 		}
-		return ds;
+		return refreshed;
+	}
+	
+	/**
+	 * Close the created data sources of the names. It should be called after the configure
+	 * without them is in use. A data source being created is closed when it is done.
+	 * 
+	 * @return names of the removed data sources
+	 */
+	public Set<String> remove(Set<String> names) {
+		Set<String> removed = new HashSet<>();
+		for (final String name: names) {
+			CompletableFuture<Pool> future = cache.remove(name);
+			if (future == null)
+				continue;
+			
+			removed.add(name);
+			future.thenAccept(new Consumer<Pool>() {
+				@Override
+				public void accept(Pool pool) {
+					AdaptivePoolSizer.unregister(name);
+					pool.factory.close(pool.dataSource);
+					logger.info("Datasource[name=" + name + "] is removed from configure and retired.");
+				}
+			});
+		}
+		return removed;
 	}
 	
-	private DataSource createDataSource(String name) throws SQLException {
-		DatabasePoolConifg poolConfig = DatabasePoolConfigParser.getInstance().getDatabasePoolConifg(name);
+	/**
+	 * Check that each name can be resolved with the given datasource.xml, without
+	 * creating any DataSource.
+	 */
+	public void validate(Set<String> names, DatabasePoolConfigParser parser) throws SQLException {
+		for (String name: names)
+			resolve(name, parser);
+	}
+	
+	private void create(String name, CompletableFuture<Pool> future) {
+		try {
+			Pool pool = createPool(name);
+			activate(name, pool);
+			future.complete(pool);
+		} catch (Throwable e) {
+			String msg = "Creating DataSource "+name+" error:"+e.getMessage();
+			logger.error(msg, e);
+			// Allow later call to retry
+			cache.remove(name, future);
+			future.completeExceptionally(new RuntimeException(msg, e));
+		}
+	}
+	
+	private void activate(String name, Pool pool) throws SQLException {
+		if (pool.poolConfig.isAdaptiveSizing() && pool.dataSource instanceof org.apache.tomcat.jdbc.pool.DataSource)
+			AdaptivePoolSizer.register(name, (org.apache.tomcat.jdbc.pool.DataSource)pool.dataSource, 
+					pool.poolConfig.getAdaptiveMinActive(), pool.poolConfig.getAdaptiveMaxActive());
+		else
+			AdaptivePoolSizer.unregister(name);
+	}
+	
+	private Pool createPool(String name) throws SQLException {
+		long start = System.currentTimeMillis();
+		Pool pool = resolve(name);
+		pool.dataSource = pool.factory.createDataSource(pool.settings);
+        
+        logger.info("Datasource[name=" + name + ", Driver=" + pool.settings.getDriverClass() + ", Factory=" + pool.factory.getClass().getSimpleName() + "] created in " + (System.currentTimeMillis() - start) + "ms.");
+		
+		return pool;
+	}
+	
+	/**
+	 * Resolve the pool settings and factory of the name without creating the DataSource
+	 */
+	private Pool resolve(String name) throws SQLException {
+		return resolve(name, DatabasePoolConfigParser.getInstance());
+	}
+	
+	private Pool resolve(String name, DatabasePoolConfigParser parser) throws SQLException {
+		DatabasePoolConifg poolConfig = parser.getDatabasePoolConifg(name);
 		DataSourceConfigure config = provider.getDataSourceConfigure(name);
 		
 		if (config == null && poolConfig == null) {
@@ -78,7 +208,7 @@ public class DataSourceLocator {
 			poolConfig = new DatabasePoolConifg();
 		}
 		
-		PoolProperties p = poolConfig.getPoolProperties();
+		PoolProperties p = poolConfig.copyPoolProperties();
 		
 		/**
 		 * It is assumed that user name/password/url/driver class name are provided in pool config
@@ -91,12 +221,43 @@ public class DataSourceLocator {
 	        p.setDriverClassName(config.getDriverClass());
 		}
 		
-        org.apache.tomcat.jdbc.pool.DataSource ds = new org.apache.tomcat.jdbc.pool.DataSource(p);
+		return new Pool(getFactory(poolConfig), poolConfig, new DataSourceSettings(name, p));
+	}
+	
+	private DataSourceFactory getFactory(DatabasePoolConifg poolConfig) throws SQLException {
+		String className = poolConfig.getPoolFactory();
+		if (className == null)
+			return defaultFactory;
 		
-        ds.createPool();
-        
-        logger.info("Datasource[name=" + name + ", Driver=" + p.getDriverClassName() + "] created.");
+		DataSourceFactory factory = factories.get(className);
+		if (factory != null)
+			return factory;
+		
+		try {
+			factory = (DataSourceFactory)Class.forName(className).newInstance();
+		} catch (Throwable e) {
+			throw new SQLException("Can not create pool factory " + className + " for " + poolConfig.getName(), e);
+		}
 		
-		return ds;
+		DataSourceFactory existing = factories.putIfAbsent(className, factory);
+		return existing == null ? factory : existing;
+	}
+	
+	private static class Pool {
+		private DataSourceFactory factory;
+		private DatabasePoolConifg poolConfig;
+		private DataSourceSettings settings;
+		// Settings used to detect change, password is not in toString
+		private String signature;
+		private DataSource dataSource;
+		
+		private Pool(DataSourceFactory factory, DatabasePoolConifg poolConfig, DataSourceSettings settings) {
+			this.factory = factory;
+			this.poolConfig = poolConfig;
+			this.settings = settings;
+			PoolProperties p = settings.getPoolProperties();
+			this.signature = factory.getClass().getName() + p.toString() + p.getPassword() + 
+					poolConfig.isAdaptiveSizing() + poolConfig.getAdaptiveMinActive() + poolConfig.getAdaptiveMaxActive();
+		}
 	}
 }
@@ -0,0 +1,107 @@
+package com.ctrip.platform.dal.dao.datasource;
+
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+
+/**
+ * Settings of a data source handed to DataSourceFactory. The common pool settings
+ * are translated from datasource.xml, url, user name, password and driver class are
+ * resolved from the config provider if it has them.
+ */
+public class DataSourceSettings {
+	private String name;
+	private String connectionUrl;
+	private String userName;
+	private String password;
+	private String driverClass;
+	private int maxActive;
+	private int minIdle;
+	private int maxWait;
+	private int initialSize;
+	private long maxAge;
+	private String validationQuery;
+	private boolean testOnBorrow;
+	private boolean testWhileIdle;
+	private String connectionProperties;
+	private String initSql;
+	
+	// All the settings of datasource.xml, only used by the built-in tomcat pool
+	private PoolProperties poolProperties;
+	
+	DataSourceSettings(String name, PoolProperties p) {
+		this.name = name;
+		connectionUrl = p.getUrl();
+		userName = p.getUsername();
+		password = p.getPassword();
+		driverClass = p.getDriverClassName();
+		maxActive = p.getMaxActive();
+		minIdle = p.getMinIdle();
+		maxWait = p.getMaxWait();
+		initialSize = p.getInitialSize();
+		maxAge = p.getMaxAge();
+		validationQuery = p.getValidationQuery();
+		testOnBorrow = p.isTestOnBorrow();
+		testWhileIdle = p.isTestWhileIdle();
+		connectionProperties = p.getConnectionProperties();
+		initSql = p.getInitSQL();
+		poolProperties = p;
+	}
+	
+	PoolProperties getPoolProperties() {
+		return poolProperties;
+	}
+
+	public String getName() {
+		return name;
+	}
+	public String getConnectionUrl() {
+		return connectionUrl;
+	}
+	public String getUserName() {
+		return userName;
+	}
+	public String getPassword() {
+		return password;
+	}
+	public String getDriverClass() {
+		return driverClass;
+	}
+	public int getMaxActive() {
+		return maxActive;
+	}
+	public int getMinIdle() {
+		return minIdle;
+	}
+	/**
+	 * @return max milliseconds to wait for a connection
+	 */
+	public int getMaxWait() {
+		return maxWait;
+	}
+	public int getInitialSize() {
+		return initialSize;
+	}
+	/**
+	 * @return milliseconds a connection is kept before it is closed, 0 means no limit
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+	public String getValidationQuery() {
+		return validationQuery;
+	}
+	public boolean isTestOnBorrow() {
+		return testOnBorrow;
+	}
+	public boolean isTestWhileIdle() {
+		return testWhileIdle;
+	}
+	/**
+	 * @return driver properties in the format of "key1=value1;key2=value2"
+	 */
+	public String getConnectionProperties() {
+		return connectionProperties;
+	}
+	public String getInitSql() {
+		return initSql;
+	}
+}
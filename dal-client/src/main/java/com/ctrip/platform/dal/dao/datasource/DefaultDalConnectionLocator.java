@@ -1,15 +1,20 @@
 package com.ctrip.platform.dal.dao.datasource;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.Set;
 
+import javax.sql.DataSource;
+
 import com.ctrip.platform.dal.dao.client.DalConnectionLocator;
 import com.ctrip.platform.dal.dao.configure.DataSourceConfigureProvider;
+import com.ctrip.platform.dal.dao.configure.DatabasePoolConfigParser;
 import com.ctrip.platform.dal.dao.configure.DefaultDataSourceConfigureProvider;
 
 public class DefaultDalConnectionLocator implements DalConnectionLocator {
 	public static final String DATASOURCE_CONFIG_PROVIDER = "dataSourceConfigureProvider";
+	public static final String DATASOURCE_FACTORY = "dataSourceFactory";
 
 	private DataSourceLocator locator;
 	private DataSourceConfigureProvider provider;
@@ -23,7 +28,12 @@ public class DefaultDalConnectionLocator implements DalConnectionLocator {
 		
 		provider.initialize(settings);
 		
-		locator = new DataSourceLocator(provider);
+		DataSourceFactory factory = new TomcatDataSourceFactory();
+		if(settings.containsKey(DATASOURCE_FACTORY)){
+			factory = (DataSourceFactory) Class.forName(settings.get(DATASOURCE_FACTORY)).newInstance();
+		}
+		
+		locator = new DataSourceLocator(provider, factory);
 	}
 
 	@Override
@@ -33,6 +43,36 @@ public class DefaultDalConnectionLocator implements DalConnectionLocator {
 	
 	@Override
 	public Connection getConnection(String name) throws Exception {
-		return locator.getDataSource(name).getConnection();
+		DataSource ds = locator.getDataSource(name);
+		long start = System.nanoTime();
+		try {
+			return ds.getConnection();
+		} finally {
+			// Borrow that times out waiting for the pool is the strongest signal to grow
+			AdaptivePoolSizer.recordBorrow(name, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Check that all the given data sources can be resolved with the given datasource.xml
+	 */
+	public void validate(Set<String> names, DatabasePoolConfigParser parser) throws SQLException {
+		locator.validate(names, parser);
+	}
+	
+	/**
+	 * Recreate the data sources of the names whose settings are changed
+	 * @return names of the recreated data sources
+	 */
+	public Set<String> refresh(Set<String> names) {
+		return locator.refresh(names);
+	}
+	
+	/**
+	 * Close the data sources of the names that are removed from configure
+	 * @return names of the removed data sources
+	 */
+	public Set<String> remove(Set<String> names) {
+		return locator.remove(names);
 	}
 }
@@ -0,0 +1,25 @@
+package com.ctrip.platform.dal.dao.datasource;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * The default DataSourceFactory that creates tomcat jdbc pool. It uses all the settings
+ * in datasource.xml, not only the common ones in DataSourceSettings.
+ */
+public class TomcatDataSourceFactory implements DataSourceFactory {
+
+	@Override
+	public DataSource createDataSource(DataSourceSettings settings) throws SQLException {
+		org.apache.tomcat.jdbc.pool.DataSource ds = new org.apache.tomcat.jdbc.pool.DataSource(settings.getPoolProperties());
+		ds.createPool();
+		return ds;
+	}
+
+	@Override
+	public void close(DataSource dataSource) {
+		// Idle connections are closed now, busy ones are released by the closed pool when returned
+		((org.apache.tomcat.jdbc.pool.DataSource)dataSource).close(false);
+	}
+}
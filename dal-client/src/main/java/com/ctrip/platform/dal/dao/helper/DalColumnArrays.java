@@ -0,0 +1,177 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.BitSet;
+
+/**
+ * Result set stored by column. Integral column is stored in long[], floating point
+ * column in double[], character column in int[] codes of a dictionary and other column
+ * in Object[]. Same string is stored only once in the dictionary of the column.
+ * SQL NULL is marked in a bit set of the column, the array holds 0 or -1 code for it.
+ * 
+ * It is created by DalColumnArraysExtractor and merged by DalColumnArraysMerger.
+ */
+public class DalColumnArrays {
+	public static final int LONG = 0;
+	public static final int DOUBLE = 1;
+	public static final int OBJECT = 2;
+	public static final int STRING = 3;
+	public static final int NULL_CODE = -1;
+	private static final String[] KIND_NAMES = new String[]{"long", "double", "object", "string"};
+
+	private String[] columnNames;
+	private int[] kinds;
+	private Object[] columns;
+	private BitSet[] nulls;
+	// Only for STRING column
+	private String[][] dictionaries;
+	private int rowCount;
+
+	DalColumnArrays(String[] columnNames, int[] kinds, Object[] columns, BitSet[] nulls, String[][] dictionaries, int rowCount) {
+		this.columnNames = columnNames;
+		this.kinds = kinds;
+		this.columns = columns;
+		this.nulls = nulls;
+		this.dictionaries = dictionaries;
+		this.rowCount = rowCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columnNames.length;
+	}
+
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * @return index of the column, case insensitive. -1 if not found
+	 */
+	public int getColumnIndex(String columnName) {
+		for(int i = 0; i < columnNames.length; i++)
+			if(columnNames[i].equalsIgnoreCase(columnName))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * @return LONG, DOUBLE, STRING or OBJECT
+	 */
+	public int getKind(int column) {
+		return kinds[column];
+	}
+
+	public long[] getLongs(int column) {
+		return (long[])getColumn(column, LONG);
+	}
+
+	public long[] getLongs(String columnName) {
+		return getLongs(indexOf(columnName));
+	}
+
+	public double[] getDoubles(int column) {
+		return (double[])getColumn(column, DOUBLE);
+	}
+
+	public double[] getDoubles(String columnName) {
+		return getDoubles(indexOf(columnName));
+	}
+
+	public Object[] getObjects(int column) {
+		return (Object[])getColumn(column, OBJECT);
+	}
+
+	public Object[] getObjects(String columnName) {
+		return getObjects(indexOf(columnName));
+	}
+
+	/**
+	 * @return position of each value in the dictionary, NULL_CODE for null
+	 */
+	public int[] getCodes(int column) {
+		return (int[])getColumn(column, STRING);
+	}
+
+	public int[] getCodes(String columnName) {
+		return getCodes(indexOf(columnName));
+	}
+
+	/**
+	 * @return distinct values of the STRING column in the order they first appear
+	 */
+	public String[] getDictionary(int column) {
+		getColumn(column, STRING);
+		return dictionaries[column];
+	}
+
+	public String[] getDictionary(String columnName) {
+		return getDictionary(indexOf(columnName));
+	}
+
+	/**
+	 * Decode the STRING column. The string instances are shared with the dictionary.
+	 */
+	public String[] getStrings(int column) {
+		int[] codes = getCodes(column);
+		String[] dictionary = dictionaries[column];
+		String[] values = new String[rowCount];
+		for(int i = 0; i < rowCount; i++)
+			values[i] = codes[i] == NULL_CODE ? null : dictionary[codes[i]];
+		return values;
+	}
+
+	public String[] getStrings(String columnName) {
+		return getStrings(indexOf(columnName));
+	}
+
+	public boolean isNull(int column, int row) {
+		return nulls[column].get(row);
+	}
+
+	/**
+	 * Get the value as boxed object. Use the typed array for bulk access.
+	 */
+	public Object getValue(int column, int row) {
+		if(isNull(column, row))
+			return null;
+
+		switch (kinds[column]) {
+		case LONG:
+			return ((long[])columns[column])[row];
+		case DOUBLE:
+			return ((double[])columns[column])[row];
+		case STRING:
+			return dictionaries[column][((int[])columns[column])[row]];
+		default:
+			return ((Object[])columns[column])[row];
+		}
+	}
+
+	int[] getKinds() {
+		return kinds;
+	}
+
+	Object getColumn(int column) {
+		return columns[column];
+	}
+
+	BitSet getNulls(int column) {
+		return nulls[column];
+	}
+
+	private int indexOf(String columnName) {
+		int i = getColumnIndex(columnName);
+		if(i < 0)
+			throw new IllegalArgumentException("Column " + columnName + " is not found.");
+		return i;
+	}
+
+	private Object getColumn(int column, int kind) {
+		if(kinds[column] != kind)
+			throw new IllegalArgumentException("Column " + columnNames[column] + " is not stored as " + KIND_NAMES[kind] + ".");
+		return columns[column];
+	}
+}
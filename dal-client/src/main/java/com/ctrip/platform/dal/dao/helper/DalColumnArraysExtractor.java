@@ -0,0 +1,150 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+
+/**
+ * Extract the whole result set into column arrays. Integral and floating point columns
+ * are read by getLong and getDouble into primitive arrays, so no object is created
+ * per row or per value. Character columns are dictionary encoded, repeated values
+ * only cost an int per row. Useful for reporting query that returns lots of rows.
+ * 
+ * To query across shards, use it together with DalColumnArraysMerger.
+ */
+public class DalColumnArraysExtractor implements DalResultSetExtractor<DalColumnArrays> {
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private int capacity;
+
+	public DalColumnArraysExtractor() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedRows initial capacity of the arrays
+	 */
+	public DalColumnArraysExtractor(int expectedRows) {
+		this.capacity = Math.max(expectedRows, 1);
+	}
+
+	@Override
+	public DalColumnArrays extract(ResultSet rs) throws SQLException {
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+
+		String[] columnNames = new String[columnCount];
+		int[] kinds = new int[columnCount];
+		Object[] columns = new Object[columnCount];
+		BitSet[] nulls = new BitSet[columnCount];
+		StringDictionary[] dictionaries = new StringDictionary[columnCount];
+
+		for(int i = 0; i < columnCount; i++) {
+			columnNames[i] = rsmd.getColumnLabel(i + 1);
+			kinds[i] = getKind(rsmd.getColumnType(i + 1));
+			columns[i] = allocate(kinds[i], capacity);
+			nulls[i] = new BitSet();
+			if(kinds[i] == DalColumnArrays.STRING)
+				dictionaries[i] = new StringDictionary();
+		}
+
+		int row = 0;
+		int size = capacity;
+		while(rs.next()) {
+			if(row == size) {
+				size = size << 1;
+				for(int i = 0; i < columnCount; i++)
+					columns[i] = grow(kinds[i], columns[i], size);
+			}
+
+			for(int i = 0; i < columnCount; i++)
+				read(rs, i, kinds[i], columns[i], nulls[i], dictionaries[i], row);
+
+			row++;
+		}
+
+		String[][] dictionaryValues = new String[columnCount][];
+		for(int i = 0; i < columnCount; i++) {
+			columns[i] = grow(kinds[i], columns[i], row);
+			if(dictionaries[i] != null)
+				dictionaryValues[i] = dictionaries[i].toArray();
+		}
+
+		return new DalColumnArrays(columnNames, kinds, columns, nulls, dictionaryValues, row);
+	}
+
+	private void read(ResultSet rs, int i, int kind, Object column, BitSet nulls, StringDictionary dictionary, int row) throws SQLException {
+		switch (kind) {
+		case DalColumnArrays.LONG:
+			((long[])column)[row] = rs.getLong(i + 1);
+			break;
+		case DalColumnArrays.DOUBLE:
+			((double[])column)[row] = rs.getDouble(i + 1);
+			break;
+		case DalColumnArrays.STRING:
+			((int[])column)[row] = dictionary.encode(rs.getString(i + 1));
+			break;
+		default:
+			((Object[])column)[row] = rs.getObject(i + 1);
+		}
+
+		if(rs.wasNull())
+			nulls.set(row);
+	}
+
+	static int getKind(int sqlType) {
+		switch (sqlType) {
+		case Types.BIT:
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+			return DalColumnArrays.LONG;
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return DalColumnArrays.DOUBLE;
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+		case Types.LONGNVARCHAR:
+			return DalColumnArrays.STRING;
+		default:
+			// DECIMAL is kept as BigDecimal to avoid losing precision
+			return DalColumnArrays.OBJECT;
+		}
+	}
+
+	static Object allocate(int kind, int size) {
+		switch (kind) {
+		case DalColumnArrays.LONG:
+			return new long[size];
+		case DalColumnArrays.DOUBLE:
+			return new double[size];
+		case DalColumnArrays.STRING:
+			return new int[size];
+		default:
+			return new Object[size];
+		}
+	}
+
+	static Object grow(int kind, Object column, int size) {
+		switch (kind) {
+		case DalColumnArrays.LONG:
+			return ((long[])column).length == size ? column : Arrays.copyOf((long[])column, size);
+		case DalColumnArrays.DOUBLE:
+			return ((double[])column).length == size ? column : Arrays.copyOf((double[])column, size);
+		case DalColumnArrays.STRING:
+			return ((int[])column).length == size ? column : Arrays.copyOf((int[])column, size);
+		default:
+			return ((Object[])column).length == size ? column : Arrays.copyOf((Object[])column, size);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.ctrip.platform.dal.dao.ResultMerger;
+
+/**
+ * Concatenate column arrays of each shard in the order they arrive. Dictionary of
+ * string column is rebuilt, codes of each partial are translated to the merged one.
+ */
+public class DalColumnArraysMerger implements ResultMerger<DalColumnArrays> {
+	private List<DalColumnArrays> partials = new ArrayList<>();
+	private int rowCount;
+
+	@Override
+	public void addPartial(String shard, DalColumnArrays partial) throws SQLException {
+		if(partial == null)
+			return;
+
+		if(!partials.isEmpty() && !isSameColumns(partials.get(0), partial))
+			throw new SQLException("Columns of shard " + shard + " do not match other shards.");
+
+		partials.add(partial);
+		rowCount += partial.getRowCount();
+	}
+
+	@Override
+	public DalColumnArrays merge() throws SQLException {
+		if(partials.isEmpty())
+			return null;
+
+		if(partials.size() == 1)
+			return partials.get(0);
+
+		DalColumnArrays first = partials.get(0);
+		int columnCount = first.getColumnCount();
+		int[] kinds = first.getKinds();
+
+		Object[] columns = new Object[columnCount];
+		BitSet[] nulls = new BitSet[columnCount];
+		String[][] dictionaries = new String[columnCount][];
+
+		for(int i = 0; i < columnCount; i++) {
+			columns[i] = DalColumnArraysExtractor.allocate(kinds[i], rowCount);
+			nulls[i] = new BitSet();
+			StringDictionary dictionary = kinds[i] == DalColumnArrays.STRING ? new StringDictionary() : null;
+
+			int offset = 0;
+			for(DalColumnArrays partial: partials) {
+				int count = partial.getRowCount();
+				if(dictionary == null)
+					System.arraycopy(partial.getColumn(i), 0, columns[i], offset, count);
+				else
+					recode(partial, i, dictionary, (int[])columns[i], offset);
+
+				BitSet partialNulls = partial.getNulls(i);
+				for(int row = partialNulls.nextSetBit(0); row >= 0; row = partialNulls.nextSetBit(row + 1))
+					nulls[i].set(offset + row);
+
+				offset += count;
+			}
+
+			if(dictionary != null)
+				dictionaries[i] = dictionary.toArray();
+		}
+
+		return new DalColumnArrays(first.getColumnNames(), kinds, columns, nulls, dictionaries, rowCount);
+	}
+
+	private void recode(DalColumnArrays partial, int column, StringDictionary dictionary, int[] codes, int offset) {
+		String[] partialDictionary = partial.getDictionary(column);
+		int[] mapping = new int[partialDictionary.length];
+		for(int i = 0; i < mapping.length; i++)
+			mapping[i] = dictionary.encode(partialDictionary[i]);
+
+		int[] partialCodes = partial.getCodes(column);
+		for(int row = 0; row < partial.getRowCount(); row++) {
+			int code = partialCodes[row];
+			codes[offset + row] = code == DalColumnArrays.NULL_CODE ? code : mapping[code];
+		}
+	}
+
+	private boolean isSameColumns(DalColumnArrays a, DalColumnArrays b) {
+		if(a.getColumnCount() != b.getColumnCount())
+			return false;
+
+		for(int i = 0; i < a.getColumnCount(); i++) {
+			if(a.getKind(i) != b.getKind(i) || !a.getColumnNames()[i].equalsIgnoreCase(b.getColumnNames()[i]))
+				return false;
+		}
+		return true;
+	}
+}
@@ -1,79 +1,236 @@
 package com.ctrip.platform.dal.dao.helper;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import com.ctrip.platform.dal.dao.DalRowMapper;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
-public class DalDefaultJpaMapper<T> implements DalRowMapper<T>, SupportPartialResultMapping<T> {
+public class DalDefaultJpaMapper<T> implements DalRowMapper<T>, SupportPartialResultMapping<T>, SupportIndexedResultMapping<T> {
+	private static final int COLUMN_NOT_FOUND = -1;
 	
 	private Class<T> clazz = null;
 	private String[] columnNames = null;
-	private Map<String, Field> fieldsMap = null;
+	private EntityManager manager = null;
+	private Map<String, FieldAccessor> accessorMap = null;
 	private boolean ignorMissingFields = false;
 	
+	// Resolved from columnNames, field is null if it is not defined in pojo
+	private FieldAccessor[] fields;
+	private ValueType[] valueTypes;
+	
 	public DalDefaultJpaMapper(Class<T> clazz) throws SQLException {
 		this.clazz = clazz;
-		EntityManager manager = EntityManager.getEntityManager(clazz);
+		this.manager = EntityManager.getEntityManager(clazz);
 		this.columnNames = manager.getColumnNames();
-		this.fieldsMap = manager.getFieldMap();
+		this.accessorMap = manager.getAccessorMap();
+		resolveFields();
+	}
+	
+	private void resolveFields() {
+		fields = new FieldAccessor[columnNames.length];
+		valueTypes = new ValueType[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++) {
+			fields[i] = accessorMap.get(columnNames[i]);
+			valueTypes[i] = fields[i] == null ? null : ValueType.of(fields[i].getType());
+		}
 	}
 	
 	@Override
 	public T map(ResultSet rs, int rowNum) throws SQLException {
 		try {
-			T instance = this.clazz.newInstance();
+			@SuppressWarnings("unchecked")
+			T instance = (T)manager.newInstance();
 			for (int i = 0; i < columnNames.length; i++) {
-				Field field = fieldsMap.get(columnNames[i]);
-				if(field == null)
-					if(ignorMissingFields)
-						continue;
-					else
-						throw new DalException(ErrorCode.FieldNotExists, clazz.getName(), columnNames[i]);
-				setValue(field, instance, rs.getObject(columnNames[i]));
+				if(!checkField(i))
+					continue;
+				setValue(i, instance, rs.getObject(columnNames[i]));
 			}
 			return instance;
 		} catch (Throwable e) {
 			throw DalException.wrap(e);
 		}
 	}
+	
+	private void setValue(int i, Object entity, Object val) {
+		if (val == null)
+			fields[i].set(entity, val);
+		else
+			valueTypes[i].setValue(fields[i], entity, val);
+	}
+	
+	private boolean checkField(int i) throws DalException {
+		if(fields[i] != null)
+			return true;
+		
+		if(ignorMissingFields)
+			return false;
+		
+		throw new DalException(ErrorCode.FieldNotExists, clazz.getName(), columnNames[i]);
+	}
 
-	private void setValue(Field field, Object entity, Object val)
-			throws ReflectiveOperationException {
-		if (val == null) {
-			field.set(entity, val);
-			return;
-		}
-		// The following order is optimized for most cases 
-		if (field.getType().equals(Long.class) || field.getType().equals(long.class)) {
-			field.set(entity, ((Number) val).longValue());
-			return;
-		}
-		if (field.getType().equals(Integer.class) || field.getType().equals(int.class)) {
-			field.set(entity, ((Number) val).intValue());
-			return;
-		}
-		if (field.getType().equals(Double.class) || field.getType().equals(double.class)) {
-			field.set(entity, ((Number) val).doubleValue());
-			return;
+	/**
+	 * Column position is resolved from the result set meta data once. Each value is then
+	 * read by the getter that matches the field type, so that number is not boxed twice.
+	 */
+	@Override
+	public DalRowMapper<T> mapByIndex(ResultSet rs) throws SQLException {
+		ResultSetMetaData meta = rs.getMetaData();
+		Map<String, Integer> indexByLabel = new HashMap<>();
+		for (int i = meta.getColumnCount(); i > 0; i--)
+			indexByLabel.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+		
+		int[] columnIndexes = new int[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++) {
+			Integer index = indexByLabel.get(columnNames[i].toLowerCase(Locale.ROOT));
+			columnIndexes[i] = index == null ? COLUMN_NOT_FOUND : index;
 		}
-		if (field.getType().equals(Float.class) || field.getType().equals(float.class)) {
-			field.set(entity, ((Number) val).floatValue());
-			return;
+		
+		return new IndexedMapper(columnIndexes);
+	}
+	
+	private class IndexedMapper implements DalRowMapper<T> {
+		private int[] columnIndexes;
+		
+		private IndexedMapper(int[] columnIndexes) {
+			this.columnIndexes = columnIndexes;
 		}
-		if (field.getType().equals(Byte.class) || field.getType().equals(byte.class)) {
-			field.set(entity, ((Number) val).byteValue());
-			return;
+		
+		@Override
+		public T map(ResultSet rs, int rowNum) throws SQLException {
+			try {
+				@SuppressWarnings("unchecked")
+				T instance = (T)manager.newInstance();
+				for (int i = 0; i < columnIndexes.length; i++) {
+					if(!checkField(i))
+						continue;
+					
+					// Let driver report the missing column as by name lookup
+					if(columnIndexes[i] == COLUMN_NOT_FOUND)
+						setValue(i, instance, rs.getObject(columnNames[i]));
+					else
+						valueTypes[i].readValue(rs, columnIndexes[i], fields[i], instance);
+				}
+				return instance;
+			} catch (Throwable e) {
+				throw DalException.wrap(e);
+			}
 		}
-		if (field.getType().equals(Short.class) || field.getType().equals(short.class)) {
-			field.set(entity, ((Number) val).shortValue());
-			return;
+	}
+	
+	private enum ValueType {
+		LONG {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setLong(entity, ((Number) val).longValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				long val = rs.getLong(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setLong(entity, val);
+			}
+		},
+		INT {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setInt(entity, ((Number) val).intValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				int val = rs.getInt(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setInt(entity, val);
+			}
+		},
+		DOUBLE {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setDouble(entity, ((Number) val).doubleValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				double val = rs.getDouble(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setDouble(entity, val);
+			}
+		},
+		FLOAT {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setFloat(entity, ((Number) val).floatValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				float val = rs.getFloat(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setFloat(entity, val);
+			}
+		},
+		BYTE {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setByte(entity, ((Number) val).byteValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				byte val = rs.getByte(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setByte(entity, val);
+			}
+		},
+		SHORT {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.setShort(entity, ((Number) val).shortValue());
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				short val = rs.getShort(index);
+				if(rs.wasNull())
+					field.set(entity, null);
+				else
+					field.setShort(entity, val);
+			}
+		},
+		OBJECT {
+			void setValue(FieldAccessor field, Object entity, Object val) {
+				field.set(entity, val);
+			}
+			
+			void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException {
+				field.set(entity, rs.getObject(index));
+			}
+		};
+		
+		abstract void setValue(FieldAccessor field, Object entity, Object val);
+		
+		abstract void readValue(ResultSet rs, int index, FieldAccessor field, Object entity) throws SQLException;
+		
+		static ValueType of(Class<?> type) {
+			if (type.equals(Long.class) || type.equals(long.class))
+				return LONG;
+			if (type.equals(Integer.class) || type.equals(int.class))
+				return INT;
+			if (type.equals(Double.class) || type.equals(double.class))
+				return DOUBLE;
+			if (type.equals(Float.class) || type.equals(float.class))
+				return FLOAT;
+			if (type.equals(Byte.class) || type.equals(byte.class))
+				return BYTE;
+			if (type.equals(Short.class) || type.equals(short.class))
+				return SHORT;
+			return OBJECT;
 		}
-		field.set(entity, val);
 	}
 	
 	@Override
@@ -93,7 +250,9 @@ public class DalDefaultJpaMapper<T> implements DalRowMapper<T>, SupportPartialRe
 	private DalDefaultJpaMapper(DalDefaultJpaMapper<T> rawMapper, String[] columnNames, boolean ignorMissingFields) throws SQLException {
 		this.clazz = rawMapper.clazz;
 		this.columnNames = columnNames;
-		this.fieldsMap = rawMapper.fieldsMap;
+		this.manager = rawMapper.manager;
+		this.accessorMap = rawMapper.accessorMap;
 		this.ignorMissingFields = ignorMissingFields;
+		resolveFields();
 	}	
 }
@@ -1,9 +1,7 @@
 package com.ctrip.platform.dal.dao.helper;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.ctrip.platform.dal.dao.DalRowMapper;
@@ -14,11 +12,15 @@ import com.ctrip.platform.dal.dao.DalRowMapper;
  * 	1.The entity must contain non-parameters constructor.
  *  2.Each field of the entity must declare the SqlType annotation.
  */
-public class DalDefaultJpaParser<T> extends AbstractDalParser<T> implements SupportPartialResultMapping<T> {
+public class DalDefaultJpaParser<T> extends AbstractDalParser<T> implements SupportPartialResultMapping<T>, SupportIndexedResultMapping<T> {
 	
-	private Map<String, Field> fieldsMap;
+	private Map<String, FieldAccessor> accessorMap;
+	private FieldAccessor[] columnAccessors;
+	private FieldAccessor[] primaryKeyAccessors;
+	private PositionalFields.Columns columnTable;
+	private PositionalFields.Columns primaryKeyTable;
 	private Class<T> clazz;
-	private Field identity;
+	private FieldAccessor identity;
 	private boolean autoIncrement;
 	private DalDefaultJpaMapper<T> rowMapper;
 	
@@ -31,8 +33,12 @@ public class DalDefaultJpaParser<T> extends AbstractDalParser<T> implements Supp
 		this.columnTypes = manager.getColumnTypes();
 		this.clazz = clazz;
 		this.autoIncrement = manager.isAutoIncrement();
-		this.fieldsMap = manager.getFieldMap();
-		Field[] identities = manager.getIdentity();
+		this.accessorMap = manager.getAccessorMap();
+		this.columnAccessors = getAccessors(columns);
+		this.primaryKeyAccessors = getAccessors(primaryKeyColumns);
+		this.columnTable = new PositionalFields.Columns(columns);
+		this.primaryKeyTable = new PositionalFields.Columns(primaryKeyColumns);
+		FieldAccessor[] identities = manager.getIdentityAccessors();
 		this.identity = identities != null && identities.length == 1 ? identities[0] : null;
 		this.rowMapper = new DalDefaultJpaMapper<T>(clazz);
 		this.sensitiveColumnNames = manager.getSensitiveColumnNames();
@@ -91,24 +97,31 @@ public class DalDefaultJpaParser<T> extends AbstractDalParser<T> implements Supp
 
 	@Override
 	public Map<String, ?> getPrimaryKeys(T pojo) {
-		return getFields(getPrimaryKeyNames(), pojo);
+		return getFields(primaryKeyTable, primaryKeyAccessors, pojo);
 	}
 
 	@Override
 	public Map<String, ?> getFields(T pojo) {
-		return getFields(getColumnNames(), pojo);
+		return getFields(columnTable, columnAccessors, pojo);
 	}
 	
-	private Map<String, ?> getFields(String[] columnNames, T pojo) {
-		Map<String, Object> map = new LinkedHashMap<String, Object>();
-		for (String columnName: columnNames) {
+	private FieldAccessor[] getAccessors(String[] columnNames) {
+		FieldAccessor[] accessors = new FieldAccessor[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++)
+			accessors[i] = accessorMap.get(columnNames[i]);
+		return accessors;
+	}
+	
+	private Map<String, ?> getFields(PositionalFields.Columns table, FieldAccessor[] accessors, T pojo) {
+		Object[] values = new Object[accessors.length];
+		for (int i = 0; i < accessors.length; i++) {
 			try {
-				map.put(columnName, fieldsMap.get(columnName).get(pojo));
+				values[i] = accessors[i].get(pojo);
 			} catch (Throwable e) {
 				throw new RuntimeException(e);
 			}
 		}
-		return map;
+		return new PositionalFields(table, values);
 	}
 
 	@Override
@@ -116,4 +129,9 @@ public class DalDefaultJpaParser<T> extends AbstractDalParser<T> implements Supp
 			throws SQLException {
 		return rowMapper.mapWith(selectedColumns, ignorMissingFields);
 	}
+
+	@Override
+	public DalRowMapper<T> mapByIndex(ResultSet rs) throws SQLException {
+		return rowMapper.mapByIndex(rs);
+	}
 }
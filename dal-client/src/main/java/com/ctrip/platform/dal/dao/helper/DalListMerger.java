@@ -3,12 +3,15 @@ package com.ctrip.platform.dal.dao.helper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import com.ctrip.platform.dal.dao.ResultMerger;
 
 public class DalListMerger<T> implements ResultMerger<List<T>> {
 	private List<T> result = new ArrayList<>();
+	private List<List<T>> sortedPartials = new ArrayList<>();
+	private int total;
 	private Comparator<T> comparator;
 	
 	public DalListMerger() {
@@ -19,17 +22,36 @@ public class DalListMerger<T> implements ResultMerger<List<T>> {
 		this.comparator = comparator;
 	}
 	
-	
+	/**
+	 * If comparator is given, each partial is sorted when it arrives. So that
+	 * sorting overlaps with waiting for the slower shards and merge only needs
+	 * to interleave the sorted partials.
+	 */
 	@Override
 	public void addPartial(String shard, List<T> partial) {
-		if(partial!=null)
+		if(partial == null)
+			return;
+		
+		if(comparator == null) {
 			result.addAll(partial);
+			return;
+		}
+		
+		Collections.sort(partial, comparator);
+		sortedPartials.add(partial);
+		total += partial.size();
 	}
 
 	@Override
 	public List<T> merge() {
-		if(comparator != null)
-			Collections.sort(result, comparator);
-		return result;
+		if(comparator == null)
+			return result;
+		
+		List<T> merged = new ArrayList<>(total);
+		Iterator<T> it = new SortedListsIterator<>(sortedPartials, comparator);
+		while(it.hasNext())
+			merged.add(it.next());
+		
+		return merged;
 	}
 }
\ No newline at end of file
@@ -18,6 +18,9 @@ import com.ctrip.platform.dal.dao.DalRowMapper;
 public class DalObjectRowMapper<T> implements DalRowMapper<T> {
 	private static final Map<Class<?>, TypeConverter<?>> typeConverterCache = new ConcurrentHashMap<>();
 	
+	// Mappers that read by typed getter, so the value is not boxed by getObject and then converted
+	private static final Map<Class<?>, DalRowMapper<?>> scalarMapperCache = new ConcurrentHashMap<>();
+	
 	private static TypeConverter<?> sameTypeConverter = new TypeConverter<Object>() {
 		public Object convert(Object value) {
 			return value;
@@ -26,17 +29,23 @@ public class DalObjectRowMapper<T> implements DalRowMapper<T> {
 
 	private Class<T> type;
 	private TypeConverter<T> converter;
+	private DalRowMapper<T> scalarMapper;
 	
 	public DalObjectRowMapper() {
 	}
 	
+	@SuppressWarnings("unchecked")
 	public DalObjectRowMapper(Class<T> type) {
 		this.type = type;
 		converter = (TypeConverter<T>)typeConverterCache.get(type);
+		scalarMapper = (DalRowMapper<T>)scalarMapperCache.get(type);
 	}
 
 	@SuppressWarnings("unchecked")
 	public T map(ResultSet rs, int rowNum) throws SQLException {
+		if(scalarMapper != null)
+			return scalarMapper.map(rs, rowNum);
+		
 		Object value = rs.getObject(1);
 		
 		if(value == null || converter == null || type.isInstance(value))
@@ -68,5 +77,10 @@ public class DalObjectRowMapper<T> implements DalRowMapper<T> {
 
 		typeConverterCache.put(Double.class, new TypeConverter<Double>(){ public Double convert(Object value) {
 			return ((Number)value).doubleValue();}});
+		
+		scalarMapperCache.put(Long.class, new LongRowMapper());
+		scalarMapperCache.put(Integer.class, new IntegerRowMapper());
+		scalarMapperCache.put(Double.class, new DoubleRowMapper());
+		scalarMapperCache.put(String.class, new StringRowMapper());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Part of the pojo fields list that goes to one db or table shard. Only the
+ * positions in the original list are kept, so that shuffling does not create
+ * per row map entries or boxed index.
+ *
+ * Partitions of the same list share the list, the fields map is not copied.
+ */
+public class DalPojoPartition implements Iterable<Map<String, ?>> {
+	private List<Map<String, ?>> pojos;
+	private int[] indexes;
+
+	/**
+	 * Partition that contains all the pojos
+	 */
+	public DalPojoPartition(List<Map<String, ?>> pojos) {
+		this.pojos = pojos instanceof RandomAccess ? pojos : new ArrayList<>(pojos);
+		indexes = new int[pojos.size()];
+		for(int i = 0; i < indexes.length; i++)
+			indexes[i] = i;
+	}
+
+	/**
+	 * @param pojos must be random access
+	 * @param indexes ascending positions in pojos
+	 */
+	public DalPojoPartition(List<Map<String, ?>> pojos, int[] indexes) {
+		this.pojos = pojos;
+		this.indexes = indexes;
+	}
+
+	public int size() {
+		return indexes.length;
+	}
+
+	public boolean isEmpty() {
+		return indexes.length == 0;
+	}
+
+	/**
+	 * @return the i-th pojo fields in this partition
+	 */
+	public Map<String, ?> get(int i) {
+		return pojos.get(indexes[i]);
+	}
+
+	/**
+	 * @return position of the i-th pojo in the original list
+	 */
+	public int getIndex(int i) {
+		return indexes[i];
+	}
+
+	/**
+	 * @return positions in the original list. The array is shared, do not modify it.
+	 */
+	public int[] getIndexes() {
+		return indexes;
+	}
+
+	/**
+	 * @return the original list
+	 */
+	public List<Map<String, ?>> getPojos() {
+		return pojos;
+	}
+
+	@Override
+	public Iterator<Map<String, ?>> iterator() {
+		return new Iterator<Map<String, ?>>() {
+			private int i;
+
+			@Override
+			public boolean hasNext() {
+				return i < indexes.length;
+			}
+
+			@Override
+			public Map<String, ?> next() {
+				if(i >= indexes.length)
+					throw new NoSuchElementException();
+				return get(i++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
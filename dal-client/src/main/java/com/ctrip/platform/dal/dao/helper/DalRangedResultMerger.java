@@ -4,6 +4,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import com.ctrip.platform.dal.dao.ResultMerger;
@@ -13,6 +14,7 @@ public class DalRangedResultMerger<T> implements ResultMerger<List<T>>{
 	private int start;
 	private int count;
 	private List<T> results = new ArrayList<>();
+	private List<List<T>> sortedPartials = new ArrayList<>();
 	
 	// Select top
 	public DalRangedResultMerger(int count) {
@@ -40,20 +42,63 @@ public class DalRangedResultMerger<T> implements ResultMerger<List<T>>{
 		this.count = count;
 	}
 	
+	/**
+	 * Sort partial when it arrives, so merge only walks through the heads of
+	 * sorted partials. Partial that is already ordered by the shard SQL is sorted
+	 * in linear time.
+	 * 
+	 * Rows after start + count in any partial can never fall into the range,
+	 * so they are dropped as early as possible.
+	 */
 	@Override
 	public void addPartial(String shard, List<T> partial) throws SQLException {
-		if(partial!=null)
-			results.addAll(partial);
+		if(partial == null)
+			return;
+
+		if(comparator == null) {
+			int needed = getLimit() - results.size();
+			if(needed > 0)
+				results.addAll(partial.size() > needed ? partial.subList(0, needed) : partial);
+			return;
+		}
+
+		Collections.sort(partial, comparator);
+		sortedPartials.add(partial.size() > getLimit() ? partial.subList(0, getLimit()) : partial);
+	}
+	
+	private int getLimit() {
+		return getLimit(start, count);
+	}
+	
+	/**
+	 * @return the number of rows each shard has to return for the range, start + count
+	 * capped at Integer.MAX_VALUE to avoid overflow when count is Integer.MAX_VALUE
+	 */
+	public static int getLimit(int start, int count) {
+		return (int)Math.min((long)start + count, Integer.MAX_VALUE);
 	}
 
 	@Override
 	public List<T> merge() throws SQLException {
 		if(comparator != null)
-			Collections.sort(results, comparator);
+			return mergeSorted();
 
 		if(start >= results.size())
 			return new ArrayList<>();
 			
-		return start + count > results.size() ? results.subList(start, results.size()) : results.subList(start, start + count);
+		return results.subList(start, Math.min(getLimit(), results.size()));
+	}
+
+	private List<T> mergeSorted() {
+		List<T> ranged = new ArrayList<>();
+		Iterator<T> it = new SortedListsIterator<>(sortedPartials, comparator);
+
+		for(int i = 0; i < start && it.hasNext(); i++)
+			it.next();
+
+		while(ranged.size() < count && it.hasNext())
+			ranged.add(it.next());
+
+		return ranged;
 	}
 }
@@ -0,0 +1,52 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+import com.ctrip.platform.dal.dao.DalRowBatchCallback;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Map rows and pass them to the callback every batchSize rows.
+ * @return number of rows processed
+ */
+public class DalRowBatchCallbackExtractor<T> implements DalResultSetExtractor<Integer> {
+	private DalRowMapper<T> mapper;
+	private DalRowBatchCallback<T> callback;
+	private int batchSize;
+	
+	public DalRowBatchCallbackExtractor(DalRowMapper<T> mapper, DalRowBatchCallback<T> callback, int batchSize) {
+		if(batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive number.");
+		
+		this.mapper = mapper;
+		this.callback = callback;
+		this.batchSize = batchSize;
+	}
+	
+	@Override
+	public Integer extract(ResultSet rs) throws SQLException {
+		@SuppressWarnings("unchecked")
+		DalRowMapper<T> rowMapper = mapper instanceof SupportIndexedResultMapping ? ((SupportIndexedResultMapping<T>)mapper).mapByIndex(rs) : mapper;
+		// Each shard has its own batch
+		List<T> batch = new ArrayList<>(batchSize);
+		int rowNum = 0;
+		
+		while (rs.next()) {
+			batch.add(rowMapper.map(rs, rowNum++));
+			if(batch.size() < batchSize)
+				continue;
+			
+			callback.process(batch);
+			batch = new ArrayList<>(batchSize);
+		}
+		
+		if(!batch.isEmpty())
+			callback.process(batch);
+		
+		return rowNum;
+	}
+}
@@ -9,6 +9,9 @@ import com.ctrip.platform.dal.dao.DalResultSetExtractor;
 import com.ctrip.platform.dal.dao.DalRowMapper;
 
 public class DalRowMapperExtractor <T> implements DalResultSetExtractor<List<T>> {
+	// Count can be much larger than the rows actually returned, e.g. range limit of shards
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+	
 	private DalRowMapper<T> mapper;
 	private int start;
 	private int count;
@@ -32,13 +35,15 @@ public class DalRowMapperExtractor <T> implements DalResultSetExtractor<List<T>>
 
 	@Override
 	public List<T> extract(ResultSet rs) throws SQLException {
-		List<T> result = count == 0 ? new ArrayList<T>() : new ArrayList<T>(count);
+		List<T> result = count == 0 ? new ArrayList<T>() : new ArrayList<T>(Math.min(count, MAX_INITIAL_CAPACITY));
+		@SuppressWarnings("unchecked")
+		DalRowMapper<T> rowMapper = mapper instanceof SupportIndexedResultMapping ? ((SupportIndexedResultMapping<T>)mapper).mapByIndex(rs) : mapper;
 		if(start != 0)
 			rs.absolute(start);
 		int i = 0;
 		int rowNum = 0;
 		while ((i++ < count || count == 0) && rs.next()) {
-			result.add(mapper.map(rs, rowNum++));
+			result.add(rowMapper.map(rs, rowNum++));
 		}
 		return result;
 	}
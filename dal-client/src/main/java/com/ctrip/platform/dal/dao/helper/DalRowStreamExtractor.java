@@ -0,0 +1,112 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.exceptions.DalException;
+
+/**
+ * Hand over mapped rows from the thread that reads the result set to the thread
+ * that consumes them. At most bufferSize rows are buffered, the reading thread waits
+ * until the consumer takes rows away.
+ * 
+ * The extract method returns the number of rows read. The connection is released
+ * right after that.
+ */
+public class DalRowStreamExtractor<T> implements DalResultSetExtractor<Integer> {
+	private static final Object END = new Object();
+	private static final Object NULL = new Object();
+	private static final long CHECK_CLOSE_INTERVAL = 100;
+	
+	private DalRowMapper<T> mapper;
+	private LinkedBlockingQueue<Object> rows = new LinkedBlockingQueue<>();
+	private Semaphore space;
+	private volatile boolean closed;
+	private volatile Throwable error;
+	private Object head;
+	
+	public DalRowStreamExtractor(DalRowMapper<T> mapper, int bufferSize) {
+		this.mapper = mapper;
+		space = new Semaphore(bufferSize);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Integer extract(ResultSet rs) throws SQLException {
+		DalRowMapper<T> rowMapper = mapper instanceof SupportIndexedResultMapping ? ((SupportIndexedResultMapping<T>)mapper).mapByIndex(rs) : mapper;
+		int rowNum = 0;
+		while(!closed && rs.next())
+			put(rowMapper.map(rs, rowNum++));
+
+		return rowNum;
+	}
+	
+	/**
+	 * Called by reading thread when reading is completed or failed.
+	 */
+	public void finish(Throwable e) {
+		error = e;
+		rows.add(END);
+	}
+	
+	/**
+	 * Stop reading. The rows that are not read yet will be discarded.
+	 */
+	public void close() {
+		closed = true;
+		rows.clear();
+	}
+	
+	public Throwable getError() {
+		return error;
+	}
+
+	public boolean hasNext() throws SQLException {
+		if(head == null)
+			head = take();
+		
+		return head != END;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public T next() throws SQLException {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		
+		Object row = head;
+		head = null;
+		return row == NULL ? null : (T)row;
+	}
+
+	private void put(T row) throws SQLException {
+		try {
+			while(!space.tryAcquire(CHECK_CLOSE_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if(closed)
+					return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DalException.wrap(e);
+		}
+		
+		rows.add(row == null ? NULL : row);
+	}
+	
+	private Object take() throws SQLException {
+		try {
+			Object row = rows.take();
+			if(row != END)
+				space.release();
+			return row;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DalException.wrap(e);
+		}
+	}
+}
@@ -2,7 +2,6 @@ package com.ctrip.platform.dal.dao.helper;
 
 import java.sql.SQLException;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -108,31 +107,30 @@ public class DalShardingHelper {
 	 * @return Grouped pojos
 	 * @throws SQLException In case locate shard id faild
 	 */
-	public static Map<String, Map<Integer, Map<String, ?>>> shuffle(String logicDbName, String shardId, List<Map<String, ?>> daoPojos) throws SQLException {
-		Map<String, Map<Integer, Map<String, ?>>> shuffled = new HashMap<>();
+	public static Map<String, DalPojoPartition> shuffle(String logicDbName, String shardId, List<Map<String, ?>> daoPojos) throws SQLException {
+		DalPojoPartition pojos = new DalPojoPartition(daoPojos);
 		
 		DalConfigure config = DalClientFactory.getDalConfigure();
 		
 		DatabaseSet dbSet = config.getDatabaseSet(logicDbName);
 		DalShardingStrategy strategy = dbSet.getStrategy();
 		
-		DalHints tmpHints = new DalHints();
-		for (int i = 0; i < daoPojos.size(); i++) {
-			Map<String, ?> pojo = daoPojos.get(i);
-			
-			String tmpShardId = shardId == null ? 
-					strategy.locateDbShard(config, logicDbName, tmpHints.setFields(pojo)) :
-					shardId;
-			
-			dbSet.validate(tmpShardId);
-
-			Map<Integer, Map<String, ?>> pojosInShard = shuffled.get(tmpShardId);
-			if(pojosInShard == null) {
-				pojosInShard = new LinkedHashMap<>();
-				shuffled.put(tmpShardId, pojosInShard);
+		Map<String, DalPojoPartition> shuffled;
+		if(shardId != null) {
+			shuffled = new HashMap<>();
+			if(!pojos.isEmpty()) {
+				dbSet.validate(shardId);
+				shuffled.put(shardId, pojos);
 			}
-			
-			pojosInShard.put(i, pojo);
+		} else {
+			String[] shardIds = new String[pojos.size()];
+			DalHints tmpHints = new DalHints();
+			for (int i = 0; i < shardIds.length; i++) {
+				String tmpShardId = strategy.locateDbShard(config, logicDbName, tmpHints.setFields(pojos.get(i)));
+				dbSet.validate(tmpShardId);
+				shardIds[i] = tmpShardId;
+			}
+			shuffled = partition(pojos, shardIds);
 		}
 		
 		detectDistributedTransaction(shuffled.keySet());
@@ -187,33 +185,67 @@ public class DalShardingHelper {
 	 * @return
 	 * @throws SQLException
 	 */
-	public static Map<String, Map<Integer, Map<String, ?>>> shuffleByTable(String logicDbName, String tableShardId, Map<Integer, Map<String, ?>> pojos) throws SQLException {
-		Map<String, Map<Integer, Map<String, ?>>> shuffled = new HashMap<>();
+	public static Map<String, DalPojoPartition> shuffleByTable(String logicDbName, String tableShardId, DalPojoPartition pojos) throws SQLException {
+		if(tableShardId != null) {
+			Map<String, DalPojoPartition> shuffled = new HashMap<>();
+			if(!pojos.isEmpty())
+				shuffled.put(tableShardId, pojos);
+			return shuffled;
+		}
+		
 		DalConfigure config = DalClientFactory.getDalConfigure();
 		
 		DatabaseSet dbSet = config.getDatabaseSet(logicDbName);
 		DalShardingStrategy strategy = dbSet.getStrategy();
 		
+		String[] shardIds = new String[pojos.size()];
 		DalHints tmpHints = new DalHints();
-		for (Integer index: pojos.keySet()) {
-			Map<String, ?> fields = pojos.get(index);
-
-			String shardId = tableShardId == null ?
-					strategy.locateTableShard(config, logicDbName, tmpHints.setFields(fields)) :
-					tableShardId;
-
-			Map<Integer, Map<String, ?>> pojosInShard = shuffled.get(shardId);
-			if(pojosInShard == null) {
-				pojosInShard = new LinkedHashMap<>();
-				shuffled.put(shardId, pojosInShard);
+		for (int i = 0; i < shardIds.length; i++)
+			shardIds[i] = strategy.locateTableShard(config, logicDbName, tmpHints.setFields(pojos.get(i)));
+		
+		return partition(pojos, shardIds);
+	}
+	
+	/**
+	 * Split the partition by the located shard id of each pojo. Rows of each shard are
+	 * counted first, so that every index array is allocated once with exact size.
+	 * The original order is kept within each shard.
+	 */
+	private static Map<String, DalPojoPartition> partition(DalPojoPartition pojos, String[] shardIds) {
+		Map<String, ShardSlot> slots = new HashMap<>();
+		ShardSlot[] slotOfRow = new ShardSlot[shardIds.length];
+		
+		for (int i = 0; i < shardIds.length; i++) {
+			ShardSlot slot = slots.get(shardIds[i]);
+			if(slot == null) {
+				slot = new ShardSlot();
+				slots.put(shardIds[i], slot);
 			}
-			
-			pojosInShard.put(index, fields);
+			slot.count++;
+			slotOfRow[i] = slot;
+		}
+		
+		for(ShardSlot slot: slots.values())
+			slot.indexes = new int[slot.count];
+		
+		for (int i = 0; i < slotOfRow.length; i++) {
+			ShardSlot slot = slotOfRow[i];
+			slot.indexes[slot.filled++] = pojos.getIndex(i);
 		}
 		
+		Map<String, DalPojoPartition> shuffled = new HashMap<>();
+		for(Map.Entry<String, ShardSlot> entry: slots.entrySet())
+			shuffled.put(entry.getKey(), new DalPojoPartition(pojos.getPojos(), entry.getValue().indexes));
+		
 		return shuffled;
 	}
 	
+	private static class ShardSlot {
+		private int count;
+		private int filled;
+		private int[] indexes;
+	}
+	
 	/**
 	 * Verify if shard id is already set for potential corss shard batch operation.
 	 * This includes combined insert, batch insert and batch delete.
@@ -0,0 +1,18 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Read the first column by getDouble. Null is returned for SQL NULL.
+ */
+public class DoubleRowMapper implements DalRowMapper<Double> {
+
+	@Override
+	public Double map(ResultSet rs, int rowNum) throws SQLException {
+		double value = rs.getDouble(1);
+		return rs.wasNull() ? null : value;
+	}
+}
@@ -1,5 +1,6 @@
 package com.ctrip.platform.dal.dao.helper;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -33,6 +34,8 @@ public class EntityManager {
 
 	private Class<?> clazz; 
 	private Map<String, Field> fieldMap = new HashMap<>();
+	private Map<String, FieldAccessor> accessorMap = new HashMap<>();
+	private Constructor<?> constructor;
 	private List<Integer> types = new ArrayList<>();
 	private boolean autoIncremental = false;
 	private List<String> columnNameList = new ArrayList<>();
@@ -41,6 +44,7 @@ public class EntityManager {
 	private List<String> updatableColumnList = new ArrayList<>();
 	private List<String> primaryKeyNameList = new ArrayList<String>();
 	private List<Field> identityList = new ArrayList<>();
+	private List<FieldAccessor> identityAccessorList = new ArrayList<>();
 	private String versionColumn = null;
 	
 	public static <T> EntityManager getEntityManager(Class<T> clazz) throws SQLException {
@@ -79,6 +83,8 @@ public class EntityManager {
 				
 			f.setAccessible(true);
 			fieldMap.put(columnName, f);
+			FieldAccessor accessor = new FieldAccessor(f);
+			accessorMap.put(columnName, accessor);
 			
 			columnNameList.add(columnName);
 			types.add(f.getAnnotation(Type.class).value());
@@ -99,6 +105,7 @@ public class EntityManager {
 
 			if (f.getAnnotation(Id.class) != null && generatedValue != null && generatedValue.strategy() == GenerationType.AUTO) {
 				identityList.add(f);
+				identityAccessorList.add(accessor);
 			}
 			
 			if (f.getAnnotation(Sensitive.class) != null)
@@ -110,6 +117,32 @@ public class EntityManager {
 				versionColumn = columnName;
 			}
 		}
+		
+		constructor = createConstructor(clazz);
+	}
+	
+	/**
+	 * @return null if there is no constructor without parameters
+	 */
+	private Constructor<?> createConstructor(Class<?> clazz) {
+		try {
+			Constructor<?> c = clazz.getDeclaredConstructor();
+			c.setAccessible(true);
+			return c;
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Create entity instance by the constructor without parameters.
+	 */
+	public Object newInstance() throws ReflectiveOperationException {
+		// Let reflection report the error as usual
+		if(constructor == null)
+			return clazz.getDeclaredConstructor().newInstance();
+		
+		return constructor.newInstance();
 	}
 	
 	public String getDatabaseName() throws DalException {
@@ -161,6 +194,14 @@ public class EntityManager {
 		return fieldMap;
 	}
 	
+	public Map<String, FieldAccessor> getAccessorMap() {
+		return accessorMap;
+	}
+	
+	public FieldAccessor[] getIdentityAccessors() {
+		return identityAccessorList.toArray(new FieldAccessor[identityAccessorList.size()]);
+	}
+	
 	public String[] getColumnNames() {
 		return columnNameList.toArray(new String[columnNameList.size()]);
 	}
@@ -0,0 +1,120 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.lang.reflect.Field;
+
+/**
+ * Read and write one entity field. The field is made accessible once when the entity
+ * is registered, and primitive field is written by the typed setters without boxing.
+ */
+public class FieldAccessor {
+	private Field field;
+	private Class<?> type;
+
+	FieldAccessor(Field field) {
+		field.setAccessible(true);
+		this.field = field;
+		this.type = field.getType();
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public Object get(Object entity) {
+		try {
+			return field.get(entity);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void set(Object entity, Object value) {
+		try {
+			field.set(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setLong(Object entity, long value) {
+		if(type != long.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setLong(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setInt(Object entity, int value) {
+		if(type != int.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setInt(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setDouble(Object entity, double value) {
+		if(type != double.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setDouble(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setFloat(Object entity, float value) {
+		if(type != float.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setFloat(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setShort(Object entity, short value) {
+		if(type != short.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setShort(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void setByte(Object entity, byte value) {
+		if(type != byte.class) {
+			set(entity, value);
+			return;
+		}
+
+		try {
+			field.setByte(entity, value);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
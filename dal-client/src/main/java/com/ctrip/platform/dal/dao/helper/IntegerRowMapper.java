@@ -0,0 +1,20 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Read the first column by getLong and narrow it to int, which is what the converter
+ * of DalObjectRowMapper does to the value of getObject. getInt is not used because
+ * the driver rejects BIGINT values out of int range. Null is returned for SQL NULL.
+ */
+public class IntegerRowMapper implements DalRowMapper<Integer> {
+
+	@Override
+	public Integer map(ResultSet rs, int rowNum) throws SQLException {
+		long value = rs.getLong(1);
+		return rs.wasNull() ? null : (int)value;
+	}
+}
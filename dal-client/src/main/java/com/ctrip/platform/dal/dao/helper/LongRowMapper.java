@@ -0,0 +1,18 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Read the first column by getLong. Null is returned for SQL NULL.
+ */
+public class LongRowMapper implements DalRowMapper<Long> {
+
+	@Override
+	public Long map(ResultSet rs, int rowNum) throws SQLException {
+		long value = rs.getLong(1);
+		return rs.wasNull() ? null : value;
+	}
+}
@@ -0,0 +1,228 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Pojo fields stored in an array that is aligned with the column order of the parser.
+ * The column to position table is shared by all rows of the same parser, so creating
+ * the fields of a pojo only allocates the value array.
+ *
+ * It can be used as a normal map. Tasks that know the column positions read the values
+ * by getAt without hashing. Only columns of the table can be put into it.
+ */
+public class PositionalFields extends AbstractMap<String, Object> {
+	// Marks a removed column, null is a valid value
+	private static final Object ABSENT = new Object();
+
+	private Columns columns;
+	private Object[] values;
+	private int size;
+
+	/**
+	 * @param columns shared column table
+	 * @param values aligned with columns, it is owned by this object after the call
+	 */
+	public PositionalFields(Columns columns, Object[] values) {
+		if(columns.size() != values.length)
+			throw new IllegalArgumentException("Value count does not match column count.");
+
+		this.columns = columns;
+		this.values = values;
+		this.size = values.length;
+	}
+
+	/**
+	 * @return true if the positions are the same as the given column names
+	 */
+	public boolean isAlignedWith(String[] columnNames) {
+		return columns.names == columnNames;
+	}
+
+	/**
+	 * @return value at the position, null if it is removed
+	 */
+	public Object getAt(int position) {
+		Object value = values[position];
+		return value == ABSENT ? null : value;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int i = columns.indexOf(key);
+		return i >= 0 && values[i] != ABSENT;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int i = columns.indexOf(key);
+		return i < 0 ? null : getAt(i);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int i = columns.indexOf(key);
+		if(i < 0)
+			throw new IllegalArgumentException("Column " + key + " is not defined.");
+
+		Object old = values[i];
+		values[i] = value;
+		if(old != ABSENT)
+			return old;
+
+		size++;
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int i = columns.indexOf(key);
+		if(i < 0 || values[i] == ABSENT)
+			return null;
+
+		Object old = values[i];
+		values[i] = ABSENT;
+		size--;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, ABSENT);
+		size = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		private int next = skipAbsent(0);
+		private int last = -1;
+
+		private int skipAbsent(int i) {
+			while(i < values.length && values[i] == ABSENT)
+				i++;
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < values.length;
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if(next >= values.length)
+				throw new NoSuchElementException();
+
+			last = next;
+			next = skipAbsent(next + 1);
+			return new Entry(last);
+		}
+
+		@Override
+		public void remove() {
+			if(last < 0 || values[last] == ABSENT)
+				throw new IllegalStateException();
+
+			values[last] = ABSENT;
+			size--;
+		}
+	}
+
+	private class Entry implements Map.Entry<String, Object> {
+		private int position;
+
+		private Entry(int position) {
+			this.position = position;
+		}
+
+		@Override
+		public String getKey() {
+			return columns.names[position];
+		}
+
+		@Override
+		public Object getValue() {
+			return getAt(position);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object old = getAt(position);
+			if(values[position] == ABSENT)
+				size++;
+			values[position] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>)o;
+			Object value = getValue();
+			return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	/**
+	 * Column name to position table. Create once for each parser.
+	 */
+	public static class Columns {
+		private String[] names;
+		private Map<String, Integer> positions = new HashMap<>();
+
+		public Columns(String[] names) {
+			this.names = names;
+			for(int i = 0; i < names.length; i++)
+				positions.put(names[i], i);
+		}
+
+		public int size() {
+			return names.length;
+		}
+
+		/**
+		 * @return position of the column, -1 if it is not defined
+		 */
+		public int indexOf(Object name) {
+			Integer i = positions.get(name);
+			return i == null ? -1 : i;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterate over several already sorted lists in global order. Only the current head
+ * of each list is kept in the heap, so consuming the first n elements costs
+ * O(n log k) for k lists, no matter how long the lists are.
+ */
+public class SortedListsIterator<T> implements Iterator<T> {
+	private PriorityQueue<Cursor<T>> heads;
+
+	public SortedListsIterator(List<List<T>> sortedLists, final Comparator<T> comparator) {
+		heads = new PriorityQueue<>(Math.max(sortedLists.size(), 1), new Comparator<Cursor<T>>() {
+			@Override
+			public int compare(Cursor<T> o1, Cursor<T> o2) {
+				return comparator.compare(o1.head, o2.head);
+			}
+		});
+
+		for(List<T> sortedList: sortedLists) {
+			Cursor<T> cursor = new Cursor<>(sortedList.iterator());
+			if(cursor.advance())
+				heads.add(cursor);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !heads.isEmpty();
+	}
+
+	@Override
+	public T next() {
+		Cursor<T> cursor = heads.poll();
+		if(cursor == null)
+			throw new NoSuchElementException();
+
+		T value = cursor.head;
+		if(cursor.advance())
+			heads.add(cursor);
+
+		return value;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private static class Cursor<T> {
+		private Iterator<T> it;
+		private T head;
+
+		private Cursor(Iterator<T> it) {
+			this.it = it;
+		}
+
+		private boolean advance() {
+			if(!it.hasNext())
+				return false;
+
+			head = it.next();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encode strings of a column to int codes. Code is the position of the string
+ * in the order it first appears.
+ */
+class StringDictionary {
+	private Map<String, Integer> codes = new HashMap<>();
+	private List<String> values = new ArrayList<>();
+
+	public int encode(String value) {
+		if(value == null)
+			return DalColumnArrays.NULL_CODE;
+
+		Integer code = codes.get(value);
+		if(code != null)
+			return code;
+
+		code = values.size();
+		codes.put(value, code);
+		values.add(value);
+		return code;
+	}
+
+	public String[] toArray() {
+		return values.toArray(new String[values.size()]);
+	}
+}
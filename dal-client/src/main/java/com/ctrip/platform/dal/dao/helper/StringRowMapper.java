@@ -0,0 +1,17 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Read the first column by getString, no conversion is needed for non string column.
+ */
+public class StringRowMapper implements DalRowMapper<String> {
+
+	@Override
+	public String map(ResultSet rs, int rowNum) throws SQLException {
+		return rs.getString(1);
+	}
+}
@@ -0,0 +1,17 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.ctrip.platform.dal.dao.DalRowMapper;
+
+/**
+ * Mapper that can resolve the columns of a result set once before any row is mapped.
+ * Extractors use it to avoid looking up columns by name for every row.
+ */
+public interface SupportIndexedResultMapping<T> {
+	/**
+	 * @return mapper that reads columns by position. It is only valid for the given result set
+	 */
+	DalRowMapper<T> mapByIndex(ResultSet rs) throws SQLException;
+}
@@ -1,6 +1,7 @@
 package com.ctrip.platform.dal.dao.status;
 
 import java.lang.management.ManagementFactory;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -29,13 +30,16 @@ public class DalStatusManager {
 	private static final String TYPE = "type";
 	private static final String LOGIC_DB_CONFIG_DOMAIN_PREFIX = "com.ctrip.dal.client.DatabaseSet";
 	private static final String DATASOURCE_CONFIG_DOMAIN_PREFIX = "com.ctrip.dal.client.DataSource";
+	private static final String EXECUTOR_CONFIG_DOMAIN_PREFIX = "com.ctrip.dal.client.Executor";
 	
 	private static AtomicBoolean initialized = new AtomicBoolean(false);
 	private static AtomicReference<TimeoutMarkdown> timeoutMarkDownRef = new AtomicReference<>();
 	private static AtomicReference<HAStatus> haStatusRef = new AtomicReference<>();
 	private static AtomicReference<MarkdownStatus> markdownStatusRef = new AtomicReference<>();
+	private static AtomicReference<StatementCacheStatus> statementCacheStatusRef = new AtomicReference<>();
 	private static Map<String, DatabaseSetStatus> logicDbs = new ConcurrentHashMap<>();
 	private static Map<String, DataSourceStatus> dataSources = new ConcurrentHashMap<>();
+	private static Map<String, ExecutorStatus> executors = new ConcurrentHashMap<>();
 	
 	public static void initialize(DalConfigure config) throws Exception {
 		if(initialized.get() == true)
@@ -55,6 +59,62 @@ public class DalStatusManager {
 		}
 	}
 	
+	/**
+	 * Register status for the logic dbs and data sources that are added by reloading.
+	 * Status of the existing ones are kept.
+	 */
+	public static void refresh(DalConfigure config) throws Exception {
+		if(initialized.get() == false) {
+			initialize(config);
+			return;
+		}
+		
+		synchronized (DalStatusManager.class) {
+			Set<String> logicDbNames = new HashSet<>(config.getDatabaseSetNames());
+			logicDbNames.removeAll(logicDbs.keySet());
+			registerDatabaseSets(logicDbNames);
+			
+			Set<String> datasourceNames = new HashSet<>(config.getDataSourceNames());
+			datasourceNames.removeAll(dataSources.keySet());
+			registerDataSources(datasourceNames);
+		}
+	}
+	
+	/**
+	 * Unregister status of the logic dbs and data sources that are removed by reloading.
+	 * It should be called after the given configure is in use.
+	 */
+	public static void removeOthers(DalConfigure config) throws Exception {
+		if(initialized.get() == false)
+			return;
+		
+		synchronized (DalStatusManager.class) {
+			MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			Set<String> logicDbNames = config.getDatabaseSetNames();
+			for(String name: new HashSet<>(logicDbs.keySet())) {
+				if(logicDbNames.contains(name))
+					continue;
+				unregisterMBean(mbs, new ObjectName(LOGIC_DB_CONFIG_DOMAIN_PREFIX, TYPE, name));
+				logicDbs.remove(name);
+				unregisterMBean(mbs, new ObjectName(EXECUTOR_CONFIG_DOMAIN_PREFIX, TYPE, name));
+				executors.remove(name);
+			}
+			
+			Set<String> datasourceNames = config.getDataSourceNames();
+			for(String name: new HashSet<>(dataSources.keySet())) {
+				if(datasourceNames.contains(name))
+					continue;
+				unregisterMBean(mbs, new ObjectName(DATASOURCE_CONFIG_DOMAIN_PREFIX, TYPE, name));
+				dataSources.remove(name);
+			}
+		}
+	}
+	
+	private static void unregisterMBean(MBeanServer mbs, ObjectName name) throws Exception{
+		if(mbs.isRegistered(name))
+			mbs.unregisterMBean(name);
+	}
+	
 	private static void verifyRegistration() throws Exception{
 		MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
 		
@@ -80,6 +140,9 @@ public class DalStatusManager {
 		
 		markdownStatusRef.set(new MarkdownStatus());
 		registerMBean(markdownStatusRef.get(), getGlobalName(MarkdownStatus.class));
+		
+		statementCacheStatusRef.set(new StatementCacheStatus());
+		registerMBean(statementCacheStatusRef.get(), getGlobalName(StatementCacheStatus.class));
 	}
 
 	private static void registerDatabaseSets(Set<String> logicDbNames) throws Exception {
@@ -87,6 +150,10 @@ public class DalStatusManager {
 			DatabaseSetStatus status = new DatabaseSetStatus(name);
 			registerMBean(status, new ObjectName(LOGIC_DB_CONFIG_DOMAIN_PREFIX, TYPE, name));
 			logicDbs.put(name, status);
+			
+			ExecutorStatus executorStatus = new ExecutorStatus(name);
+			registerMBean(executorStatus, new ObjectName(EXECUTOR_CONFIG_DOMAIN_PREFIX, TYPE, name));
+			executors.put(name, executorStatus);
 		}
 	}
 
@@ -110,6 +177,7 @@ public class DalStatusManager {
 			mbs.unregisterMBean(getGlobalName(HAStatus.class));
 			mbs.unregisterMBean(getGlobalName(TimeoutMarkdown.class));
 			mbs.unregisterMBean(getGlobalName(MarkdownStatus.class));
+			mbs.unregisterMBean(getGlobalName(StatementCacheStatus.class));
 			
 			for(String name: dataSources.keySet())
 				mbs.unregisterMBean(new ObjectName(DATASOURCE_CONFIG_DOMAIN_PREFIX, TYPE, name));
@@ -119,6 +187,10 @@ public class DalStatusManager {
 				mbs.unregisterMBean(new ObjectName(LOGIC_DB_CONFIG_DOMAIN_PREFIX, TYPE, name));
 			logicDbs.clear();
 			
+			for(String name: executors.keySet())
+				mbs.unregisterMBean(new ObjectName(EXECUTOR_CONFIG_DOMAIN_PREFIX, TYPE, name));
+			executors.clear();
+			
 			initialized.set(false);
 		}
 	}
@@ -139,10 +211,18 @@ public class DalStatusManager {
 		return markdownStatusRef.get();
 	}
 	
+	public static StatementCacheStatus getStatementCacheStatus() {
+		return statementCacheStatusRef.get();
+	}
+	
 	public static DatabaseSetStatus getDatabaseSetStatus(String dbName) {
 		return logicDbs.get(dbName);
 	}
 	
+	public static ExecutorStatus getExecutorStatus(String dbName) {
+		return executors.get(dbName);
+	}
+	
 	public static DataSourceStatus getDataSourceStatus(String dbName) {
 		return dataSources.get(dbName);
 	}
@@ -14,6 +14,13 @@ public class DataSourceStatus extends BaseStatus implements DataSourceStatusMBea
 	private volatile boolean autoMarkdown = false;
 	private volatile Date autoMarkdownTime;
 	
+	private volatile boolean adaptiveSizingEnabled = true;
+	private volatile int maxActive;
+	private volatile int active;
+	private volatile double averageBorrowWait;
+	private volatile String lastSizingDecision;
+	private volatile Date lastSizingTime;
+	
 	public DataSourceStatus(String name) {
 		this.name = name;
 	}
@@ -53,4 +60,55 @@ public class DataSourceStatus extends BaseStatus implements DataSourceStatusMBea
 	public Date getAutoMarkdownTime() {
 		return autoMarkdownTime;
 	}
+
+	/**
+	 * Only effective for pool with adaptiveSizing="true" in datasource.xml
+	 */
+	public boolean isAdaptiveSizingEnabled() {
+		return adaptiveSizingEnabled;
+	}
+	public void setAdaptiveSizingEnabled(boolean adaptiveSizingEnabled) {
+		this.adaptiveSizingEnabled = adaptiveSizingEnabled;
+		logger.info(String.format("Adaptive pool sizing of %s has been %s.", name, adaptiveSizingEnabled ? "enabled" : "disabled"));
+		changed();
+	}
+
+	public int getMaxActive() {
+		return maxActive;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	/**
+	 * @return average borrow wait in milliseconds of the last check
+	 */
+	public double getAverageBorrowWait() {
+		return averageBorrowWait;
+	}
+
+	public String getLastSizingDecision() {
+		return lastSizingDecision;
+	}
+
+	public Date getLastSizingTime() {
+		return lastSizingTime;
+	}
+	
+	/**
+	 * Record the result of an adaptive sizing check
+	 * @param decision null if maxActive is not changed
+	 */
+	public void sized(int maxActive, int active, double averageBorrowWait, String decision) {
+		this.maxActive = maxActive;
+		this.active = active;
+		this.averageBorrowWait = averageBorrowWait;
+		if(decision == null)
+			return;
+		
+		this.lastSizingDecision = decision;
+		this.lastSizingTime = new Date();
+		changed();
+	}
 }
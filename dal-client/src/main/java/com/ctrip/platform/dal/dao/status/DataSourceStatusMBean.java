@@ -16,4 +16,18 @@ public interface DataSourceStatusMBean {
 
 	Date getAutoMarkdownTime();
 
+	boolean isAdaptiveSizingEnabled();
+
+	void setAdaptiveSizingEnabled(boolean adaptiveSizingEnabled);
+
+	int getMaxActive();
+
+	int getActive();
+
+	double getAverageBorrowWait();
+
+	String getLastSizingDecision();
+
+	Date getLastSizingTime();
+
 }
\ No newline at end of file
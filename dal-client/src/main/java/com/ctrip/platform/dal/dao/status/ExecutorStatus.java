@@ -0,0 +1,89 @@
+package com.ctrip.platform.dal.dao.status;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime metrics of the executor that runs cross shard and async tasks for a logic database.
+ * Wait time is measured in milliseconds from task submission to task start.
+ */
+public class ExecutorStatus extends BaseStatus implements ExecutorStatusMBean {
+	private String name;
+	private volatile ExecutorService executor;
+	private volatile String executorMode;
+	private AtomicInteger runningCount = new AtomicInteger();
+	private AtomicLong taskCount = new AtomicLong();
+	private AtomicLong callerRunsCount = new AtomicLong();
+	private AtomicLong totalWaitTime = new AtomicLong();
+	private AtomicLong maxWaitTime = new AtomicLong();
+	
+	public ExecutorStatus(String name) {
+		this.name = name;
+	}
+	
+	public void setExecutor(ExecutorService executor, String executorMode) {
+		this.executor = executor;
+		this.executorMode = executorMode;
+	}
+	
+	public void recordWait(long waitTime) {
+		taskCount.incrementAndGet();
+		totalWaitTime.addAndGet(waitTime);
+		
+		long max = maxWaitTime.get();
+		while(waitTime > max && !maxWaitTime.compareAndSet(max, waitTime))
+			max = maxWaitTime.get();
+	}
+	
+	public void taskStarted() {
+		runningCount.incrementAndGet();
+	}
+	
+	public void taskFinished() {
+		runningCount.decrementAndGet();
+	}
+	
+	public void recordCallerRuns() {
+		callerRunsCount.incrementAndGet();
+	}
+	
+	public String getName() {
+		return name;
+	}
+
+	public String getExecutorMode() {
+		return executorMode;
+	}
+
+	public int getPoolSize() {
+		return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor)executor).getPoolSize() : 0;
+	}
+
+	public int getActiveCount() {
+		// There is no pool for virtual thread, count the running tasks instead
+		return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor)executor).getActiveCount() : runningCount.get();
+	}
+
+	public int getQueueSize() {
+		return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor)executor).getQueue().size() : 0;
+	}
+
+	public long getTaskCount() {
+		return taskCount.get();
+	}
+
+	public long getCallerRunsCount() {
+		return callerRunsCount.get();
+	}
+
+	public long getAverageWaitTime() {
+		long count = taskCount.get();
+		return count == 0 ? 0 : totalWaitTime.get() / count;
+	}
+
+	public long getMaxWaitTime() {
+		return maxWaitTime.get();
+	}
+}
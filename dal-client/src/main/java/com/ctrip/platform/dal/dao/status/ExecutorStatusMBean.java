@@ -0,0 +1,23 @@
+package com.ctrip.platform.dal.dao.status;
+
+public interface ExecutorStatusMBean {
+
+	String getName();
+
+	String getExecutorMode();
+
+	int getPoolSize();
+
+	int getActiveCount();
+
+	int getQueueSize();
+
+	long getTaskCount();
+
+	long getCallerRunsCount();
+
+	long getAverageWaitTime();
+
+	long getMaxWaitTime();
+
+}
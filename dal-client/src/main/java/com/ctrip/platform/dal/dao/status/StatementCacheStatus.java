@@ -0,0 +1,56 @@
+package com.ctrip.platform.dal.dao.status;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settings and metrics of the prepared statement cache of pooled connections.
+ * The max size applies to each physical connection.
+ */
+public class StatementCacheStatus extends BaseStatus implements StatementCacheStatusMBean {
+	private volatile boolean enabled;
+	private volatile int maxSize = 32;
+	
+	private AtomicLong hitCount = new AtomicLong();
+	private AtomicLong missCount = new AtomicLong();
+	private AtomicLong evictionCount = new AtomicLong();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		changed();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		changed();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+	
+	public void hit() {
+		hitCount.incrementAndGet();
+	}
+	
+	public void miss() {
+		missCount.incrementAndGet();
+	}
+	
+	public void evicted() {
+		evictionCount.incrementAndGet();
+	}
+}
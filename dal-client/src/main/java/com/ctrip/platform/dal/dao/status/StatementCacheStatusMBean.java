@@ -0,0 +1,19 @@
+package com.ctrip.platform.dal.dao.status;
+
+public interface StatementCacheStatusMBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	int getMaxSize();
+
+	void setMaxSize(int maxSize);
+
+	long getHitCount();
+
+	long getMissCount();
+
+	long getEvictionCount();
+
+}
@@ -3,32 +3,33 @@ package com.ctrip.platform.dal.dao.task;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 
 public class BatchDeleteTask<T> extends AbstractIntArrayBulkTask<T> {
 	private static final String TMPL_SQL_DELETE = "DELETE FROM %s WHERE %s";
 
 	@Override
-	public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
-		StatementParameters[] parametersList = new StatementParameters[daoPojos.size()];
+	public int[] execute(DalHints hints, DalPojoPartition daoPojos) throws SQLException {
 		List<String> pkNames = Arrays.asList(parser.getPrimaryKeyNames());
+		int[] pkPositions = getColumnPositions(pkNames);
 
-		int i = 0;
-		for (Integer index :daoPojos.keySet()) {
-			StatementParameters parameters = new StatementParameters();
-			addParameters(1, parameters, daoPojos.get(index), pkNames);
-			parametersList[i++] = parameters;
+		StatementParameters[] parametersList = StatementParametersPool.acquire(daoPojos.size(), pkNames.size());
+		try {
+			for (int i = 0; i < parametersList.length; i++)
+				addParameters(1, parametersList[i], daoPojos.get(i), pkNames, pkPositions);
+			
+			String deleteSql = buildDeleteSql(getTableName(hints));
+			return client.batchUpdate(deleteSql, parametersList, hints);
+		} finally {
+			StatementParametersPool.release(parametersList);
 		}
-		
-		String deleteSql = buildDeleteSql(getTableName(hints));
-		int[] result = client.batchUpdate(deleteSql, parametersList, hints);
-		return result;
 	}
 	
 	private String buildDeleteSql(String tableName) {
-		return String.format(TMPL_SQL_DELETE, tableName, pkSql);
+		String sql = sqlCache.get(tableName, 0, null);
+		return sql != null ? sql : sqlCache.put(tableName, 0, null, String.format(TMPL_SQL_DELETE, tableName, pkSql));
 	}
 }
@@ -1,10 +1,11 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
-import java.util.Map;
+import java.util.List;
 
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 
 public class BatchInsertTask<T> extends InsertTaskAdapter<T> implements BulkTask<int[], T> {
 	private static final String TMPL_SQL_INSERT = "INSERT INTO %s (%s) VALUES(%s)";
@@ -15,38 +16,30 @@ public class BatchInsertTask<T> extends InsertTaskAdapter<T> implements BulkTask
 	}	
 
 	@Override
-	public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
-		StatementParameters[] parametersList = new StatementParameters[daoPojos.size()];
-		int i = 0;
-		
-		for (Integer index :daoPojos.keySet()) {
-			Map<String, ?> pojo = daoPojos.get(index);
-			
-			if(hints.isIdentityInsertDisabled())
-				removeAutoIncrementPrimaryFields(pojo);
-			
-			removeNotInsertableColumns(pojo);
-			
-			StatementParameters parameters = new StatementParameters();
-			addParameters(parameters, pojo);
-			parametersList[i++] = parameters;
-		}
+	public int[] execute(DalHints hints, DalPojoPartition daoPojos) throws SQLException {
+		// Only the columns in the insert statement are picked, the fields are not modified
+		List<String> usedValidColumnsForInsert = hints.isIdentityInsertDisabled() ? validColumnsForInsert: validColumnsForInsertWithId;
+		int[] usedPositionsForInsert = hints.isIdentityInsertDisabled() ? positionsForInsert: positionsForInsertWithId;
 
-		String batchInsertSql = buildBatchInsertSql(getTableName(hints), hints);
-		int[] result = client.batchUpdate(batchInsertSql, parametersList, hints);
-		return result;
-	}
+		StatementParameters[] parametersList = StatementParametersPool.acquire(daoPojos.size(), usedValidColumnsForInsert.size());
+		try {
+			for (int i = 0; i < parametersList.length; i++)
+				addParameters(1, parametersList[i], daoPojos.get(i), usedValidColumnsForInsert, usedPositionsForInsert);
 	
-	private void removeNotInsertableColumns(Map<String, ?> pojo) {
-		if(notInsertableColumns.size() == 0)
-			return;
-		
-		for(String columName: notInsertableColumns) {
-			pojo.remove(columName);
+			String batchInsertSql = buildBatchInsertSql(getTableName(hints), hints);
+			return client.batchUpdate(batchInsertSql, parametersList, hints);
+		} finally {
+			StatementParametersPool.release(parametersList);
 		}
 	}
 	
 	private String buildBatchInsertSql(String tableName, DalHints hints) {
+		int variant = hints.isIdentityInsertDisabled() ? 1 : 0;
+		String sql = sqlCache.get(tableName, variant, null);
+		return sql != null ? sql : sqlCache.put(tableName, variant, null, compileBatchInsertSql(tableName, hints));
+	}
+	
+	private String compileBatchInsertSql(String tableName, DalHints hints) {
 		int validColumnsSize = parser.getInsertableColumnNames().length;
 		if(parser.isAutoIncrement() && hints.isIdentityInsertDisabled())
 			validColumnsSize--;
@@ -2,7 +2,8 @@ package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +13,7 @@ import org.apache.commons.lang.StringUtils;
 
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
@@ -19,36 +21,39 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 	public static final String TMPL_SQL_UPDATE = "UPDATE %s SET %s WHERE %s";
 
 	@Override
-	public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
-		StatementParameters[] parametersList = new StatementParameters[daoPojos.size()];
-		int i = 0;
-
+	public int[] execute(DalHints hints, DalPojoPartition daoPojos) throws SQLException {
 		Map<String, Boolean> pojoFieldStatus = filterUpdateColumnNames(hints, daoPojos);
 		if(pojoFieldStatus.size() == 0)
 			throw new DalException(ErrorCode.ValidateFieldCount);
 		
-		String[] updateColumnNames = pojoFieldStatus.keySet().toArray(new String[pojoFieldStatus.size()]);
+		List<String> updateColumnNames = new ArrayList<>(pojoFieldStatus.keySet());
+		List<String> pkNames = Arrays.asList(parser.getPrimaryKeyNames());
+		int[] updatePositions = getColumnPositions(updateColumnNames);
+		int[] pkPositions = getColumnPositions(pkNames);
 		
-		for (Integer index :daoPojos.keySet()) {
-			Map<String, ?> pojo = daoPojos.get(index);
-			StatementParameters parameters = new StatementParameters();
-
-			addParameters(parameters, pojo, updateColumnNames);
-			addParameters(parameters, pojo, parser.getPrimaryKeyNames());
-			addVersion(parameters, pojo);
+		StatementParameters[] parametersList = StatementParametersPool.acquire(daoPojos.size(), updateColumnNames.size() + pkNames.size() + 1);
+		try {
+			for (int i = 0; i < parametersList.length; i++) {
+				Map<String, ?> pojo = daoPojos.get(i);
+				StatementParameters parameters = parametersList[i];
+	
+				int index = 1;
+				index += addParameters(index, parameters, pojo, updateColumnNames, updatePositions);
+				addParameters(index, parameters, pojo, pkNames, pkPositions);
+				addVersion(parameters, pojo);
+			}
+			
+			String batchUpdateSql = buildBatchUpdateSql(getTableName(hints), pojoFieldStatus);
 			
-			parametersList[i++] = parameters;
+			return client.batchUpdate(batchUpdateSql, parametersList, hints);
+		} finally {
+			StatementParametersPool.release(parametersList);
 		}
-		
-		String batchUpdateSql = buildBatchUpdateSql(getTableName(hints), pojoFieldStatus);
-		
-		int[] result = client.batchUpdate(batchUpdateSql, parametersList, hints);
-		return result;
 	}
 
-	private Map<String, Boolean> filterUpdateColumnNames(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws DalException {
+	private Map<String, Boolean> filterUpdateColumnNames(DalHints hints, DalPojoPartition daoPojos) throws DalException {
 		Set<String> qualifiedColumns = filterColumns(hints);
-		Map<String, Boolean> columnStatus = new HashMap<String, Boolean>();
+		Map<String, Boolean> columnStatus = new LinkedHashMap<String, Boolean>();
 		for(String column: qualifiedColumns)
 			columnStatus.put(column, false);
 		
@@ -60,11 +65,10 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 		Set<String> nullFields = new HashSet<>(qualifiedColumns);
 		Set<String> notNullFields = new HashSet<>(nullFields);
 		
-		for (Integer index :daoPojos.keySet()) {
+		for (Map<String, ?> pojo: daoPojos) {
 			if(notNullFields.isEmpty() && nullFields.isEmpty())
 				break;
 			
-			Map<String, ?> pojo = daoPojos.get(index);
 			for (int i = 0; i < columnsToCheck.length; i++) {
 				String colName = columnsToCheck[i];
 				boolean isNull = pojo.get(colName) == null;
@@ -89,6 +93,13 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 	}
 
 	private String buildBatchUpdateSql(String tableName, Map<String, Boolean> pojoFieldStatus) {
+		// Map equals ignores order, but parameters are set in the order of the map
+		List<Map.Entry<String, Boolean>> columns = new ArrayList<>(pojoFieldStatus.entrySet());
+		String sql = sqlCache.get(tableName, 0, columns);
+		return sql != null ? sql : sqlCache.put(tableName, 0, columns, compileBatchUpdateSql(tableName, pojoFieldStatus));
+	}
+
+	private String compileBatchUpdateSql(String tableName, Map<String, Boolean> pojoFieldStatus) {
 		List<String> updateColumnTmpls = new ArrayList<>(pojoFieldStatus.size());
 
 		for(Map.Entry<String, Boolean> fieldStatus: pojoFieldStatus.entrySet()) {
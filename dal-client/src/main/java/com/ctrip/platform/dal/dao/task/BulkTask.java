@@ -1,14 +1,13 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
-import java.util.Map;
-
 import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 
 public interface BulkTask<K, T> extends DaoTask<T> {
 	K getEmptyValue();
 	
-	K execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled) throws SQLException;
+	K execute(DalHints hints, DalPojoPartition shaffled) throws SQLException;
 	
 	//Merger factory, always return a new merger instance
 	BulkTaskResultMerger<K> createMerger();
@@ -3,5 +3,5 @@ package com.ctrip.platform.dal.dao.task;
 import com.ctrip.platform.dal.dao.ResultMerger;
 
 public interface BulkTaskResultMerger<T> extends ResultMerger<T>{
-	void recordPartial(String shard, Integer[] partialIndex);
+	void recordPartial(String shard, int[] partialIndex);
 }
@@ -7,9 +7,11 @@ import java.util.Map;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.KeyHolder;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 
 public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkTask<Integer, T> {
 	public static final String TMPL_SQL_MULTIPLE_INSERT = "INSERT INTO %s(%s) VALUES %s";
+	private static final int MAX_CACHED_ROWS = 128;
 
 	@Override
 	public Integer getEmptyValue() {
@@ -17,28 +19,19 @@ public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkT
 	}	
 
 	@Override
-	public Integer execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
-		StatementParameters parameters = new StatementParameters();
-		StringBuilder values = new StringBuilder();
-
+	public Integer execute(DalHints hints, DalPojoPartition daoPojos) throws SQLException {
 		List<String> usedValidColumnsForInsert = hints.isIdentityInsertDisabled() ? validColumnsForInsert: validColumnsForInsertWithId;
-		String usedColumnsForInsert = hints.isIdentityInsertDisabled() ? columnsForInsert: columnsForInsertWithId;
+		StatementParameters parameters = new StatementParameters(daoPojos.size() * usedValidColumnsForInsert.size());
+
+		int[] usedPositionsForInsert = hints.isIdentityInsertDisabled() ? positionsForInsert: positionsForInsertWithId;
 
 		int startIndex = 1;
-		for (Integer index :daoPojos.keySet()) {
-			Map<String, ?> vfields = daoPojos.get(index);
-			
-			if(hints.isIdentityInsertDisabled())
-				removeAutoIncrementPrimaryFields(vfields);
-			
-			int paramCount = addParameters(startIndex, parameters, vfields, usedValidColumnsForInsert);
+		for (Map<String, ?> vfields: daoPojos) {
+			int paramCount = addParameters(startIndex, parameters, vfields, usedValidColumnsForInsert, usedPositionsForInsert);
 			startIndex += paramCount;
-			values.append(String.format("(%s),", combine("?", paramCount, ",")));
 		}
 
-		String sql = String.format(TMPL_SQL_MULTIPLE_INSERT,
-				getTableName(hints), usedColumnsForInsert,
-				values.substring(0, values.length() - 2) + ")");
+		String sql = buildCombinedInsertSql(getTableName(hints), hints, daoPojos.size());
 
 		KeyHolder keyHolder = hints.getKeyHolder();
 		KeyHolder tmpHolder = keyHolder != null && keyHolder.isRequireMerge() ? new KeyHolder() : keyHolder;
@@ -46,12 +39,39 @@ public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkT
 		int count = client.update(sql, parameters, hints.setKeyHolder(tmpHolder));
 		
 		if(tmpHolder != null)
-			keyHolder.addPatial(daoPojos.keySet().toArray(new Integer[daoPojos.size()]), tmpHolder);
+			keyHolder.addPatial(daoPojos.getIndexes(), tmpHolder);
 		
 		hints.setKeyHolder(keyHolder);
 		return count;
 	}
 
+	/**
+	 * Only sql of small batches is cached, the sql of a big batch is too long to keep.
+	 */
+	private String buildCombinedInsertSql(String tableName, DalHints hints, int rowCount) {
+		int variant = hints.isIdentityInsertDisabled() ? 1 : 0;
+		if(rowCount > MAX_CACHED_ROWS)
+			return compileCombinedInsertSql(tableName, hints, rowCount);
+		
+		String sql = sqlCache.get(tableName, variant, rowCount);
+		return sql != null ? sql : sqlCache.put(tableName, variant, rowCount, compileCombinedInsertSql(tableName, hints, rowCount));
+	}
+	
+	private String compileCombinedInsertSql(String tableName, DalHints hints, int rowCount) {
+		List<String> usedValidColumnsForInsert = hints.isIdentityInsertDisabled() ? validColumnsForInsert: validColumnsForInsertWithId;
+		String usedColumnsForInsert = hints.isIdentityInsertDisabled() ? columnsForInsert: columnsForInsertWithId;
+		String rowValues = "(" + combine(PLACE_HOLDER, usedValidColumnsForInsert.size(), ",") + ")";
+		
+		StringBuilder values = new StringBuilder(rowCount * (rowValues.length() + 1));
+		for (int i = 0; i < rowCount; i++) {
+			if(i > 0)
+				values.append(',');
+			values.append(rowValues);
+		}
+
+		return String.format(TMPL_SQL_MULTIPLE_INSERT, tableName, usedColumnsForInsert, values);
+	}
+
 	@Override
 	public BulkTaskResultMerger<Integer> createMerger() {
 		return new ShardedIntResultMerger();
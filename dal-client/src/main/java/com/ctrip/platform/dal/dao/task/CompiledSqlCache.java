@@ -0,0 +1,70 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL built by a task for a table shard and a variant of columns or hints. Repeated
+ * calls get the same string instance instead of formatting it again.
+ * 
+ * The cache is cleared when it grows beyond the limit, for example when the column
+ * set varies a lot between calls.
+ */
+class CompiledSqlCache {
+	private static final int MAX_SIZE = 512;
+	
+	private ConcurrentHashMap<Key, String> cache = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param variant task specific flags, like identity insert
+	 * @param columns task specific columns or row count. Its equals must tell apart everything
+	 * the sql depends on, including column order. It must not be changed after put
+	 * @return null if not cached
+	 */
+	public String get(String tableName, int variant, Object columns) {
+		return cache.get(new Key(tableName, variant, columns));
+	}
+	
+	/**
+	 * @return the cached sql, it may be put by another thread
+	 */
+	public String put(String tableName, int variant, Object columns, String sql) {
+		if(cache.size() >= MAX_SIZE)
+			cache.clear();
+		
+		String cached = cache.putIfAbsent(new Key(tableName, variant, columns), sql);
+		return cached == null ? sql : cached;
+	}
+	
+	public int size() {
+		return cache.size();
+	}
+	
+	private static class Key {
+		private String tableName;
+		private int variant;
+		private Object columns;
+		private int hash;
+		
+		Key(String tableName, int variant, Object columns) {
+			this.tableName = tableName;
+			this.variant = variant;
+			this.columns = columns;
+			hash = (tableName.hashCode() * 31 + variant) * 31 + (columns == null ? 0 : columns.hashCode());
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+			
+			Key other = (Key)obj;
+			return hash == other.hash && variant == other.variant && tableName.equals(other.tableName) 
+					&& (columns == null ? other.columns == null : columns.equals(other.columns));
+		}
+	}
+}
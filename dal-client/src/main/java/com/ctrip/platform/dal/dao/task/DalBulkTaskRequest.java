@@ -11,8 +11,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 
+import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.client.DalTransactionManager;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
@@ -24,7 +30,7 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 	private List<Map<String, ?>> daoPojos;
 	private BulkTask<K, T> task;
 	private BulkTaskResultMerger<K> dbShardMerger;
-	Map<String, Map<Integer, Map<String, ?>>> shuffled;
+	Map<String, DalPojoPartition> shuffled;
 	
 	public DalBulkTaskRequest(String logicDbName, String rawTableName, DalHints hints, List<T> rawPojos, BulkTask<K, T> task) {
 		this.logicDbName = logicDbName;
@@ -34,6 +40,11 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		this.task = task;
 	}
 
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
 	@Override
 	public void validate() throws SQLException {
 		if(null == rawPojos)
@@ -70,18 +81,13 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		// If only one shard is shuffled
 		if(shuffled != null) {
 			if(shuffled.size() == 0)
-				return new BulkTaskCallable<>(logicDbName, rawTableName, hints, new HashMap<Integer, Map<String, ?>>(), task);
+				return new BulkTaskCallable<>(logicDbName, rawTableName, hints, new DalPojoPartition(daoPojos), task);
 
 			String shard = shuffled.keySet().iterator().next();
 			return new BulkTaskCallable<>(logicDbName, rawTableName, hints.inShard(shard), shuffled.get(shard), task);
 		}
 	
-		// Convert to index map
-		Map<Integer, Map<String, ?>> daoPojosMap = new HashMap<>();
-		for(int i = 0; i < daoPojos.size(); i++)
-			daoPojosMap.put(i, daoPojos.get(i));
-
-		return new BulkTaskCallable<>(logicDbName, rawTableName, hints, daoPojosMap, task);
+		return new BulkTaskCallable<>(logicDbName, rawTableName, hints, new DalPojoPartition(daoPojos), task);
 	}
 
 	@Override
@@ -92,12 +98,12 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		handleKeyHolder(true);
 		
 		for(String shard: shuffled.keySet()) {
-			Map<Integer, Map<String, ?>> pojosInShard = shuffled.get(shard);
+			DalPojoPartition pojosInShard = shuffled.get(shard);
 			
-			dbShardMerger.recordPartial(shard, pojosInShard.keySet().toArray(new Integer[pojosInShard.size()]));
+			dbShardMerger.recordPartial(shard, pojosInShard.getIndexes());
 			
 			tasks.put(shard, new BulkTaskCallable<>(
-					logicDbName, rawTableName, hints.clone().inShard(shard), shuffled.get(shard), task));
+					logicDbName, rawTableName, hints.clone().inShard(shard), pojosInShard, task));
 		}
 
 		return tasks; 
@@ -119,10 +125,10 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		private String logicDbName;
 		private String rawTableName;
 		private DalHints hints;
-		private Map<Integer, Map<String, ?>> shaffled;
+		private DalPojoPartition shaffled;
 		private BulkTask<K, T> task;
 
-		public BulkTaskCallable(String logicDbName, String rawTableName, DalHints hints, Map<Integer, Map<String, ?>> shaffled, BulkTask<K, T> task){
+		public BulkTaskCallable(String logicDbName, String rawTableName, DalHints hints, DalPojoPartition shaffled, BulkTask<K, T> task){
 			this.logicDbName = logicDbName;
 			this.rawTableName = rawTableName;
 			this.hints = hints;
@@ -144,19 +150,22 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		private K executeByTableShards() throws SQLException {
 			BulkTaskResultMerger<K> merger = task.createMerger();
 			
-			Map<String, Map<Integer, Map<String, ?>>> pojosInTable = shuffleByTable(logicDbName, hints.getTableShardId(), shaffled);
+			Map<String, DalPojoPartition> pojosInTable = shuffleByTable(logicDbName, hints.getTableShardId(), shaffled);
 			
 			if(pojosInTable.size() > 1 && hints.getKeyHolder() != null) {
 				hints.getKeyHolder().requireMerge();
 			}
+			
+			if(pojosInTable.size() > 1 && isParallelTableShard())
+				return executeInParallel(merger, pojosInTable);
 				
 			DalHints tmpHints;
 			for(String curTableShardId: pojosInTable.keySet()) {
-				Map<Integer, Map<String, ?>> pojosInShard = pojosInTable.get(curTableShardId);
+				DalPojoPartition pojosInShard = pojosInTable.get(curTableShardId);
 				tmpHints = hints.clone();
 				
 				tmpHints.inTableShard(curTableShardId);
-				merger.recordPartial(curTableShardId, pojosInShard.keySet().toArray(new Integer[pojosInShard.size()]));
+				merger.recordPartial(curTableShardId, pojosInShard.getIndexes());
 				
 				K partial = task.execute(tmpHints, pojosInShard);
 				merger.addPartial(curTableShardId, partial);
@@ -164,5 +173,52 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 			}
 			return merger.merge();
 		}
+		
+		private boolean isParallelTableShard() {
+			// The pooled thread can not see the transaction connection of current thread
+			return hints.is(DalHintEnum.parallelTableShardExecution) && !DalTransactionManager.isInTransaction();
+		}
+		
+		/**
+		 * Each table shard is submitted to the executor of the logic db. Then the current
+		 * thread runs the table shards that are not yet picked up by the executor, so it
+		 * never waits for a task that is queued behind itself when the pool is busy.
+		 */
+		private K executeInParallel(BulkTaskResultMerger<K> merger, Map<String, DalPojoPartition> pojosInTable) throws SQLException {
+			ExecutorService executor = DalRequestExecutor.getExecutor(logicDbName);
+			Map<String, FutureTask<K>> partials = new HashMap<>();
+			
+			try {
+				for(String curTableShardId: pojosInTable.keySet()) {
+					final DalPojoPartition pojosInShard = pojosInTable.get(curTableShardId);
+					final DalHints tmpHints = hints.clone().inTableShard(curTableShardId);
+					merger.recordPartial(curTableShardId, pojosInShard.getIndexes());
+					
+					FutureTask<K> partial = new FutureTask<>(new Callable<K>() {
+						public K call() throws Exception {
+							return task.execute(tmpHints, pojosInShard);
+						}
+					});
+					partials.put(curTableShardId, partial);
+					executor.execute(partial);
+				}
+				
+				for(Map.Entry<String, FutureTask<K>> partial: partials.entrySet()) {
+					partial.getValue().run();
+					merger.addPartial(partial.getKey(), partial.getValue().get());
+				}
+			} catch (ExecutionException e) {
+				throw DalException.wrap(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw DalException.wrap(e);
+			} finally {
+				// Do not start the rest table shards after failure
+				for(FutureTask<K> partial: partials.values())
+					partial.cancel(false);
+			}
+			
+			return merger.merge();
+		}
 	}
 }
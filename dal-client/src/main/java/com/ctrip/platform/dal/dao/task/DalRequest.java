@@ -7,6 +7,14 @@ import java.util.concurrent.Callable;
 import com.ctrip.platform.dal.dao.ResultMerger;
 
 public interface DalRequest<T> {
+	/**
+	 * @return logic db name that the request is executed against, null if unknown.
+	 * Cross shard tasks of request without logic db name run in a shared executor
+	 */
+	default String getLogicDbName() {
+		return null;
+	}
+	
 	/**
 	 * Validate request
 	 * @throws SQLException
@@ -3,18 +3,26 @@ package com.ctrip.platform.dal.dao.task;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.ctrip.platform.dal.dao.DalCursor;
 import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalResultCallback;
 import com.ctrip.platform.dal.dao.ResultMerger;
+import com.ctrip.platform.dal.dao.client.DalStatementCanceller;
 import com.ctrip.platform.dal.dao.client.DalWatcher;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
@@ -26,12 +34,34 @@ import com.ctrip.platform.dal.exceptions.ErrorCode;
  * @author jhhe
  */
 public class DalRequestExecutor {
-	private static AtomicReference<ExecutorService> serviceRef = new AtomicReference<>();
+	private static AtomicReference<DatabaseSetExecutors> serviceRef = new AtomicReference<>();
 	
 	public static final String MAX_POOL_SIZE = "maxPoolSize";
+	public static final String MAX_QUEUE_SIZE = "maxQueueSize";
+	public static final String EXECUTOR_MODE = "executorMode";
+	public static final String PLATFORM_THREAD_MODE = "platform";
+	public static final String VIRTUAL_THREAD_MODE = "virtual";
 	public static final int DEFAULT_MAX_POOL_SIZE = 50;
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+	
+	private static final int NO_TIMEOUT = 0;
+	private static final String NO_SHARD = "";
 
 	public static void init(String maxPoolSizeStr){
+		Map<String, String> settings = new HashMap<>();
+		if(maxPoolSizeStr != null)
+			settings.put(MAX_POOL_SIZE, maxPoolSizeStr);
+		
+		DefaultTaskFactory factory = new DefaultTaskFactory();
+		factory.initialize(settings);
+		init(factory);
+	}
+	
+	/**
+	 * Executors are created for each logic db on demand. Executor settings are
+	 * read from the TaskFactory settings in dal.xml.
+	 */
+	public static void init(DalTaskFactory factory){
 		if(serviceRef.get() != null)
 			return;
 		
@@ -39,11 +69,7 @@ public class DalRequestExecutor {
 			if(serviceRef.get() != null)
 				return;
 			
-			int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
-			if(maxPoolSizeStr != null)
-				maxPoolSize = Integer.parseInt(maxPoolSizeStr);
-			
-			serviceRef.set(new ThreadPoolExecutor(5, maxPoolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()));
+			serviceRef.set(new DatabaseSetExecutors(factory));
 		}
 	} 
 	
@@ -68,7 +94,7 @@ public class DalRequestExecutor {
 		// TODO add performance tracking DalWatcher.begin();
 
 		if (hints.isAsyncExecution()) {
-			Future<T> future = serviceRef.get().submit(new Callable<T>() {
+			Future<T> future = getExecutor(request).submit(new Callable<T>() {
 				public T call() throws Exception {
 					return internalExecute(hints, request, nullable);
 				}
@@ -82,6 +108,90 @@ public class DalRequestExecutor {
 		return internalExecute(hints, request, nullable);
 	}
 
+	public <T> CompletableFuture<T> executeAsync(final DalHints hints, final DalRequest<T> request) {
+		return executeAsync(hints, request, false);
+	}
+	
+	/**
+	 * Execute request without blocking the calling thread. The returned future is completed 
+	 * with the merged result, or exceptionally with the error. The result callback in hints
+	 * is also invoked before the future is completed.
+	 * 
+	 * For parallel cross shard execution, each shard is submitted separately and the result
+	 * is merged when the last shard completes, so that no thread is blocked waiting for the 
+	 * shards. If crossShardTimeout is set, the request is executed in one task which enforces
+	 * the deadline as in synchronous execution.
+	 */
+	public <T> CompletableFuture<T> executeAsync(final DalHints hints, final DalRequest<T> request, final boolean nullable) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		
+		try {
+			request.validate();
+			final boolean crossShard = request.isCrossShard();
+			
+			if(crossShard && isComposable(hints)) {
+				new ParallelExecution<>(hints, request, nullable, future).start();
+				return future;
+			}
+			
+			getExecutor(request).execute(new Runnable() {
+				public void run() {
+					T result = null;
+					Throwable error = null;
+					try {
+						result = execute(hints, request, crossShard, nullable);
+					} catch (Throwable e) {
+						error = e;
+					}
+					complete(hints, future, result, error);
+				}
+			});
+		} catch (Throwable e) {
+			complete(hints, future, null, e);
+		}
+		
+		return future;
+	}
+	
+	/**
+	 * Open cursor that streams rows of the request. Shards are executed in the order of
+	 * shard id, or at the same time if there is sorter in hints.
+	 * 
+	 * The rows are read by a dedicated thread per shard, so the cursor does not take part in
+	 * the transaction of the calling thread.
+	 */
+	public <T> DalCursor<T> openCursor(DalHints hints, DalRequest<Integer> request, StreamQuerySqlTask<T> task) throws SQLException {
+		request.validate();
+		
+		Map<String, Callable<Integer>> tasks = new TreeMap<>();
+		if(request.isCrossShard())
+			tasks.putAll(request.createTasks());
+		else
+			tasks.put(NO_SHARD, request.createTask());
+		
+		return new DalShardCursor<>(hints, tasks, task);
+	}
+	
+	private boolean isComposable(DalHints hints) {
+		return !hints.is(DalHintEnum.sequentialExecution) && hints.getInt(DalHintEnum.crossShardTimeout, NO_TIMEOUT) <= NO_TIMEOUT;
+	}
+	
+	private <T> void complete(DalHints hints, CompletableFuture<T> future, T result, Throwable error) {
+		handleCallback(hints, result, error);
+		if(error == null)
+			future.complete(result);
+		else
+			future.completeExceptionally(DalException.wrap(error));
+	}
+
+	private ExecutorService getExecutor(DalRequest<?> request) {
+		return getExecutor(request.getLogicDbName());
+	}
+
+	static ExecutorService getExecutor(String logicDbName) {
+		return serviceRef.get().getExecutor(logicDbName);
+	}
+
 	private <T> T internalExecute(DalHints hints, DalRequest<T> request, boolean nullable) throws SQLException {
 		T result = null;
 		Throwable error = null;
@@ -92,13 +202,7 @@ public class DalRequestExecutor {
 			/**
 			 * TODO make sure detect distributed transaction 
 			 */
-			if(request.isCrossShard())
-				result = crossShardExecute(hints, request);
-			else
-				result = nonCrossShardExecute(hints, request);
-
-			if(result == null && !nullable)
-				throw new DalException(ErrorCode.AssertNull);
+			result = execute(hints, request, request.isCrossShard(), nullable);
 		} catch (Throwable e) {
 			error = e;
 		}
@@ -110,6 +214,17 @@ public class DalRequestExecutor {
 		return result;
 	}
 
+	private <T> T execute(DalHints hints, DalRequest<T> request, boolean crossShard, boolean nullable) throws SQLException {
+		T result = crossShard ?
+				crossShardExecute(hints, request):
+				nonCrossShardExecute(hints, request);
+		
+		if(result == null && !nullable)
+			throw new DalException(ErrorCode.AssertNull);
+		
+		return result;
+	}
+
 	private <T> T nonCrossShardExecute(DalHints hints, DalRequest<T> request) throws SQLException {
 		try {
 			return request.createTask().call();
@@ -142,24 +257,93 @@ public class DalRequestExecutor {
 	}
 
 	private <T> T parallelExecute(DalHints hints, DalRequest<T> request) throws SQLException {
-		Map<String, Callable<T>> tasks = request.createTasks();
-		Map<String, Future<T>> resultFutures = new HashMap<>();
+		int timeout = hints.getInt(DalHintEnum.crossShardTimeout, NO_TIMEOUT);
+		DalStatementCanceller canceller = null;
+		if(timeout > NO_TIMEOUT) {
+			// Must be set before tasks are created, so that each shard hints shares the same canceller
+			canceller = new DalStatementCanceller();
+			hints.set(DalHintEnum.statementCanceller, canceller);
+		}
+		
+		Map<String, Callable<T>> tasks;
+		try {
+			tasks = request.createTasks();
+		} finally {
+			// Shard hints are cloned by now, do not leave the canceller in caller's hints
+			if(canceller != null)
+				hints.remove(DalHintEnum.statementCanceller);
+		}
+		
+		Map<Future<T>, String> resultFutures = new HashMap<>();
+		CompletionService<T> completionService = new ExecutorCompletionService<>(getExecutor(request));
 		
+		long deadline = System.currentTimeMillis() + timeout;
 		for(final String shard: tasks.keySet())
-			resultFutures.put(shard, serviceRef.get().submit(tasks.get(shard)));
+			resultFutures.put(completionService.submit(tasks.get(shard)), shard);
 
-		// TODO Handle timeout and execution exception
+		// Merge in the order of completion, so that a slow shard does not delay merging the others
 		ResultMerger<T> merger = request.getMerger();
-		for(Map.Entry<String, Future<T>> entry: resultFutures.entrySet()) {
-			try {
-				merger.addPartial(entry.getKey(), entry.getValue().get());
-			} catch (Throwable e) {
-				hints.handleError("There is error during parallel execution: ", e);
+		try {
+			for(int i = 0; i < resultFutures.size(); i++) {
+				Future<T> future = nextCompleted(completionService, timeout, deadline);
+				if(future == null) {
+					hints.handleError("There is timeout during parallel execution: ", 
+							new DalException(ErrorCode.CrossShardTimeout, timeout, getRunningShards(resultFutures)));
+					break;
+				}
+				
+				try {
+					merger.addPartial(resultFutures.get(future), future.get());
+				} catch (Throwable e) {
+					hints.handleError("There is error during parallel execution: ", e);
+				}
 			}
+		} finally {
+			// In case of timeout or stop on error, do not leave shards running
+			cancel(resultFutures, canceller);
 		}
 		
 		return merger.merge();
 	}
+	
+	/**
+	 * @return next completed future, or null if the deadline passes before any shard completes 
+	 */
+	private <T> Future<T> nextCompleted(CompletionService<T> completionService, int timeout, long deadline) throws SQLException {
+		try {
+			if(timeout <= NO_TIMEOUT)
+				return completionService.take();
+			
+			return completionService.poll(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DalException.wrap(e);
+		}
+	}
+	
+	private <T> Set<String> getRunningShards(Map<Future<T>, String> resultFutures) {
+		Set<String> shards = new TreeSet<>();
+		for(Map.Entry<Future<T>, String> entry: resultFutures.entrySet()) {
+			if(!entry.getKey().isDone())
+				shards.add(entry.getValue());
+		}
+		return shards;
+	}
+	
+	private <T> void cancel(Map<Future<T>, String> resultFutures, DalStatementCanceller canceller) {
+		boolean hasRunning = false;
+		for(Future<T> future: resultFutures.keySet()) {
+			if(future.isDone())
+				continue;
+			
+			hasRunning = true;
+			future.cancel(true);
+		}
+		
+		// Interrupt does not stop statement that is blocking in driver
+		if(hasRunning && canceller != null)
+			canceller.cancel();
+	}
 
 	private <T> T seqncialExecute(DalHints hints, DalRequest<T> request) throws SQLException {
 		Map<String, Callable<T>> tasks = request.createTasks();
@@ -174,4 +358,89 @@ public class DalRequestExecutor {
 		
 		return merger.merge();
 	}
+	
+	/**
+	 * Parallel cross shard execution that merges each partial in the thread that completes
+	 * the shard. The future is completed by the last shard, or by the first error if stop on error.
+	 */
+	private class ParallelExecution<T> {
+		private DalHints hints;
+		private DalRequest<T> request;
+		private boolean nullable;
+		private CompletableFuture<T> future;
+		private ResultMerger<T> merger;
+		private AtomicInteger remaining;
+		private AtomicBoolean completed = new AtomicBoolean();
+		
+		ParallelExecution(DalHints hints, DalRequest<T> request, boolean nullable, CompletableFuture<T> future) {
+			this.hints = hints;
+			this.request = request;
+			this.nullable = nullable;
+			this.future = future;
+		}
+		
+		void start() throws SQLException {
+			Map<String, Callable<T>> tasks = request.createTasks();
+			merger = request.getMerger();
+			remaining = new AtomicInteger(tasks.size());
+			
+			if(tasks.isEmpty()) {
+				merge();
+				return;
+			}
+			
+			ExecutorService executor = getExecutor(request);
+			for(final Map.Entry<String, Callable<T>> task: tasks.entrySet()) {
+				executor.execute(new Runnable() {
+					public void run() {
+						execute(task.getKey(), task.getValue());
+					}
+				});
+			}
+		}
+		
+		private void execute(String shard, Callable<T> task) {
+			// Already failed, skip the rest shards
+			if(completed.get())
+				return;
+			
+			try {
+				T partial = task.call();
+				synchronized (merger) {
+					merger.addPartial(shard, partial);
+				}
+			} catch (Throwable e) {
+				try {
+					hints.handleError("There is error during parallel execution: ", e);
+				} catch (Throwable error) {
+					finish(null, error);
+					return;
+				}
+			}
+			
+			if(remaining.decrementAndGet() == 0)
+				merge();
+		}
+		
+		private void merge() {
+			T result = null;
+			Throwable error = null;
+			try {
+				synchronized (merger) {
+					result = merger.merge();
+				}
+				
+				if(result == null && !nullable)
+					throw new DalException(ErrorCode.AssertNull);
+			} catch (Throwable e) {
+				error = e;
+			}
+			finish(result, error);
+		}
+		
+		private void finish(T result, Throwable error) {
+			if(completed.compareAndSet(false, true))
+				complete(hints, future, result, error);
+		}
+	}
 }
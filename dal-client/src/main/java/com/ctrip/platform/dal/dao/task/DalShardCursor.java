@@ -0,0 +1,178 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+
+import com.ctrip.platform.dal.dao.DalCursor;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.helper.DalRowStreamExtractor;
+import com.ctrip.platform.dal.exceptions.DalException;
+
+/**
+ * Cursor over rows streamed from one or more shards.
+ * 
+ * If there is no sorter in hints, shards are read one after another, so that only
+ * one connection is held at a time. Otherwise all shards are read at the same time
+ * and rows are merged by the sorter, which requires the rows of each shard are 
+ * already in the order of the sorter.
+ * 
+ * The connection of each shard is released as soon as all its rows are buffered. 
+ * 
+ * Each shard is read by its own daemon thread instead of the executor of the logic db.
+ * A reader blocks while its buffer is full, so running readers on a bounded pool
+ * would deadlock once there are more shards than pool threads.
+ */
+class DalShardCursor<T> implements DalCursor<T> {
+	private DalHints hints;
+	private Comparator<T> comparator;
+	private Map<String, Callable<Integer>> tasks;
+	private Map<String, DalRowStreamExtractor<T>> streams = new LinkedHashMap<>();
+	
+	// Read shard by shard
+	private Iterator<String> pendingShards;
+	private DalRowStreamExtractor<T> current;
+	
+	// Merge by sorter
+	private PriorityQueue<Head<T>> heads;
+	
+	private boolean closed;
+
+	@SuppressWarnings("unchecked")
+	DalShardCursor(DalHints hints, Map<String, Callable<Integer>> tasks, StreamQuerySqlTask<T> task) {
+		this.hints = hints;
+		this.tasks = tasks;
+		comparator = (Comparator<T>)hints.getSorter();
+		
+		// Streams must be ready before any shard is executed
+		for(String shard: tasks.keySet())
+			streams.put(shard, task.createStream(shard));
+
+		pendingShards = streams.keySet().iterator();
+	}
+
+	@Override
+	public boolean hasNext() throws SQLException {
+		if(closed)
+			return false;
+		
+		if(comparator != null)
+			return mergedHasNext();
+		
+		while(current == null || !current.hasNext()) {
+			if(current != null)
+				checkError(current);
+			
+			if(!pendingShards.hasNext())
+				return false;
+			
+			current = start(pendingShards.next());
+		}
+		return true;
+	}
+
+	@Override
+	public T next() throws SQLException {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		
+		if(comparator == null)
+			return current.next();
+		
+		Head<T> head = heads.poll();
+		advance(head.stream);
+		return head.row;
+	}
+
+	@Override
+	public void close() {
+		if(closed)
+			return;
+		
+		closed = true;
+		// Readers stop at the next row once their stream is closed
+		for(DalRowStreamExtractor<T> stream: streams.values())
+			stream.close();
+	}
+	
+	private boolean mergedHasNext() throws SQLException {
+		if(heads != null)
+			return !heads.isEmpty();
+		
+		heads = new PriorityQueue<>(Math.max(streams.size(), 1), new Comparator<Head<T>>() {
+			@Override
+			public int compare(Head<T> o1, Head<T> o2) {
+				return comparator.compare(o1.row, o2.row);
+			}
+		});
+		
+		while(pendingShards.hasNext())
+			start(pendingShards.next());
+		
+		for(DalRowStreamExtractor<T> stream: streams.values())
+			advance(stream);
+		
+		return !heads.isEmpty();
+	}
+	
+	private void advance(DalRowStreamExtractor<T> stream) throws SQLException {
+		if(stream.hasNext())
+			heads.add(new Head<>(stream, stream.next()));
+		else
+			checkError(stream);
+	}
+	
+	private DalRowStreamExtractor<T> start(String shard) throws SQLException {
+		final DalRowStreamExtractor<T> stream = streams.get(shard);
+		final Callable<Integer> task = tasks.get(shard);
+		
+		try {
+			Thread reader = new Thread(new Runnable() {
+				public void run() {
+					Throwable error = null;
+					try {
+						task.call();
+					} catch (Throwable e) {
+						error = e;
+					} finally {
+						stream.finish(error);
+					}
+				}
+			}, "DAL-Cursor-" + shard);
+			reader.setDaemon(true);
+			reader.start();
+		} catch (Throwable e) {
+			close();
+			throw DalException.wrap(e);
+		}
+		
+		return stream;
+	}
+	
+	private void checkError(DalRowStreamExtractor<T> stream) throws SQLException {
+		if(stream.getError() == null)
+			return;
+		
+		try {
+			hints.handleError("There is error during cursor execution: ", stream.getError());
+		} catch (SQLException e) {
+			close();
+			throw e;
+		}
+	}
+	
+	private static class Head<T> {
+		private DalRowStreamExtractor<T> stream;
+		private T row;
+		
+		private Head(DalRowStreamExtractor<T> stream, T row) {
+			this.stream = stream;
+			this.row = row;
+		}
+	}
+}
@@ -42,6 +42,11 @@ public class DalSingleTaskRequest<T> implements DalRequest<int[]>{
 		isList = true;
 	}
 	
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
 	@Override
 	public void validate() throws SQLException {
 		if(isList && null == rawPojos)
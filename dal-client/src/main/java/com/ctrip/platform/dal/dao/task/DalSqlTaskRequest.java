@@ -48,6 +48,11 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 		shards = getShards();
 	}
 	
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
 	@Override
 	public void validate() throws SQLException {
 		detectDistributedTransaction(shards);
@@ -148,8 +153,9 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 			if(!parameters.containsInParameter())
 				return;
 			
-			sql = SQLCompiler.compile(sql, parameters.getAllInParameters());
-			parameters.compile();
+			boolean bucketed = hints.is(DalHintEnum.inParameterBucketing);
+			sql = SQLCompiler.compile(sql, parameters.getAllInParameters(), bucketed);
+			parameters.compile(bucketed);
 		}
 
 		@Override
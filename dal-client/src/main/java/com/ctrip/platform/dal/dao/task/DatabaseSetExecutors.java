@@ -0,0 +1,271 @@
+package com.ctrip.platform.dal.dao.task;
+
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.DEFAULT_MAX_POOL_SIZE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.DEFAULT_MAX_QUEUE_SIZE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.EXECUTOR_MODE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.MAX_POOL_SIZE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.MAX_QUEUE_SIZE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.PLATFORM_THREAD_MODE;
+import static com.ctrip.platform.dal.dao.task.DalRequestExecutor.VIRTUAL_THREAD_MODE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.status.ExecutorStatus;
+
+/**
+ * Executors isolated by logic database, so that one busy database set can not use up
+ * the threads or queue needed by the others.
+ *
+ * Each executor grows up to maxPoolSize threads and then queues up to maxQueueSize tasks.
+ * When both are used up, the task is executed by the requesting thread.
+ *
+ * The pool and queue size can be overridden for each logic db by the setting of
+ * "maxPoolSize.logicDbName" and "maxQueueSize.logicDbName".
+ *
+ * Requests that do not tell their logic db share one executor with the global settings.
+ *
+ * If executorMode is "virtual", each task runs on a new virtual thread instead and
+ * pool and queue size are ignored. The concurrency is then only limited by the
+ * datasource pool. It falls back to platform thread pool if the JVM does not support
+ * virtual thread. The mode can also be overridden by "executorMode.logicDbName".
+ *
+ * Tasks do not inherit thread local state of the requesting thread in either mode.
+ * DalWatcher creates its recorder lazily for each thread and DalTransactionManager
+ * does not allow cross shard operation in transaction, so no state needs to be
+ * carried over. Per task virtual thread also avoids transaction state left by a
+ * failed task being seen by the next task on a pooled thread.
+ */
+class DatabaseSetExecutors {
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+	private static final String SHARED_EXECUTOR_NAME = "Shared";
+
+	private DalTaskFactory settings;
+	private Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+	private volatile ExecutorService sharedExecutor;
+
+	DatabaseSetExecutors(DalTaskFactory settings) {
+		this.settings = settings;
+	}
+
+	ExecutorService getExecutor(String logicDbName) {
+		if(logicDbName == null)
+			return getSharedExecutor();
+
+		ExecutorService executor = executors.get(logicDbName);
+		if(executor != null)
+			return executor;
+
+		synchronized (this) {
+			executor = executors.get(logicDbName);
+			if(executor != null)
+				return executor;
+
+			executor = create(logicDbName);
+			executors.put(logicDbName, executor);
+			return executor;
+		}
+	}
+
+	private ExecutorService getSharedExecutor() {
+		ExecutorService executor = sharedExecutor;
+		if(executor != null)
+			return executor;
+
+		synchronized (this) {
+			if(sharedExecutor == null)
+				sharedExecutor = create(SHARED_EXECUTOR_NAME);
+			return sharedExecutor;
+		}
+	}
+
+	synchronized void shutdown() {
+		for(ExecutorService executor: executors.values())
+			executor.shutdown();
+		executors.clear();
+
+		if(sharedExecutor != null)
+			sharedExecutor.shutdown();
+		sharedExecutor = null;
+	}
+
+	private ExecutorService create(String logicDbName) {
+		ExecutorStatus status = getStatus(logicDbName);
+		
+		String mode = getSetting(EXECUTOR_MODE, logicDbName);
+		if(VIRTUAL_THREAD_MODE.equalsIgnoreCase(mode)) {
+			ExecutorService executor = createVirtualThreadExecutor(logicDbName, status);
+			if(executor != null)
+				return executor;
+			
+			DalClientFactory.getDalLogger().warn("Virtual thread is not supported by current JVM. Use platform thread pool for " + logicDbName);
+		}
+		
+		return createThreadPoolExecutor(logicDbName, status);
+	}
+	
+	private ExecutorService createThreadPoolExecutor(String logicDbName, ExecutorStatus status) {
+		int maxPoolSize = getIntSetting(MAX_POOL_SIZE, logicDbName, DEFAULT_MAX_POOL_SIZE);
+		int maxQueueSize = getIntSetting(MAX_QUEUE_SIZE, logicDbName, DEFAULT_MAX_QUEUE_SIZE);
+
+		// Core size equals to max size, otherwise no thread is added before queue is full
+		DatabaseSetExecutor executor = new DatabaseSetExecutor(maxPoolSize, maxQueueSize, status);
+		executor.allowCoreThreadTimeOut(true);
+
+		status.setExecutor(executor, PLATFORM_THREAD_MODE);
+		return executor;
+	}
+	
+	/**
+	 * Virtual thread is only available since Java 21, so it is created by reflection.
+	 * @return null if virtual thread is not supported
+	 */
+	private ExecutorService createVirtualThreadExecutor(String logicDbName, ExecutorStatus status) {
+		ExecutorService delegate;
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "DAL-" + logicDbName + "-", 0L);
+			ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+			delegate = (ExecutorService)Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+		} catch (Throwable e) {
+			return null;
+		}
+		
+		ExecutorService executor = new VirtualThreadExecutor(delegate, status);
+		status.setExecutor(executor, VIRTUAL_THREAD_MODE);
+		return executor;
+	}
+
+	private ExecutorStatus getStatus(String logicDbName) {
+		ExecutorStatus status = DalStatusManager.getExecutorStatus(logicDbName);
+
+		// Not initialized or not configured in dal.xml. Metrics is collected but not exposed
+		return status == null ? new ExecutorStatus(logicDbName) : status;
+	}
+
+	private int getIntSetting(String key, String logicDbName, int defaultValue) {
+		String value = getSetting(key, logicDbName);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	private String getSetting(String key, String logicDbName) {
+		String value = getSetting(key + "." + logicDbName);
+		return value == null ? getSetting(key) : value;
+	}
+
+	private String getSetting(String key) {
+		return settings == null ? null : settings.getProperty(key);
+	}
+
+	private static class DatabaseSetExecutor extends ThreadPoolExecutor {
+		private ExecutorStatus status;
+
+		DatabaseSetExecutor(int maxPoolSize, int maxQueueSize, ExecutorStatus status) {
+			super(maxPoolSize, maxPoolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(maxQueueSize), new CallerRunsWhenBusy(status));
+			this.status = status;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			super.execute(new TimedRunnable(command, status));
+		}
+	}
+
+	private static class VirtualThreadExecutor extends AbstractExecutorService {
+		private ExecutorService delegate;
+		private ExecutorStatus status;
+
+		VirtualThreadExecutor(ExecutorService delegate, ExecutorStatus status) {
+			this.delegate = delegate;
+			this.status = status;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			delegate.execute(new TimedRunnable(command, status));
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+
+	private static class TimedRunnable implements Runnable {
+		private Runnable command;
+		private ExecutorStatus status;
+		private long submitTime;
+
+		TimedRunnable(Runnable command, ExecutorStatus status) {
+			this.command = command;
+			this.status = status;
+			submitTime = System.currentTimeMillis();
+		}
+
+		@Override
+		public void run() {
+			status.recordWait(System.currentTimeMillis() - submitTime);
+			status.taskStarted();
+			try {
+				command.run();
+			} finally {
+				status.taskFinished();
+			}
+		}
+	}
+
+	/**
+	 * Unlike ThreadPoolExecutor.CallerRunsPolicy, task is not silently discarded after shutdown.
+	 * Otherwise the requesting thread will wait forever for the result.
+	 */
+	private static class CallerRunsWhenBusy implements RejectedExecutionHandler {
+		private ExecutorStatus status;
+
+		CallerRunsWhenBusy(ExecutorStatus status) {
+			this.status = status;
+		}
+
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			if(executor.isShutdown())
+				throw new RejectedExecutionException("Executor for " + status.getName() + " is already shutdown");
+
+			status.recordCallerRuns();
+			r.run();
+		}
+	}
+}
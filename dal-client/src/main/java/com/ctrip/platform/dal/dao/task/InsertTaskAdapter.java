@@ -19,6 +19,8 @@ public class InsertTaskAdapter<T> extends TaskAdapter<T> {
 	protected String columnsForInsertWithId;
 	protected List<String> validColumnsForInsert;
 	protected List<String> validColumnsForInsertWithId;
+	protected int[] positionsForInsert;
+	protected int[] positionsForInsertWithId;
 
 	public void initialize(DalParser<T> parser) {
 		super.initialize(parser);
@@ -33,6 +35,9 @@ public class InsertTaskAdapter<T> extends TaskAdapter<T> {
 		validColumnsForInsert = buildValidColumnsForInsert();
 		validColumnsForInsertWithId = buildValidColumnsForInsertWithId();
 		
+		positionsForInsert = getColumnPositions(validColumnsForInsert);
+		positionsForInsertWithId = getColumnPositions(validColumnsForInsertWithId);
+		
 		columnsForInsert = combineColumns(validColumnsForInsert, COLUMN_SEPARATOR);
 		columnsForInsertWithId = combineColumns(validColumnsForInsertWithId, COLUMN_SEPARATOR);
 	}
@@ -2,11 +2,13 @@ package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang.StringUtils;
+import com.ctrip.platform.dal.dao.StatementParameters;
 
 public class SQLCompiler {
 	private static String regEx = null;
@@ -16,6 +18,15 @@ public class SQLCompiler {
 		 inRegxPattern = Pattern.compile(regEx);
 	}
 	
+	// Both caches are simply cleared when full, SQL templates of an application are limited
+	private static final int MAX_CACHE_SIZE = 1024;
+	
+	// SQL template to the plain parts around the IN clauses
+	private static final ConcurrentHashMap<String, String[]> plainsCache = new ConcurrentHashMap<>();
+	
+	// SQL template and bucketed IN parameter sizes to the compiled SQL
+	private static final ConcurrentHashMap<CompiledKey, String> compiledCache = new ConcurrentHashMap<>();
+	
 	/**
 	 * Combine the parameters into SQL according to the IN Keyword
 	 * TODO: Deal with the situation of null/empty of IN parameter specified;
@@ -28,36 +39,120 @@ public class SQLCompiler {
 	 * @throws SQLException
 	 */
 	public static String compile(String original, List<List<?>> parms) throws SQLException
+	{
+		return compile(original, parms, false);
+	}
+	
+	/**
+	 * Combine the parameters into SQL according to the IN Keyword.
+	 * 
+	 * If bucketed is true, the placeholder count of each IN clause is rounded up to
+	 * the next power of two. The same SQL template with different list sizes then
+	 * only produces a few distinct statements, which keeps the statement caches of
+	 * driver and database effective. The caller must pad the parameters the same way,
+	 * see StatementParameters.compile(boolean).
+	 * 
+	 * @param original
+	 * 		The original SQL Statement.
+	 * @param parms
+	 * 		The IN Parameter specified.
+	 * @param bucketed
+	 * 		Round placeholder count up to the bucket size
+	 * @return
+	 * 		Combined SQL
+	 * @throws SQLException
+	 */
+	public static String compile(String original, List<List<?>> parms, boolean bucketed) throws SQLException
 	{
 		if(null == parms || parms.size() == 0)
 			return original;
-		StringBuffer temp = new StringBuffer();
+		
+		String[] plains = getPlains(original);
+		if(plains.length != parms.size() + 1){
+			throw new SQLException(String.format("SQL Parser failed. The count of in parameters[%s] not match parameter count[%s]", 
+					plains.length - 1, parms.size()));
+		}
+		
+		int[] sizes = new int[parms.size()];
+		for (int i = 0; i < sizes.length; i++)
+			sizes[i] = bucketed ? StatementParameters.bucket(parms.get(i).size()) : parms.get(i).size();
+		
+		if(!bucketed)
+			return combine(plains, sizes);
+		
+		CompiledKey key = new CompiledKey(original, sizes);
+		String compiled = compiledCache.get(key);
+		if(compiled != null)
+			return compiled;
+
+		compiled = combine(plains, sizes);
+		if(compiledCache.size() >= MAX_CACHE_SIZE)
+			compiledCache.clear();
+		compiledCache.put(key, compiled);
+		return compiled;
+	}
+	
+	private static String[] getPlains(String original) {
+		String[] plains = plainsCache.get(original);
+		if(plains != null)
+			return plains;
+		
 		Matcher m = inRegxPattern.matcher(original);
-		List<String> plains = new ArrayList<String>();
+		List<String> parts = new ArrayList<String>();
 		int start = 0;
 		while(m.find(start))
     	{
-			plains.add(original.substring(start, m.start()));
+			parts.add(original.substring(start, m.start()));
 			start = m.end();		
     	}
-		plains.add(original.substring(start, original.length()));
-		
-		if(plains.size() != parms.size() + 1){
-			throw new SQLException(String.format("SQL Parser failed. The count of in parameters[%s] not match parameter count[%s]", 
-					plains.size() - 1, parms.size()));
-		}
+		parts.add(original.substring(start, original.length()));
+		plains = parts.toArray(new String[parts.size()]);
 		
+		if(plainsCache.size() >= MAX_CACHE_SIZE)
+			plainsCache.clear();
+		plainsCache.put(original, plains);
+		return plains;
+	}
+	
+	private static String combine(String[] plains, int[] sizes) {
+		StringBuilder temp = new StringBuilder();
 		int index = 0;
-		for (; index < parms.size(); index++) {
-			List<String> qus = new ArrayList<String>(parms.get(index).size());
-			for(int j = 0; j < parms.get(index).size(); j ++)
-				qus.add("?");
-			temp.append(plains.get(index))
-				.append(String.format("In (%s)", StringUtils.join(qus, ",")))
-				.append(" ");
+		for (; index < sizes.length; index++) {
+			temp.append(plains[index]).append("In (");
+			for(int j = 0; j < sizes[index]; j ++) {
+				if(j > 0)
+					temp.append(',');
+				temp.append('?');
+			}
+			temp.append(") ");
 		}
-		temp.append(plains.get(index));
+		temp.append(plains[index]);
 		
 		return temp.toString();
 	}
-}
\ No newline at end of file
+	
+	private static class CompiledKey {
+		private String sql;
+		private int[] sizes;
+		private int hash;
+		
+		private CompiledKey(String sql, int[] sizes) {
+			this.sql = sql;
+			this.sizes = sizes;
+			this.hash = sql.hashCode() * 31 + Arrays.hashCode(sizes);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof CompiledKey))
+				return false;
+			CompiledKey other = (CompiledKey)obj;
+			return sql.equals(other.sql) && Arrays.equals(sizes, other.sizes);
+		}
+	}
+}
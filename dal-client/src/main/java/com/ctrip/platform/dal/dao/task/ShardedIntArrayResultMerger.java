@@ -3,7 +3,6 @@ package com.ctrip.platform.dal.dao.task;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Can be used for both DB and Table shard
@@ -11,30 +10,53 @@ import java.util.TreeMap;
  *
  */
 public class ShardedIntArrayResultMerger implements BulkTaskResultMerger<int[]>{
-	private Map<String , Integer[]> indexByShard = new HashMap<>();
-	private Map<Integer, Integer> affectedRowsMap = new TreeMap<>();
+	private Map<String, int[]> indexByShard = new HashMap<>();
+	private Map<String, int[]> affectedRowsByShard = new HashMap<>();
 	
-	public void recordPartial(String shard, Integer[] partialIndex) {
+	public void recordPartial(String shard, int[] partialIndex) {
 		indexByShard.put(shard, partialIndex);
 	}
 	
 	@Override
 	public void addPartial(String shard, int[] affectedRows) throws SQLException {
-		Integer[] indexList = indexByShard.get(shard);
-		int i = 0;
-		for(Integer index: indexList)
-			affectedRowsMap.put(index, affectedRows[i++]);
+		affectedRowsByShard.put(shard, affectedRows);
 	}
 
+	/**
+	 * Scatter each partial to its original position and then squeeze out the positions
+	 * not belong to any partial. Index is never larger than the original pojo list.
+	 */
 	@Override
 	public int[] merge() throws SQLException {
+		int maxIndex = -1;
 		int count = 0;
+		for(String shard: affectedRowsByShard.keySet()) {
+			int[] indexList = indexByShard.get(shard);
+			count += indexList.length;
+			for(int index: indexList)
+				maxIndex = Math.max(maxIndex, index);
+		}
+		
+		int[] affectedRowsByIndex = new int[maxIndex + 1];
+		boolean[] filled = new boolean[maxIndex + 1];
+		for(Map.Entry<String, int[]> partial: affectedRowsByShard.entrySet()) {
+			int[] indexList = indexByShard.get(partial.getKey());
+			int[] affectedRows = partial.getValue();
+			for(int i = 0; i < indexList.length; i++) {
+				affectedRowsByIndex[indexList[i]] = affectedRows[i];
+				filled[indexList[i]] = true;
+			}
+		}
 		
-		int[] affectedRowsList = new int[affectedRowsMap.size()];
+		if(count == affectedRowsByIndex.length)
+			return affectedRowsByIndex;
 		
+		int[] affectedRowsList = new int[count];
 		int i = 0;
-		for(Integer affectedRows: affectedRowsMap.values())
-			affectedRowsList[i++] = affectedRows;
+		for(int index = 0; index < filled.length; index++) {
+			if(filled[index])
+				affectedRowsList[i++] = affectedRowsByIndex[index];
+		}
 		
 		return affectedRowsList;
 	}
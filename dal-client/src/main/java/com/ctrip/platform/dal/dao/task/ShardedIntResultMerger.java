@@ -10,7 +10,7 @@ import java.sql.SQLException;
 public class ShardedIntResultMerger implements BulkTaskResultMerger<Integer>{
 	private int total;
 	
-	public void recordPartial(String shard, Integer[] partialIndex) {
+	public void recordPartial(String shard, int[] partialIndex) {
 	}
 	
 	@Override
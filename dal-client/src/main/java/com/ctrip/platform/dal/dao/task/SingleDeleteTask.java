@@ -11,7 +11,7 @@ public class SingleDeleteTask<T> extends TaskAdapter<T> implements SingleTask<T>
 
 	@Override
 	public int execute(DalHints hints, Map<String, ?> fields) throws SQLException {
-		StatementParameters parameters = new StatementParameters();
+		StatementParameters parameters = new StatementParameters(parser.getPrimaryKeyNames().length);
 		addParameters(parameters, fields, parser.getPrimaryKeyNames());
 		String deleteSql = buildDeleteSql(getTableName(hints, parameters, fields));
 
@@ -19,6 +19,7 @@ public class SingleDeleteTask<T> extends TaskAdapter<T> implements SingleTask<T>
 	}
 
 	private String buildDeleteSql(String tableName) {
-		return String.format(TMPL_SQL_DELETE, tableName, pkSql);
+		String sql = sqlCache.get(tableName, 0, null);
+		return sql != null ? sql : sqlCache.put(tableName, 0, null, String.format(TMPL_SQL_DELETE, tableName, pkSql));
 	}
 }
@@ -0,0 +1,44 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.ArrayList;
+
+import com.ctrip.platform.dal.dao.StatementParameters;
+
+/**
+ * Per thread pool of parameter containers for batch tasks. A batch task acquires one
+ * container per pojo, executes the batch on the same thread and releases them in finally.
+ * This is safe because batch execution only logs the parameters as strings. Parameters
+ * of a single statement are kept in hints by ConnectionAction, so they are never pooled.
+ */
+class StatementParametersPool {
+	private static final int MAX_POOLED = 1024;
+
+	private static final ThreadLocal<ArrayList<StatementParameters>> pool = new ThreadLocal<ArrayList<StatementParameters>>() {
+		@Override
+		protected ArrayList<StatementParameters> initialValue() {
+			return new ArrayList<>();
+		}
+	};
+
+	public static StatementParameters[] acquire(int count, int expectedSize) {
+		ArrayList<StatementParameters> pooled = pool.get();
+		StatementParameters[] parametersList = new StatementParameters[count];
+		for (int i = 0; i < count; i++)
+			parametersList[i] = pooled.isEmpty() ? new StatementParameters(expectedSize) : pooled.remove(pooled.size() - 1);
+
+		return parametersList;
+	}
+
+	/**
+	 * Reset the containers and keep them for the next batch of this thread. The caller
+	 * must not use them afterwards.
+	 */
+	public static void release(StatementParameters[] parametersList) {
+		ArrayList<StatementParameters> pooled = pool.get();
+		for (StatementParameters parameters: parametersList) {
+			if(pooled.size() >= MAX_POOLED)
+				return;
+			pooled.add(parameters.reset());
+		}
+	}
+}
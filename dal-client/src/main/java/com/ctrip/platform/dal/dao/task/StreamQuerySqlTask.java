@@ -0,0 +1,70 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.DalClient;
+import com.ctrip.platform.dal.dao.DalHintEnum;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalRowStreamExtractor;
+
+/**
+ * Query task that streams rows of each shard to the cursor. The stream of each
+ * shard is created by the cursor before the shard is executed.
+ * 
+ * MySQL driver reads the whole result into memory for a positive fetch size unless
+ * useCursorFetch=true is in the url. So for MySQL the statement is executed with fetch
+ * size Integer.MIN_VALUE, which makes the driver return rows one by one.
+ */
+public class StreamQuerySqlTask<T> implements SqlTask<Integer> {
+	public static final int DEFAULT_BUFFER_SIZE = 1000;
+	public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+	
+	private DalRowMapper<T> mapper;
+	private int bufferSize;
+	private boolean mySqlStreaming;
+	private Map<String, DalRowStreamExtractor<T>> streams = new ConcurrentHashMap<>();
+	
+	/**
+	 * The rows buffered for each shard is the fetchSize in hints, or DEFAULT_BUFFER_SIZE if not set.
+	 * The fetchSize is passed to the driver as is.
+	 */
+	public StreamQuerySqlTask(DalRowMapper<T> mapper, DalHints hints) {
+		this(mapper, hints, null);
+	}
+	
+	/**
+	 * The rows buffered for each shard is the fetchSize in hints, or DEFAULT_BUFFER_SIZE if not set.
+	 * 
+	 * @param dbCategory for MySql the driver streams rows, for others the fetchSize is passed to the driver
+	 */
+	public StreamQuerySqlTask(DalRowMapper<T> mapper, DalHints hints, DatabaseCategory dbCategory) {
+		this.mapper = mapper;
+		int fetchSize = hints.getInt(DalHintEnum.fetchSize, 0);
+		bufferSize = fetchSize > 0 ? fetchSize : DEFAULT_BUFFER_SIZE;
+		mySqlStreaming = dbCategory == DatabaseCategory.MySql;
+	}
+	
+	DalRowStreamExtractor<T> createStream(String shard) {
+		DalRowStreamExtractor<T> stream = new DalRowStreamExtractor<>(mapper, bufferSize);
+		streams.put(shard, stream);
+		return stream;
+	}
+	
+	@Override
+	public Integer execute(DalClient client, String sql, StatementParameters parameters, DalHints hints) throws SQLException {
+		// For non cross shard case, there is only one stream
+		DalRowStreamExtractor<T> stream = streams.size() == 1 ?
+				streams.values().iterator().next() :
+				streams.get(hints.getShardId());
+		
+		if(mySqlStreaming)
+			hints = hints.clone().fetchSize(MYSQL_STREAMING_FETCH_SIZE);
+		
+		return client.query(sql, parameters, hints, stream);
+	}
+}
@@ -7,14 +7,13 @@ import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.locateTableSha
 
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +26,8 @@ import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalParser;
 import com.ctrip.platform.dal.dao.DalQueryDao;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
+import com.ctrip.platform.dal.dao.helper.PositionalFields;
 
 public class TaskAdapter<T> implements DaoTask<T> {
 	public static final String GENERATED_KEY = "GENERATED_KEY";
@@ -52,6 +53,9 @@ public class TaskAdapter<T> implements DaoTask<T> {
 	protected Set<String> pkColumns;
 	protected Set<String> sensitiveColumns;
 	protected Map<String, Integer> columnTypes = new HashMap<String, Integer>();
+	// Aligned with parser column names
+	protected int[] columnTypeArray;
+	protected boolean[] sensitiveFlags;
 	
 	protected String updateCriteriaTmpl;
 	protected String setValueTmpl;
@@ -63,6 +67,8 @@ public class TaskAdapter<T> implements DaoTask<T> {
 	
 	public boolean tableShardingEnabled;
 	protected String rawTableName;
+	
+	CompiledSqlCache sqlCache = new CompiledSqlCache();
 
 	public void initialize(DalParser<T> parser) {
 		this.client = DalClientFactory.getClient(parser.getDatabaseName());
@@ -199,6 +205,25 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		return count;
 	}
 	
+	/**
+	 * Same as addParameters(start, parameters, entries, validColumns). If entries is
+	 * positional fields of the parser, values are read by position, no column name
+	 * is hashed.
+	 * 
+	 * @param positions positions of validColumns, created by getColumnPositions
+	 */
+	public int addParameters(int start, StatementParameters parameters,
+			Map<String, ?> entries, List<String> validColumns, int[] positions) {
+		if(positions == null || !isPositional(entries))
+			return addParameters(start, parameters, entries, validColumns);
+		
+		PositionalFields fields = (PositionalFields)entries;
+		for(int i = 0; i < positions.length; i++)
+			addParameterAt(parameters, start + i, positions[i], fields.getAt(positions[i]));
+		
+		return positions.length;
+	}
+	
 	/**
 	 * Add all the entries into the parameters by name. The parameter name will
 	 * be the entry key, value will be entry value. The value can be null. This
@@ -236,6 +261,14 @@ public class TaskAdapter<T> implements DaoTask<T> {
 			parameters.set(index, columnName, getColumnType(columnName), value);
 	}
 
+	private void addParameterAt(StatementParameters parameters, int index, int position, Object value) {
+		String columnName = parser.getColumnNames()[position];
+		if(sensitiveFlags[position])
+			parameters.setSensitive(index, columnName, columnTypeArray[position], value);
+		else
+			parameters.set(index, columnName, columnTypeArray[position], value);
+	}
+
 	private void addParameter(StatementParameters parameters, String columnName, Object value) {
 		if(isSensitive(columnName))
 			parameters.setSensitive(columnName, getColumnType(columnName), value);
@@ -253,6 +286,26 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		return columnTypes.get(columnName);
 	}
 
+	/**
+	 * @return positions of the columns in parser column names, null if any of them is not found
+	 */
+	public int[] getColumnPositions(Collection<String> columns) {
+		List<String> columnNames = Arrays.asList(parser.getColumnNames());
+		int[] positions = new int[columns.size()];
+		int i = 0;
+		for(String column: columns) {
+			int position = columnNames.indexOf(column);
+			if(position < 0)
+				return null;
+			positions[i++] = position;
+		}
+		return positions;
+	}
+	
+	public boolean isPositional(Map<String, ?> fields) {
+		return fields instanceof PositionalFields && ((PositionalFields)fields).isAlignedWith(parser.getColumnNames());
+	}
+
 	/**
 	 * Remove all the null value in the given map.
 	 * 
@@ -268,7 +321,8 @@ public class TaskAdapter<T> implements DaoTask<T> {
 	}
 
 	public Set<String> filterColumns(DalHints hints) {
-		Set<String> qulifiedColumns = new HashSet<>(defaultUpdateColumnNames);
+		// Keep the column order stable, so that the same columns always build the same sql
+		Set<String> qulifiedColumns = new LinkedHashSet<>(defaultUpdateColumnNames);
 		if(hints.is(DalHintEnum.includedColumns))
 			qulifiedColumns.retainAll(hints.getIncluded());
 			
@@ -296,7 +350,8 @@ public class TaskAdapter<T> implements DaoTask<T> {
 	}
 	
 	public List<Map<String, ?>> getPojosFields(List<T> daoPojos) {
-		List<Map<String, ?>> pojoFields = new LinkedList<Map<String, ?>>();
+		// Shuffle accesses pojo by position
+		List<Map<String, ?>> pojoFields = new ArrayList<Map<String, ?>>(daoPojos == null ? 0 : daoPojos.size());
 		if (null == daoPojos || daoPojos.size() < 1)
 			return pojoFields;
 		
@@ -307,11 +362,11 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		return pojoFields;
 	}
 	
-	public Map<Integer, Map<String, ?>> getPojosFieldsMap(List<T> daoPojos) {
-		Map<Integer, Map<String, ?>> daoPojosMaps = new LinkedHashMap<>();
-		for(int i = 0; i < daoPojos.size(); i ++) 
-			daoPojosMaps.put(i, parser.getFields(daoPojos.get(i)));
-		return daoPojosMaps;
+	/**
+	 * @return partition of all the pojos, for executing bulk task without shuffling
+	 */
+	public DalPojoPartition getPojosPartition(List<T> daoPojos) {
+		return new DalPojoPartition(getPojosFields(daoPojos));
 	}
 
 
@@ -340,6 +395,11 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		sensitiveColumns = new HashSet<String>();
 		if(parser.getSensitiveColumnNames() != null)
 			Collections.addAll(sensitiveColumns, parser.getSensitiveColumnNames());
+		
+		String[] columnNames = parser.getColumnNames();
+		sensitiveFlags = new boolean[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++)
+			sensitiveFlags[i] = sensitiveColumns.contains(columnNames[i]);
 	}
 
 	// Build a lookup table
@@ -349,6 +409,7 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		for (int i = 0; i < cloumnNames.length; i++) {
 			columnTypes.put(cloumnNames[i], columnsTypes[i]);
 		}
+		columnTypeArray = columnsTypes;
 	}
 	
 	public Map<String, ?> getPrimaryKeys(Map<String, ?> fields) {
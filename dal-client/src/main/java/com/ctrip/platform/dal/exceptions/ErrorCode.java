@@ -66,6 +66,11 @@ public enum ErrorCode {
 	 */
 	FieldNotExists(ErrorClassify.Validate, 5106, "There is no field defined in pojo %s for column %s."),
 	
+	/**
+	 * %s generated keys are returned for %s inserted pojos
+	 */
+	ValidateKeyHolderPartialSize(ErrorClassify.Validate, 5107, "%s generated keys are returned for %s inserted pojos"),
+	
 	/**
 	 * Sql cannot be null
 	 */
@@ -146,6 +151,16 @@ public enum ErrorCode {
 	 */
 	TransactionNoFound(ErrorClassify.Transaction, 5604, "There is no transaction found"),
 	
+	/**
+	 * Cross shard execution is not completed in %d milliseconds. Shards not completed: %s
+	 */
+	CrossShardTimeout(ErrorClassify.Statement, 5400, "Cross shard execution is not completed in %d milliseconds. Shards not completed: %s"),
+	
+	/**
+	 * The statement is cancelled because the execution is timed out
+	 */
+	StatementCancelled(ErrorClassify.Statement, 5401, "The statement is cancelled because the execution is timed out"),
+	
 	/**
 	 * Can not get connection from DB %s
 	 */
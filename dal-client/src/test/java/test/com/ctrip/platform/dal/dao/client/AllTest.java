@@ -13,6 +13,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	DalTransactionTest.class,
 	DalShardingHelperTest.class,
 	DalConfigureFactoryTest.class,
+	DalStatementCreatorTest.class,
+	DalStatementCacheTest.class,
+	DalStatementCancellerTest.class,
 })
 public class AllTest {
 
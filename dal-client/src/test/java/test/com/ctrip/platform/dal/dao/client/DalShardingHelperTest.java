@@ -24,6 +24,7 @@ import com.ctrip.platform.dal.dao.DalCommand;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.client.DalTransactionManager;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.dao.helper.DalShardingHelper;
 
 public class DalShardingHelperTest {
@@ -127,7 +128,7 @@ public class DalShardingHelperTest {
 		// Test by pojos
 		try {
 			shardId = null;
-			Map<String, Map<Integer, Map<String, ?>>> shuffled = DalShardingHelper.shuffle(logicDbName, shardId, daoPojos);
+			Map<String, DalPojoPartition> shuffled = DalShardingHelper.shuffle(logicDbName, shardId, daoPojos);
 			assertEquals(2, shuffled.size());
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -137,7 +138,7 @@ public class DalShardingHelperTest {
 		// Test preset shardid
 		try {
 			shardId = "0";
-			Map<String, Map<Integer, Map<String, ?>>> shuffled = DalShardingHelper.shuffle(logicDbName, shardId, daoPojos);
+			Map<String, DalPojoPartition> shuffled = DalShardingHelper.shuffle(logicDbName, shardId, daoPojos);
 			assertEquals(1, shuffled.size());
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -192,15 +193,17 @@ public class DalShardingHelperTest {
 	@Test
 	public void testShuffleByTable() {
 		final String logicDbName = "dao_test_sqlsvr_tableShard";//tableColumns=index,tableIndex;tableMod=4;separator=_;shardedTables=dal_client_test
-		final Map<Integer, Map<String, ?>> daoPojos = new HashMap<>();
+		final List<Map<String, ?>> pojoList = new ArrayList<>();
 		
 		Map<String, Object> pojo = new HashMap<>();
 		pojo.put("index", 0);
-		daoPojos.put(0, pojo);
+		pojoList.add(pojo);
 		
 		pojo = new HashMap<>();
 		pojo.put("index", 1);
-		daoPojos.put(1, pojo);
+		pojoList.add(pojo);
+		
+		DalPojoPartition daoPojos = new DalPojoPartition(pojoList);
 		
 
 		try {
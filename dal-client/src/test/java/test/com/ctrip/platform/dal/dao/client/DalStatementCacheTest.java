@@ -0,0 +1,200 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.client.DalStatementCache;
+import com.ctrip.platform.dal.dao.client.DalStatementCanceller;
+import com.ctrip.platform.dal.dao.client.DalStatementCreator;
+import com.ctrip.platform.dal.dao.configure.DalConfigureFactory;
+import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.status.StatementCacheStatus;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalStatementCacheTest {
+	private AtomicInteger prepared = new AtomicInteger();
+	private AtomicInteger closed = new AtomicInteger();
+	private AtomicInteger cancelled = new AtomicInteger();
+	
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		DalStatusManager.initialize(DalConfigureFactory.load());
+	}
+	
+	@Before
+	public void setUp() {
+		StatementCacheStatus status = DalStatusManager.getStatementCacheStatus();
+		status.setEnabled(true);
+		status.setMaxSize(2);
+	}
+	
+	@After
+	public void tearDown() {
+		DalStatusManager.getStatementCacheStatus().setEnabled(false);
+	}
+	
+	private Connection createConnection() {
+		return JdbcStubs.connection(new Callable<PreparedStatement>() {
+			@Override
+			public PreparedStatement call() {
+				prepared.incrementAndGet();
+				return JdbcStubs.statement(PreparedStatement.class, closed, cancelled);
+			}
+		});
+	}
+	
+	private PreparedStatement prepare(Connection conn, String sql) throws Exception {
+		return DalStatementCache.of(conn).prepare(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+	}
+	
+	@Test
+	public void testReuse() throws Exception {
+		Connection conn = createConnection();
+		StatementCacheStatus status = DalStatusManager.getStatementCacheStatus();
+		long hit = status.getHitCount();
+		
+		PreparedStatement statement = prepare(conn, "select 1");
+		assertTrue(DalStatementCache.release(statement));
+		assertSame(statement, prepare(conn, "select 1"));
+		assertEquals(1, prepared.get());
+		assertEquals(hit + 1, status.getHitCount());
+		
+		// In use, a new one is created and not cached
+		PreparedStatement second = prepare(conn, "select 1");
+		assertNotSame(statement, second);
+		assertFalse(DalStatementCache.release(second));
+		assertTrue(DalStatementCache.release(statement));
+		
+		// Different result set type
+		DalStatementCache.release(DalStatementCache.of(conn).prepare("select 1", Statement.RETURN_GENERATED_KEYS));
+		assertEquals(3, prepared.get());
+	}
+	
+	@Test
+	public void testEvict() throws Exception {
+		Connection conn = createConnection();
+		StatementCacheStatus status = DalStatusManager.getStatementCacheStatus();
+		long evicted = status.getEvictionCount();
+		
+		DalStatementCache.release(prepare(conn, "select 1"));
+		DalStatementCache.release(prepare(conn, "select 2"));
+		DalStatementCache.release(prepare(conn, "select 1"));
+		DalStatementCache.release(prepare(conn, "select 3"));
+		
+		assertEquals(2, DalStatementCache.of(conn).size());
+		assertEquals(evicted + 1, status.getEvictionCount());
+		assertEquals(1, closed.get());
+		
+		// select 1 is recently used, select 2 is evicted
+		DalStatementCache.release(prepare(conn, "select 1"));
+		assertEquals(3, prepared.get());
+		DalStatementCache.release(prepare(conn, "select 2"));
+		assertEquals(4, prepared.get());
+	}
+	
+	@Test
+	public void testSkipEvictInUse() throws Exception {
+		Connection conn = createConnection();
+		PreparedStatement statement = prepare(conn, "select 1");
+		DalStatementCache.release(prepare(conn, "select 2"));
+		DalStatementCache.release(prepare(conn, "select 3"));
+		
+		assertEquals(2, DalStatementCache.of(conn).size());
+		assertEquals(1, closed.get());
+		assertTrue(DalStatementCache.release(statement));
+	}
+	
+	@Test
+	public void testReleasedNotCancelled() throws Exception {
+		Connection conn = createConnection();
+		PreparedStatement statement = prepare(conn, "select 1");
+		DalStatementCanceller canceller = new DalStatementCanceller();
+		canceller.register(statement);
+		
+		// Released statement may be borrowed by other request, cancel must not touch it
+		assertTrue(DalStatementCache.release(statement));
+		assertSame(statement, prepare(conn, "select 1"));
+		canceller.cancel();
+		assertEquals(0, cancelled.get());
+		assertTrue(DalStatementCache.release(statement));
+	}
+	
+	@Test
+	public void testPurgeClosed() throws Exception {
+		final AtomicBoolean connClosed = new AtomicBoolean();
+		for(int i = 0; i < 100; i++) {
+			Connection conn = JdbcStubs.stub(Connection.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if(method.getName().equals("isClosed"))
+						return connClosed.get();
+					return JdbcStubs.statement(PreparedStatement.class, closed, cancelled);
+				}
+			});
+			assertTrue(DalStatementCache.release(prepare(conn, "select 1")));
+		}
+		
+		connClosed.set(true);
+		int count = DalStatementCache.getCacheCount();
+		assertTrue(count >= 100);
+		
+		// Purged once the cache count doubles, not on every new connection
+		for(int i = 0; i < count && closed.get() == 0; i++)
+			prepare(createConnection(), "select 1");
+		assertEquals(100, closed.get());
+		assertTrue(DalStatementCache.getCacheCount() < count);
+	}
+	
+	@Test
+	public void testFetchSizeOfReusedStatement() throws Exception {
+		final List<Integer> fetchSizes = new ArrayList<>();
+		Connection conn = JdbcStubs.connection(new Callable<PreparedStatement>() {
+			@Override
+			public PreparedStatement call() {
+				prepared.incrementAndGet();
+				return JdbcStubs.stub(PreparedStatement.class, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if(method.getName().equals("setFetchSize"))
+							fetchSizes.add((Integer)args[0]);
+						return null;
+					}
+				});
+			}
+		});
+		
+		DalStatementCreator creator = new DalStatementCreator();
+		StatementParameters parameters = new StatementParameters();
+		PreparedStatement statement = creator.createPreparedStatement(conn, "select 1", parameters, new DalHints().fetchSize(Integer.MIN_VALUE));
+		DalStatementCache.release(statement);
+		
+		PreparedStatement reused = creator.createPreparedStatement(conn, "select 1", parameters, new DalHints().fetchSize(Integer.MIN_VALUE));
+		assertSame(statement, reused);
+		DalStatementCache.release(reused);
+		
+		// Query without fetch size gets the statement reset by release
+		creator.createPreparedStatement(conn, "select 1", parameters, new DalHints());
+		assertEquals(Arrays.asList(Integer.MIN_VALUE, 0, Integer.MIN_VALUE, 0), fetchSizes);
+		assertEquals(1, prepared.get());
+	}
+}
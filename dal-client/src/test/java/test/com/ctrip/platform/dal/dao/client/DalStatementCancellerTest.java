@@ -0,0 +1,62 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.DalStatementCanceller;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalStatementCancellerTest {
+	private AtomicInteger cancelled = new AtomicInteger();
+	private AtomicInteger closed = new AtomicInteger();
+	
+	private Statement createStatement() {
+		return JdbcStubs.statement(Statement.class, closed, cancelled);
+	}
+	
+	@Test
+	public void testCancel() throws Exception {
+		DalStatementCanceller canceller = new DalStatementCanceller();
+		canceller.register(createStatement());
+		canceller.register(createStatement());
+		
+		canceller.cancel();
+		assertTrue(canceller.isCancelled());
+		assertEquals(2, cancelled.get());
+	}
+	
+	@Test
+	public void testUnregister() throws Exception {
+		DalStatementCanceller canceller = new DalStatementCanceller();
+		Statement completed = createStatement();
+		canceller.register(completed);
+		canceller.register(createStatement());
+		
+		// Completed statement is not cancelled
+		DalStatementCanceller.unregister(completed);
+		canceller.cancel();
+		assertEquals(1, cancelled.get());
+	}
+	
+	@Test
+	public void testRegisterAfterCancel() throws Exception {
+		DalStatementCanceller canceller = new DalStatementCanceller();
+		canceller.cancel();
+		
+		try {
+			canceller.register(createStatement());
+			fail();
+		} catch (SQLException e) {
+		}
+		assertEquals(1, closed.get());
+		assertEquals(0, cancelled.get());
+	}
+}
@@ -0,0 +1,75 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.client.DalStatementCreator;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalStatementCreatorTest {
+	private List<String> calls = new ArrayList<>();
+	
+	private Connection createConnection() {
+		final PreparedStatement statement = JdbcStubs.stub(PreparedStatement.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().startsWith("set") && args.length > 1 && args[0] instanceof Integer)
+					calls.add(method.getName() + ":" + args[0]);
+				return null;
+			}
+		});
+		
+		return JdbcStubs.connection(new Callable<PreparedStatement>() {
+			@Override
+			public PreparedStatement call() {
+				return statement;
+			}
+		});
+	}
+	
+	@Test
+	public void testTypedSetter() throws Exception {
+		StatementParameters parameters = new StatementParameters();
+		parameters.set(1, Types.BIGINT, 1L);
+		parameters.set(2, Types.INTEGER, 1);
+		parameters.set(3, Types.VARCHAR, "a");
+		parameters.set(4, Types.TIMESTAMP, new Timestamp(0));
+		parameters.set(5, Types.DECIMAL, BigDecimal.ONE);
+		parameters.set(6, Types.DOUBLE, 1.0);
+		parameters.set(7, Types.BIT, true);
+		parameters.set(8, Types.INTEGER, null);
+		
+		new DalStatementCreator().createPreparedStatement(createConnection(), "", parameters, new DalHints().timeout(1));
+		
+		String[] expected = new String[]{"setLong:1", "setInt:2", "setString:3", "setTimestamp:4", "setBigDecimal:5", "setDouble:6", "setBoolean:7", "setNull:8"};
+		assertArrayEquals(expected, calls.toArray());
+	}
+	
+	@Test
+	public void testFallbackToSetObject() throws Exception {
+		StatementParameters parameters = new StatementParameters();
+		parameters.set(1, Types.BIGINT, "1");
+		parameters.set(2, Types.NVARCHAR, "a");
+		parameters.set(3, 1);
+		
+		new DalStatementCreator().createPreparedStatement(createConnection(), "", parameters, new DalHints().timeout(1));
+		
+		String[] expected = new String[]{"setObject:1", "setObject:2", "setObject:3"};
+		assertArrayEquals(expected, calls.toArray());
+	}
+}
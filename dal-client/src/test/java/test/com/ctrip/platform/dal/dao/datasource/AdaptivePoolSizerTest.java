@@ -0,0 +1,185 @@
+package test.com.ctrip.platform.dal.dao.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.junit.After;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.datasource.AdaptivePoolSizer;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class AdaptivePoolSizerTest {
+	private static final String NAME = "adaptive_sizer_test";
+
+	private List<DataSource> dataSources = new ArrayList<>();
+	private List<Connection> borrowed = new ArrayList<>();
+
+	/**
+	 * Real tomcat pool that creates in memory connections
+	 */
+	private DataSource createDataSource(int maxActive) {
+		PoolProperties p = new PoolProperties();
+		p.setDataSource(JdbcStubs.stub(javax.sql.DataSource.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("getConnection"))
+					return JdbcStubs.stub(Connection.class, new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							return null;
+						}
+					});
+				return null;
+			}
+		}));
+		// No connection is created until borrowed
+		p.setInitialSize(0);
+		p.setMinIdle(0);
+		p.setMaxIdle(maxActive);
+		p.setMaxActive(maxActive);
+		p.setMaxWait(100);
+		DataSource ds = new DataSource(p);
+		dataSources.add(ds);
+		return ds;
+	}
+
+	private void borrowUpTo(DataSource ds, int count) throws Exception {
+		while(borrowed.size() < count)
+			borrowed.add(ds.getConnection());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		AdaptivePoolSizer.unregister(NAME);
+		for(Connection conn: borrowed)
+			conn.close();
+		for(DataSource ds: dataSources)
+			ds.close(true);
+	}
+
+	@Test
+	public void testBounds() throws Exception {
+		DataSource ds = createDataSource(20);
+		AdaptivePoolSizer.register(NAME, ds, null, null);
+		Assert.assertEquals(10, AdaptivePoolSizer.get(NAME).getMinActive());
+		Assert.assertEquals(20, AdaptivePoolSizer.get(NAME).getMaxActive());
+
+		AdaptivePoolSizer.register(NAME, ds, 5, 15);
+		Assert.assertEquals(5, AdaptivePoolSizer.get(NAME).getMinActive());
+		Assert.assertEquals(15, AdaptivePoolSizer.get(NAME).getMaxActive());
+
+		// Limited to the maxActive the pool is created with
+		AdaptivePoolSizer.register(NAME, ds, 5, 30);
+		Assert.assertEquals(20, AdaptivePoolSizer.get(NAME).getMaxActive());
+
+		AdaptivePoolSizer.unregister(NAME);
+		Assert.assertNull(AdaptivePoolSizer.get(NAME));
+	}
+
+	@Test
+	public void testGrowOnWait() throws Exception {
+		DataSource ds = createDataSource(8);
+		AdaptivePoolSizer.register(NAME, ds, 2, null);
+		AdaptivePoolSizer sizer = AdaptivePoolSizer.get(NAME);
+		// Shrunk before
+		ds.setMaxActive(4);
+
+		int[] expected = new int[]{5, 6, 7, 8, 8};
+		for(int max: expected) {
+			// All connections are in use
+			borrowUpTo(ds, ds.getMaxActive());
+			for(int i = 0; i < 10; i++)
+				AdaptivePoolSizer.recordBorrow(NAME, 20 * 1000000L);
+			sizer.check();
+			Assert.assertEquals(max, ds.getMaxActive());
+		}
+
+		// Connections borrowed above the size the pool was shrunk to are still tracked
+		borrowUpTo(ds, 8);
+		Assert.assertEquals(8, ds.getActive());
+		Assert.assertEquals(8, ds.getSize());
+
+		for(Connection conn: borrowed)
+			conn.close();
+		borrowed.clear();
+
+		// Returned connections are kept by the pool, not released as unknown
+		Assert.assertEquals(0, ds.getActive());
+		Assert.assertEquals(8, ds.getIdle());
+		Assert.assertEquals(8, ds.getSize());
+	}
+
+	@Test
+	public void testNoGrowBeyondCapacity() throws Exception {
+		DataSource ds = createDataSource(4);
+		AdaptivePoolSizer.register(NAME, ds, 2, 100);
+		AdaptivePoolSizer sizer = AdaptivePoolSizer.get(NAME);
+
+		borrowUpTo(ds, 4);
+		for(int i = 0; i < 10; i++)
+			AdaptivePoolSizer.recordBorrow(NAME, 20 * 1000000L);
+		sizer.check();
+		Assert.assertEquals(4, ds.getMaxActive());
+		Assert.assertEquals(4, ds.getActive());
+	}
+
+	@Test
+	public void testNoGrowWhenNotSaturated() throws Exception {
+		DataSource ds = createDataSource(20);
+		AdaptivePoolSizer.register(NAME, ds, 5, null);
+		AdaptivePoolSizer sizer = AdaptivePoolSizer.get(NAME);
+		ds.setMaxActive(10);
+
+		// Slow borrow of a cold pool is spent on connecting, not waiting for a free connection
+		borrowUpTo(ds, 2);
+		for(int i = 0; i < 10; i++)
+			AdaptivePoolSizer.recordBorrow(NAME, 50 * 1000000L);
+		sizer.check();
+		Assert.assertEquals(10, ds.getMaxActive());
+	}
+
+	@Test
+	public void testNoChangeWithoutWait() throws Exception {
+		DataSource ds = createDataSource(20);
+		AdaptivePoolSizer.register(NAME, ds, 5, 40);
+		AdaptivePoolSizer sizer = AdaptivePoolSizer.get(NAME);
+
+		for(int i = 0; i < 10; i++)
+			AdaptivePoolSizer.recordBorrow(NAME, 1000000L);
+		sizer.check();
+		Assert.assertEquals(20, ds.getMaxActive());
+	}
+
+	@Test
+	public void testShrinkWhenIdle() throws Exception {
+		DataSource ds = createDataSource(20);
+		AdaptivePoolSizer.register(NAME, ds, 12, 40);
+		AdaptivePoolSizer sizer = AdaptivePoolSizer.get(NAME);
+
+		for(int i = 1; i < AdaptivePoolSizer.SHRINK_CHECKS; i++) {
+			sizer.check();
+			Assert.assertEquals(20, ds.getMaxActive());
+		}
+		sizer.check();
+		Assert.assertEquals(15, ds.getMaxActive());
+		Assert.assertEquals(15, ds.getMaxIdle());
+
+		for(int i = 0; i < AdaptivePoolSizer.SHRINK_CHECKS; i++)
+			sizer.check();
+		// Not below the lower bound
+		Assert.assertEquals(12, ds.getMaxActive());
+
+		for(int i = 0; i < AdaptivePoolSizer.SHRINK_CHECKS * 2; i++)
+			sizer.check();
+		Assert.assertEquals(12, ds.getMaxActive());
+	}
+}
@@ -0,0 +1,235 @@
+package test.com.ctrip.platform.dal.dao.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import com.ctrip.platform.dal.dao.configure.DataSourceConfigure;
+import com.ctrip.platform.dal.dao.configure.DataSourceConfigureProvider;
+import com.ctrip.platform.dal.dao.datasource.DataSourceFactory;
+import com.ctrip.platform.dal.dao.datasource.DataSourceLocator;
+import com.ctrip.platform.dal.dao.datasource.DataSourceSettings;
+import com.ctrip.platform.dal.dao.datasource.TomcatDataSourceFactory;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+/**
+ * Compare borrow and return latency of DataSourceFactory backends under contention.
+ * The pools are created by DataSourceLocator with the settings of performance_test in
+ * datasource.xml. Connections come from an in memory driver, so only the pool overhead
+ * is measured.
+ *
+ * Arguments are class names of the factories to compare besides tomcat pool. The
+ * unpooled factory connects on each borrow, it shows the cost of the harness itself.
+ */
+public class DataSourceFactoryPerformance {
+	private static final String NAME = "performance_test";
+	private static final String URL = "jdbc:dalstub:performance";
+	private static final int THREADS = 32;
+	private static final int WARM_UP_SECONDS = 5;
+	private static final int MEASURE_SECONDS = 10;
+	private static final int SAMPLES_PER_THREAD = 100000;
+
+	public static void main(String[] args) throws Exception {
+		compare(new UnpooledDataSourceFactory());
+		compare(new TomcatDataSourceFactory());
+		for(String className: args)
+			compare((DataSourceFactory)Class.forName(className).getDeclaredConstructor().newInstance());
+		System.exit(0);
+	}
+
+	private static void compare(DataSourceFactory factory) throws Exception {
+		DataSourceLocator locator = new DataSourceLocator(new StubConfigureProvider(), factory);
+		Set<String> names = new HashSet<>(Arrays.asList(NAME));
+		try {
+			DataSource ds = locator.getDataSource(NAME);
+			AtomicLong borrows = new AtomicLong();
+			run(ds, WARM_UP_SECONDS, borrows);
+			borrows.set(0);
+			long[] samples = run(ds, MEASURE_SECONDS, borrows);
+			System.out.println(String.format("%s: %d threads, %.0f borrows/s, average %.2fus, p50 %.2fus, p99 %.2fus, max %.2fus",
+					factory.getClass().getSimpleName(), THREADS, borrows.get() / (double)MEASURE_SECONDS, average(samples) / 1000.0,
+					samples[samples.length / 2] / 1000.0, samples[(int)(samples.length * 0.99)] / 1000.0, samples[samples.length - 1] / 1000.0));
+		} finally {
+			// Closed by the factory
+			locator.remove(names);
+		}
+	}
+
+	/**
+	 * @param borrows counts all the borrows
+	 * @return sorted borrow and return time in nanoseconds, the latest SAMPLES_PER_THREAD of each thread
+	 */
+	private static long[] run(final DataSource ds, int seconds, final AtomicLong borrows) throws Exception {
+		final long end = System.nanoTime() + seconds * 1000000000L;
+		final List<long[]> results = new ArrayList<>();
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+
+		for(int i = 0; i < THREADS; i++) {
+			final long[] samples = new long[SAMPLES_PER_THREAD];
+			final int[] count = new int[1];
+			Thread t = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						long total = 0;
+						while(System.nanoTime() < end) {
+							long begin = System.nanoTime();
+							Connection conn = ds.getConnection();
+							conn.close();
+							samples[(int)(total++ % SAMPLES_PER_THREAD)] = System.nanoTime() - begin;
+						}
+						count[0] = (int)Math.min(total, SAMPLES_PER_THREAD);
+						borrows.addAndGet(total);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+					synchronized (results) {
+						results.add(Arrays.copyOf(samples, count[0]));
+					}
+				}
+			});
+			t.start();
+			threads.add(t);
+		}
+
+		start.countDown();
+		for(Thread t: threads)
+			t.join();
+
+		int size = 0;
+		for(long[] samples: results)
+			size += samples.length;
+		long[] all = new long[size];
+		int pos = 0;
+		for(long[] samples: results) {
+			System.arraycopy(samples, 0, all, pos, samples.length);
+			pos += samples.length;
+		}
+		Arrays.sort(all);
+		return all;
+	}
+
+	private static double average(long[] samples) {
+		double total = 0;
+		for(long sample: samples)
+			total += sample;
+		return total / samples.length;
+	}
+
+	private static class StubConfigureProvider implements DataSourceConfigureProvider {
+		@Override
+		public void initialize(Map<String, String> settings) throws Exception {
+		}
+
+		@Override
+		public void setup(Set<String> dbNames) {
+		}
+
+		@Override
+		public DataSourceConfigure getDataSourceConfigure(String dbName) {
+			DataSourceConfigure config = new DataSourceConfigure();
+			config.setConnectionUrl(URL);
+			config.setDriverClass(StubDriver.class.getName());
+			return config;
+		}
+	}
+
+	/**
+	 * Not a pool, each borrow creates a new connection by the driver
+	 */
+	public static class UnpooledDataSourceFactory implements DataSourceFactory {
+		@Override
+		public DataSource createDataSource(DataSourceSettings settings) throws SQLException {
+			final StubDriver driver = new StubDriver();
+			return JdbcStubs.stub(DataSource.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if(method.getName().equals("getConnection"))
+						return driver.connect(URL, null);
+					return null;
+				}
+			});
+		}
+
+		@Override
+		public void close(DataSource dataSource) {
+		}
+	}
+
+	/**
+	 * Driver that creates in memory connections for URL
+	 */
+	public static class StubDriver implements Driver {
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+			if(!acceptsURL(url))
+				return null;
+
+			return JdbcStubs.stub(Connection.class, new InvocationHandler() {
+				private boolean closed;
+
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if(method.getName().equals("close"))
+						closed = true;
+					if(method.getName().equals("isClosed"))
+						return closed;
+					if(method.getName().equals("isValid"))
+						return !closed;
+					if(method.getName().equals("getAutoCommit"))
+						return true;
+					return null;
+				}
+			});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) throws SQLException {
+			return URL.equals(url);
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package test.com.ctrip.platform.dal.dao.datasource;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.configure.DataSourceConfigure;
+import com.ctrip.platform.dal.dao.configure.DataSourceConfigureProvider;
+import com.ctrip.platform.dal.dao.configure.DatabasePoolConfigParser;
+import com.ctrip.platform.dal.dao.datasource.DataSourceFactory;
+import com.ctrip.platform.dal.dao.datasource.DataSourceLocator;
+import com.ctrip.platform.dal.dao.datasource.DataSourceSettings;
+
+public class DataSourceLocatorTest {
+
+	@Test
+	public void testFailedCreationRetry() throws Exception {
+		CountingProvider provider = new CountingProvider();
+		DataSourceLocator locator = new DataSourceLocator(provider);
+		
+		for(int i = 1; i <= 2; i++) {
+			try {
+				locator.getDataSource("locator_test_not_exist");
+				Assert.fail();
+			} catch (RuntimeException e) {
+				Assert.assertTrue(e.getMessage().contains("locator_test_not_exist"));
+			}
+			Assert.assertEquals(i, provider.count.get());
+		}
+	}
+
+	@Test
+	public void testDifferentNamesNotBlocked() throws Exception {
+		final CountDownLatch otherDone = new CountDownLatch(1);
+		final DataSourceLocator locator = new DataSourceLocator(new CountingProvider() {
+			@Override
+			public DataSourceConfigure getDataSourceConfigure(String dbName) {
+				if(dbName.equals("locator_test_slow")) {
+					try {
+						// Wait until the other name is done
+						otherDone.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+				}
+				return null;
+			}
+		});
+		
+		Thread slow = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					locator.getDataSource("locator_test_slow");
+				} catch (Throwable e) {
+				}
+			}
+		});
+		slow.start();
+		Thread.sleep(100);
+		
+		long start = System.currentTimeMillis();
+		try {
+			locator.getDataSource("locator_test_fast");
+			Assert.fail();
+		} catch (RuntimeException e) {
+		}
+		otherDone.countDown();
+		slow.join();
+		
+		Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+	
+	@Test
+	public void testDefaultFactory() throws Exception {
+		StubDataSourceFactory factory = new StubDataSourceFactory();
+		DataSourceLocator locator = new DataSourceLocator(new CountingProvider() {
+			@Override
+			public DataSourceConfigure getDataSourceConfigure(String dbName) {
+				DataSourceConfigure config = new DataSourceConfigure();
+				config.setConnectionUrl("jdbc:mysql://localhost:3306/" + dbName);
+				config.setDriverClass("com.mysql.jdbc.Driver");
+				return config;
+			}
+		}, factory);
+		
+		DataSource ds = locator.getDataSource("locator_test_default_factory");
+		Assert.assertTrue(ds instanceof StubDataSource);
+		Assert.assertSame(ds, locator.getDataSource("locator_test_default_factory"));
+		Assert.assertEquals("jdbc:mysql://localhost:3306/locator_test_default_factory", ((StubDataSource)ds).settings.getConnectionUrl());
+	}
+	
+	@Test
+	public void testPoolFactoryInDatasourceXml() throws Exception {
+		DataSourceLocator locator = new DataSourceLocator(new CountingProvider());
+		
+		DataSource ds = locator.getDataSource("locator_test_factory");
+		Assert.assertTrue(ds instanceof StubDataSource);
+		Assert.assertEquals(20, ((StubDataSource)ds).settings.getMaxActive());
+		Assert.assertEquals("locator_test_factory", ((StubDataSource)ds).settings.getName());
+	}
+	
+	@Test
+	public void testRefresh() throws Exception {
+		final String[] url = new String[]{"jdbc:mysql://localhost:3306/db1"};
+		DataSourceLocator locator = new DataSourceLocator(new CountingProvider() {
+			@Override
+			public DataSourceConfigure getDataSourceConfigure(String dbName) {
+				DataSourceConfigure config = new DataSourceConfigure();
+				config.setConnectionUrl(url[0]);
+				return config;
+			}
+		}, new StubDataSourceFactory());
+		
+		Set<String> names = new HashSet<>(Arrays.asList("locator_test_refresh"));
+		StubDataSource ds = (StubDataSource)locator.getDataSource("locator_test_refresh");
+		Assert.assertFalse(locator.refresh(names).contains("locator_test_refresh"));
+		Assert.assertSame(ds, locator.getDataSource("locator_test_refresh"));
+		Assert.assertFalse(ds.closed);
+		
+		url[0] = "jdbc:mysql://localhost:3306/db2";
+		Assert.assertTrue(locator.refresh(names).contains("locator_test_refresh"));
+		StubDataSource newDs = (StubDataSource)locator.getDataSource("locator_test_refresh");
+		Assert.assertNotSame(ds, newDs);
+		Assert.assertTrue(ds.closed);
+		Assert.assertFalse(newDs.closed);
+		Assert.assertEquals("jdbc:mysql://localhost:3306/db2", newDs.settings.getConnectionUrl());
+	}
+	
+	@Test
+	public void testRemoveOthers() throws Exception {
+		final Set<String> resolved = new HashSet<>();
+		DataSourceLocator locator = new DataSourceLocator(new CountingProvider() {
+			@Override
+			public DataSourceConfigure getDataSourceConfigure(String dbName) {
+				resolved.add(dbName);
+				DataSourceConfigure config = new DataSourceConfigure();
+				config.setConnectionUrl("jdbc:mysql://localhost:3306/" + dbName);
+				return config;
+			}
+		}, new StubDataSourceFactory());
+		
+		StubDataSource kept = (StubDataSource)locator.getDataSource("locator_test_kept");
+		StubDataSource dropped = (StubDataSource)locator.getDataSource("locator_test_dropped");
+		Set<String> names = new HashSet<>(Arrays.asList("locator_test_kept"));
+		
+		// Dropped one is not resolved again by refresh
+		resolved.clear();
+		Assert.assertTrue(locator.refresh(names).isEmpty());
+		Assert.assertEquals(names, resolved);
+		Assert.assertFalse(dropped.closed);
+		
+		Set<String> removed = new HashSet<>(Arrays.asList("locator_test_dropped"));
+		Assert.assertEquals(removed, locator.remove(removed));
+		Assert.assertTrue(dropped.closed);
+		Assert.assertFalse(kept.closed);
+		Assert.assertSame(kept, locator.getDataSource("locator_test_kept"));
+		
+		// Removed already
+		Assert.assertTrue(locator.remove(removed).isEmpty());
+		Assert.assertNotSame(dropped, locator.getDataSource("locator_test_dropped"));
+		locator.remove(new HashSet<>(Arrays.asList("locator_test_kept", "locator_test_dropped")));
+	}
+	
+	@Test
+	public void testValidate() throws Exception {
+		CountingProvider provider = new CountingProvider();
+		DataSourceLocator locator = new DataSourceLocator(provider);
+		DatabasePoolConfigParser parser = DatabasePoolConfigParser.load();
+		
+		locator.validate(new HashSet<>(Arrays.asList("locator_test_factory")), parser);
+		try {
+			locator.validate(new HashSet<>(Arrays.asList("locator_test_factory", "locator_test_not_exist")), parser);
+			Assert.fail();
+		} catch (SQLException e) {
+			Assert.assertTrue(e.getMessage().contains("locator_test_not_exist"));
+		}
+		
+		// Nothing is created and the current parser is not replaced
+		Assert.assertNotSame(parser, DatabasePoolConfigParser.getInstance());
+	}
+	
+	public static class StubDataSourceFactory implements DataSourceFactory {
+		@Override
+		public DataSource createDataSource(DataSourceSettings settings) throws SQLException {
+			return new StubDataSource(settings);
+		}
+
+		@Override
+		public void close(DataSource dataSource) {
+			((StubDataSource)dataSource).closed = true;
+		}
+	}
+	
+	// Pool is not created
+	private static class StubDataSource extends org.apache.tomcat.jdbc.pool.DataSource {
+		private DataSourceSettings settings;
+		private boolean closed;
+		
+		private StubDataSource(DataSourceSettings settings) {
+			this.settings = settings;
+		}
+	}
+	
+	private static class CountingProvider implements DataSourceConfigureProvider {
+		private AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public void initialize(Map<String, String> settings) throws Exception {
+		}
+
+		@Override
+		public void setup(Set<String> dbNames) {
+		}
+
+		@Override
+		public DataSourceConfigure getDataSourceConfigure(String dbName) {
+			count.incrementAndGet();
+			return null;
+		}
+	}
+}
@@ -8,6 +8,12 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	DalFirstResultMergerTest.class,
 	DalSingleResultMergerTest.class,
+	DalListMergerTest.class,
+	DalRangedResultMergerTest.class,
+	DalRowBatchCallbackExtractorTest.class,
+	DalDefaultJpaMapperTest.class,
+	PositionalFieldsTest.class,
+	DalColumnArraysExtractorTest.class,
 	PartialQueryTableDaoUnitTest.class,
 	PartialQueryQueryDaoTest.class,
 	DalColumnMapRowMapperTest.class,
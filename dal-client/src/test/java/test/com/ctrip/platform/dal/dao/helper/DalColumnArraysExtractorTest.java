@@ -0,0 +1,158 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.DalColumnArrays;
+import com.ctrip.platform.dal.dao.helper.DalColumnArraysExtractor;
+import com.ctrip.platform.dal.dao.helper.DalColumnArraysMerger;
+import com.ctrip.platform.dal.dao.helper.DalObjectRowMapper;
+import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalColumnArraysExtractorTest {
+	private static final String[] LABELS = new String[]{"id", "count", "rate", "amount", "city"};
+	private static final int[] TYPES = new int[]{Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.DECIMAL, Types.VARCHAR};
+	private static final String[] CITIES = new String[]{"sh", "bj", null};
+	
+	private ResultSet createResultSet(Object[][] rows) {
+		return createResultSet(rows, LABELS.length);
+	}
+	
+	private ResultSet createResultSet(Object[][] rows, int columnCount) {
+		return JdbcStubs.resultSet(Arrays.copyOf(LABELS, columnCount), TYPES, rows);
+	}
+	
+	private Object[][] createRows(int count) {
+		Object[][] rows = new Object[count][];
+		for(int i = 0; i < count; i++)
+			rows[i] = new Object[]{(long)i, i % 3 == 0 ? null : i * 10, i * 0.5, new BigDecimal(i), CITIES[i % 3]};
+		return rows;
+	}
+	
+	@Test
+	public void testExtract() throws SQLException {
+		DalColumnArrays arrays = new DalColumnArraysExtractor(2).extract(createResultSet(createRows(5)));
+		
+		Assert.assertEquals(5, arrays.getRowCount());
+		Assert.assertEquals(5, arrays.getColumnCount());
+		Assert.assertEquals(DalColumnArrays.LONG, arrays.getKind(1));
+		Assert.assertEquals(DalColumnArrays.DOUBLE, arrays.getKind(2));
+		Assert.assertEquals(DalColumnArrays.OBJECT, arrays.getKind(3));
+		
+		long[] ids = arrays.getLongs("ID");
+		Assert.assertEquals(5, ids.length);
+		Assert.assertEquals(4L, ids[4]);
+		
+		Assert.assertTrue(arrays.isNull(1, 0));
+		Assert.assertFalse(arrays.isNull(1, 1));
+		Assert.assertNull(arrays.getValue(1, 3));
+		Assert.assertEquals(20L, arrays.getValue(1, 2));
+		Assert.assertEquals(1.5, arrays.getDoubles("rate")[3]);
+		Assert.assertEquals(new BigDecimal(2), arrays.getObjects("amount")[2]);
+		
+		Assert.assertEquals(DalColumnArrays.STRING, arrays.getKind(4));
+		Assert.assertEquals(2, arrays.getDictionary("city").length);
+		Assert.assertEquals(DalColumnArrays.NULL_CODE, arrays.getCodes("city")[2]);
+		Assert.assertTrue(arrays.isNull(4, 2));
+		String[] cities = arrays.getStrings("city");
+		Assert.assertEquals("bj", cities[4]);
+		Assert.assertNull(cities[2]);
+		Assert.assertSame(cities[0], cities[3]);
+		Assert.assertEquals("sh", arrays.getValue(4, 3));
+	}
+	
+	@Test
+	public void testMerge() throws SQLException {
+		Object[][] rows = createRows(6);
+		DalColumnArraysMerger merger = new DalColumnArraysMerger();
+		merger.addPartial("1", new DalColumnArraysExtractor().extract(createResultSet(new Object[][]{rows[1], rows[2], rows[3]})));
+		merger.addPartial("0", new DalColumnArraysExtractor().extract(createResultSet(new Object[][]{rows[4], rows[0]})));
+		DalColumnArrays arrays = merger.merge();
+		
+		Assert.assertEquals(5, arrays.getRowCount());
+		long[] ids = arrays.getLongs("id");
+		Assert.assertEquals(1L, ids[0]);
+		Assert.assertEquals(0L, ids[4]);
+		Assert.assertTrue(arrays.isNull(1, 2));
+		Assert.assertTrue(arrays.isNull(1, 4));
+		Assert.assertFalse(arrays.isNull(1, 3));
+		
+		String[] cities = arrays.getStrings("city");
+		Assert.assertEquals("bj", cities[0]);
+		Assert.assertNull(cities[1]);
+		Assert.assertEquals("sh", cities[2]);
+		Assert.assertEquals("bj", cities[3]);
+		Assert.assertEquals("sh", cities[4]);
+		Assert.assertEquals(2, arrays.getDictionary("city").length);
+	}
+	
+	@Test
+	public void testMergeMismatch() throws SQLException {
+		DalColumnArraysMerger merger = new DalColumnArraysMerger();
+		merger.addPartial("0", new DalColumnArraysExtractor().extract(createResultSet(createRows(1))));
+		try {
+			merger.addPartial("1", new DalColumnArraysExtractor().extract(createResultSet(createRows(1), 3)));
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+	}
+	
+	@Test
+	public void testWrongKind() throws SQLException {
+		DalColumnArrays arrays = new DalColumnArraysExtractor().extract(createResultSet(createRows(1)));
+		try {
+			arrays.getDoubles("id");
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+		
+		try {
+			arrays.getLongs("unknown");
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+	@Test
+	public void testScalarMapper() throws SQLException {
+		List<Integer> counts = new DalRowMapperExtractor<>(new DalObjectRowMapper<>(Integer.class)).extract(createResultSet(new Object[][]{{null}, {5L}}));
+		Assert.assertNull(counts.get(0));
+		Assert.assertEquals(5, counts.get(1).intValue());
+		
+		List<String> names = new DalRowMapperExtractor<>(new DalObjectRowMapper<>(String.class)).extract(createResultSet(new Object[][]{{1L}}));
+		Assert.assertEquals("1", names.get(0));
+	}
+	
+	@Test
+	public void testIntegerMapperOutOfRange() throws SQLException {
+		final long big = (1L << 32) + 5;
+		final ResultSet rows = createResultSet(new Object[][]{{big}, {-1L}});
+		// Like the driver, getInt rejects values out of int range
+		ResultSet rs = JdbcStubs.stub(ResultSet.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Object value = method.invoke(rows, args);
+				if(method.getName().equals("getInt") && (Integer)value != ((Number)rows.getObject(1)).longValue())
+					throw new SQLException("Numeric value out of range");
+				return value;
+			}
+		});
+		
+		// Narrowed as the converter of getObject value does
+		List<Integer> counts = new DalRowMapperExtractor<>(new DalObjectRowMapper<>(Integer.class)).extract(rs);
+		Assert.assertEquals(((Long)big).intValue(), counts.get(0).intValue());
+		Assert.assertEquals(-1, counts.get(1).intValue());
+	}
+}
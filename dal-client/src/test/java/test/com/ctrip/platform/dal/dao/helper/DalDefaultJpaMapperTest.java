@@ -0,0 +1,153 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.annotation.Database;
+import com.ctrip.platform.dal.dao.annotation.Type;
+import com.ctrip.platform.dal.dao.helper.DalDefaultJpaMapper;
+import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalDefaultJpaMapperTest {
+	private static final String[] LABELS = new String[]{"NAME", "ID", "PRICE", "QUANTITY"};
+	
+	@Entity
+	@Database(name="dao_test")
+	public static class Product {
+		@Id
+		@Column(name="id")
+		@Type(value=Types.BIGINT)
+		private Long id;
+		
+		@Column(name="name")
+		@Type(value=Types.VARCHAR)
+		private String name;
+		
+		@Column(name="price")
+		@Type(value=Types.DOUBLE)
+		private Double price;
+		
+		@Column(name="quantity")
+		@Type(value=Types.INTEGER)
+		private int quantity;
+	}
+	
+	private ResultSet createResultSet(Object[][] rows) {
+		return JdbcStubs.resultSet(LABELS, null, rows);
+	}
+	
+	private Object[][] createRows() {
+		return new Object[][] {
+			{"a", 1L, 1.5, 10},
+			{"b", 2L, null, 20},
+		};
+	}
+	
+	@Test
+	public void testMapByIndex() throws SQLException {
+		DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+		List<Product> products = new DalRowMapperExtractor<>(mapper).extract(createResultSet(createRows()));
+		
+		Assert.assertEquals(2, products.size());
+		Assert.assertEquals(1L, products.get(0).id.longValue());
+		Assert.assertEquals("a", products.get(0).name);
+		Assert.assertEquals(1.5, products.get(0).price);
+		Assert.assertEquals(10, products.get(0).quantity);
+		Assert.assertEquals(2L, products.get(1).id.longValue());
+		Assert.assertNull(products.get(1).price);
+		Assert.assertEquals(20, products.get(1).quantity);
+	}
+	
+	@Test
+	public void testMapByIndexInTurkishLocale() throws SQLException {
+		Locale locale = Locale.getDefault();
+		// Upper case I is lowered to dotless i in Turkish
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			// Labels are upper case
+			final ResultSet rows = createResultSet(createRows());
+			final AtomicInteger byName = new AtomicInteger();
+			ResultSet rs = JdbcStubs.stub(ResultSet.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if(args != null && args.length == 1 && args[0] instanceof String)
+						byName.incrementAndGet();
+					return method.invoke(rows, args);
+				}
+			});
+			
+			DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+			List<Product> products = new DalRowMapperExtractor<>(mapper).extract(rs);
+			
+			Assert.assertEquals(1L, products.get(0).id.longValue());
+			Assert.assertEquals(10, products.get(0).quantity);
+			// All columns are found by index
+			Assert.assertEquals(0, byName.get());
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+	
+	@Test
+	public void testMapByName() throws SQLException {
+		DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+		ResultSet rs = createResultSet(createRows());
+		rs.next();
+		Product product = mapper.map(rs, 0);
+		
+		Assert.assertEquals(1L, product.id.longValue());
+		Assert.assertEquals("a", product.name);
+		Assert.assertEquals(1.5, product.price);
+		Assert.assertEquals(10, product.quantity);
+	}
+	
+	@Test
+	public void testMapPartialByIndex() throws SQLException {
+		DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+		List<Product> products = new DalRowMapperExtractor<>(mapper.mapWith(new String[]{"id", "quantity"}, false)).extract(createResultSet(createRows()));
+		
+		Assert.assertEquals(2L, products.get(1).id.longValue());
+		Assert.assertNull(products.get(1).name);
+		Assert.assertEquals(20, products.get(1).quantity);
+	}
+	
+	@Test
+	public void testMapMissingColumn() throws SQLException {
+		DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+		try {
+			new DalRowMapperExtractor<>(mapper.mapWith(new String[]{"id", "weight"}, false)).extract(createResultSet(createRows()));
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+		
+		List<Product> products = new DalRowMapperExtractor<>(mapper.mapWith(new String[]{"id", "weight"}, true)).extract(createResultSet(createRows()));
+		Assert.assertEquals(2, products.size());
+		Assert.assertEquals(1L, products.get(0).id.longValue());
+	}
+	
+	@Test
+	public void testMapNullToPrimitive() throws SQLException {
+		DalDefaultJpaMapper<Product> mapper = new DalDefaultJpaMapper<>(Product.class);
+		try {
+			new DalRowMapperExtractor<>(mapper).extract(createResultSet(new Object[][] {{"a", 1L, 1.5, null}}));
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.DalListMerger;
+
+public class DalListMergerTest {
+	private List<Integer> list(Integer...values) {
+		return new ArrayList<>(Arrays.asList(values));
+	}
+
+	@Test
+	public void testMergeWithComparator() {
+		DalListMerger<Integer> test = new DalListMerger<>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return o2.compareTo(o1);
+			}
+		});
+		
+		test.addPartial("0", list(1, 5, 3));
+		test.addPartial("1", null);
+		test.addPartial("2", list(6, 2, 4));
+		Assert.assertEquals(list(6, 5, 4, 3, 2, 1), test.merge());
+	}
+	
+	@Test
+	public void testMergeWithoutComparator() {
+		DalListMerger<Integer> test = new DalListMerger<>();
+		
+		test.addPartial("0", list(3, 1));
+		test.addPartial("1", list(2));
+		Assert.assertEquals(list(3, 1, 2), test.merge());
+	}
+}
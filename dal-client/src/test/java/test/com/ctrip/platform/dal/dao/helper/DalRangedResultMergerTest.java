@@ -0,0 +1,99 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
+
+public class DalRangedResultMergerTest {
+	private Comparator<Integer> asc = new Comparator<Integer>() {
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return o1.compareTo(o2);
+		}
+	};
+	
+	private List<Integer> list(Integer...values) {
+		return new ArrayList<>(Arrays.asList(values));
+	}
+
+	@Test
+	public void testMergeWithComparator() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 2, 3);
+		test.addPartial("0", list(9, 1, 5));
+		test.addPartial("1", null);
+		test.addPartial("2", list(4, 8, 2));
+		test.addPartial("3", list(7, 3, 6));
+		
+		Assert.assertEquals(list(3, 4, 5), test.merge());
+	}
+
+	@Test
+	public void testMergeOutOfRange() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 5, 3);
+		test.addPartial("0", list(3, 1));
+		test.addPartial("1", list(2, 4));
+		
+		Assert.assertEquals(0, test.merge().size());
+	}
+
+	@Test
+	public void testMergeNotEnough() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 1, 10);
+		test.addPartial("0", list(3, 1));
+		test.addPartial("1", list(2));
+		
+		Assert.assertEquals(list(2, 3), test.merge());
+	}
+
+	@Test
+	public void testMergeWithoutComparator() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(1, 2);
+		test.addPartial("0", list(3, 1));
+		test.addPartial("1", list(2));
+		
+		Assert.assertEquals(list(1, 2), test.merge());
+	}
+
+	@Test
+	public void testMergeDropRowsOutOfRange() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 1, 2);
+		test.addPartial("0", list(1, 4, 7, 10));
+		test.addPartial("1", list(2, 5, 8, 11));
+		test.addPartial("2", list(3, 6, 9, 12));
+		
+		Assert.assertEquals(list(2, 3), test.merge());
+	}
+
+	@Test
+	public void testMergeWithoutComparatorDropRowsOutOfRange() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(1, 2);
+		test.addPartial("0", list(3, 1, 5));
+		test.addPartial("1", list(2, 4));
+		
+		Assert.assertEquals(list(1, 5), test.merge());
+	}
+
+	@Test
+	public void testGetLimitNotOverflow() throws SQLException {
+		Assert.assertEquals(30, DalRangedResultMerger.getLimit(10, 20));
+		Assert.assertEquals(Integer.MAX_VALUE, DalRangedResultMerger.getLimit(10, Integer.MAX_VALUE));
+		
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 1, Integer.MAX_VALUE);
+		test.addPartial("0", list(1, 3));
+		test.addPartial("1", list(2));
+		
+		Assert.assertEquals(list(2, 3), test.merge());
+		
+		test = new DalRangedResultMerger<>(1, Integer.MAX_VALUE);
+		test.addPartial("0", list(3, 1));
+		Assert.assertEquals(list(1), test.merge());
+	}
+}
@@ -0,0 +1,71 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalRowBatchCallback;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.dao.helper.DalRowBatchCallbackExtractor;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalRowBatchCallbackExtractorTest {
+	private DalRowMapper<Integer> mapper = new DalRowMapper<Integer>() {
+		@Override
+		public Integer map(ResultSet rs, int rowNum) throws SQLException {
+			return rs.getInt(1);
+		}
+	};
+	
+	private class BatchCollector implements DalRowBatchCallback<Integer> {
+		private List<List<Integer>> batches = new ArrayList<>();
+		
+		@Override
+		public void process(List<Integer> rows) throws SQLException {
+			batches.add(rows);
+		}
+	}
+	
+	private ResultSet createResultSet(int rows) {
+		Object[] values = new Object[rows];
+		for(int i = 0; i < rows; i++)
+			values[i] = i + 1;
+		return JdbcStubs.resultSet(JdbcStubs.column(values));
+	}
+
+	@Test
+	public void testExtract() throws SQLException {
+		BatchCollector callback = new BatchCollector();
+		DalRowBatchCallbackExtractor<Integer> test = new DalRowBatchCallbackExtractor<>(mapper, callback, 3);
+		
+		Assert.assertEquals(7, test.extract(createResultSet(7)).intValue());
+		Assert.assertEquals(3, callback.batches.size());
+		Assert.assertEquals(3, callback.batches.get(0).size());
+		Assert.assertEquals(3, callback.batches.get(1).size());
+		Assert.assertEquals(7, callback.batches.get(2).get(0).intValue());
+	}
+
+	@Test
+	public void testExtractEmpty() throws SQLException {
+		BatchCollector callback = new BatchCollector();
+		DalRowBatchCallbackExtractor<Integer> test = new DalRowBatchCallbackExtractor<>(mapper, callback, 3);
+		
+		Assert.assertEquals(0, test.extract(createResultSet(0)).intValue());
+		Assert.assertEquals(0, callback.batches.size());
+	}
+
+	@Test
+	public void testInvalidBatchSize() {
+		try {
+			new DalRowBatchCallbackExtractor<>(mapper, new BatchCollector(), 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.PositionalFields;
+
+public class PositionalFieldsTest {
+	private static final String[] NAMES = new String[]{"id", "name", "price"};
+	private static final PositionalFields.Columns COLUMNS = new PositionalFields.Columns(NAMES);
+	
+	private PositionalFields create() {
+		return new PositionalFields(COLUMNS, new Object[]{1, "a", null});
+	}
+
+	@Test
+	public void testGet() {
+		PositionalFields fields = create();
+		Assert.assertEquals(3, fields.size());
+		Assert.assertEquals(1, fields.get("id"));
+		Assert.assertEquals("a", fields.getAt(1));
+		Assert.assertNull(fields.get("price"));
+		Assert.assertTrue(fields.containsKey("price"));
+		Assert.assertFalse(fields.containsKey("unknown"));
+		Assert.assertTrue(fields.isAlignedWith(NAMES));
+		Assert.assertFalse(fields.isAlignedWith(NAMES.clone()));
+	}
+	
+	@Test
+	public void testEqualsMap() {
+		Map<String, Object> expected = new HashMap<>();
+		expected.put("id", 1);
+		expected.put("name", "a");
+		expected.put("price", null);
+		Assert.assertEquals(expected, create());
+		Assert.assertEquals(expected.hashCode(), create().hashCode());
+	}
+	
+	@Test
+	public void testRemoveAndPut() {
+		PositionalFields fields = create();
+		Assert.assertEquals(1, fields.remove("id"));
+		Assert.assertEquals(2, fields.size());
+		Assert.assertFalse(fields.containsKey("id"));
+		Assert.assertNull(fields.getAt(0));
+		Assert.assertNull(fields.remove("id"));
+		
+		Assert.assertNull(fields.put("id", 2));
+		Assert.assertEquals(3, fields.size());
+		Assert.assertEquals(2, fields.put("id", 3));
+		Assert.assertEquals(3, fields.get("id"));
+		
+		try {
+			fields.put("unknown", 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+	@Test
+	public void testIterator() {
+		PositionalFields fields = create();
+		fields.remove("name");
+		
+		Iterator<Map.Entry<String, Object>> it = fields.entrySet().iterator();
+		Assert.assertEquals("id", it.next().getKey());
+		Map.Entry<String, Object> entry = it.next();
+		Assert.assertEquals("price", entry.getKey());
+		entry.setValue(10);
+		Assert.assertFalse(it.hasNext());
+		Assert.assertEquals(10, fields.get("price"));
+		
+		it = fields.entrySet().iterator();
+		it.next();
+		it.remove();
+		Assert.assertEquals(1, fields.size());
+		Assert.assertFalse(fields.containsKey("id"));
+		
+		fields.clear();
+		Assert.assertTrue(fields.isEmpty());
+		Assert.assertFalse(fields.entrySet().iterator().hasNext());
+	}
+}
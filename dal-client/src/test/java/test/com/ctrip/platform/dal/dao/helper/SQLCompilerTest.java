@@ -1,13 +1,16 @@
 package test.com.ctrip.platform.dal.dao.helper;
 
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
 
+import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.task.SQLCompiler;
 
 public class SQLCompilerTest {
@@ -82,4 +85,63 @@ public class SQLCompilerTest {
 		Assert.assertEquals(expected_sql, new_sql);
 	}
 
+	@Test
+	public void testBucket() {
+		Assert.assertEquals(0, StatementParameters.bucket(0));
+		Assert.assertEquals(1, StatementParameters.bucket(1));
+		Assert.assertEquals(2, StatementParameters.bucket(2));
+		Assert.assertEquals(4, StatementParameters.bucket(3));
+		Assert.assertEquals(8, StatementParameters.bucket(5));
+		Assert.assertEquals(8, StatementParameters.bucket(8));
+		Assert.assertEquals(16, StatementParameters.bucket(9));
+		Assert.assertEquals(Integer.MAX_VALUE, StatementParameters.bucket(Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void testBucketedIn() throws SQLException{
+		String sql = "SELECT * FROM Person WHERE ID In (?) And Name in( ?)";
+		String expected_sql = "SELECT * FROM Person WHERE ID In (?,?,?,?)  And Name In (?) ";
+		List idList = new ArrayList<>();
+		idList.add(Arrays.asList(1, 2, 3));
+		idList.add(Arrays.asList("hi"));
+		
+		Assert.assertEquals(expected_sql, SQLCompiler.compile(sql, idList, true));
+		// Cached result
+		Assert.assertEquals(expected_sql, SQLCompiler.compile(sql, idList, true));
+		// Same bucket
+		idList.set(0, Arrays.asList(1, 2, 3, 4));
+		Assert.assertEquals(expected_sql, SQLCompiler.compile(sql, idList, true));
+		// Not bucketed
+		Assert.assertEquals("SELECT * FROM Person WHERE ID In (?,?,?,?)  And Name In (?) ", SQLCompiler.compile(sql, idList));
+		idList.set(0, Arrays.asList(1, 2, 3));
+		Assert.assertEquals("SELECT * FROM Person WHERE ID In (?,?,?)  And Name In (?) ", SQLCompiler.compile(sql, idList));
+	}
+	
+	@Test
+	public void testBucketedParameters() throws SQLException{
+		StatementParameters parameters = new StatementParameters();
+		parameters.set(1, Types.INTEGER, 10);
+		parameters.setInParameter(2, Types.INTEGER, Arrays.asList(1, 2, 3));
+		parameters.set(3, Types.VARCHAR, "a");
+		parameters.compile(true);
+		
+		Assert.assertEquals(6, parameters.size());
+		Object[] expected = new Object[]{10, 1, 2, 3, 3, "a"};
+		for(int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(i + 1, parameters.get(i).getIndex());
+			Assert.assertEquals(expected[i], parameters.get(i).getValue());
+		}
+	}
+	
+	@Test
+	public void testBucketedMismatch() {
+		List idList = new ArrayList<>();
+		idList.add(Arrays.asList(1, 2, 3));
+		try {
+			SQLCompiler.compile("SELECT * FROM Person WHERE ID = ?", idList, true);
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+	}
+
 }
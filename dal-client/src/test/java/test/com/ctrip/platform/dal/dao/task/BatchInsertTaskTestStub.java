@@ -28,6 +28,7 @@ import com.ctrip.platform.dal.dao.KeyHolder;
 import com.ctrip.platform.dal.dao.annotation.Database;
 import com.ctrip.platform.dal.dao.annotation.Type;
 import com.ctrip.platform.dal.dao.helper.DalDefaultJpaParser;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.dao.task.BatchInsertTask;
 import com.ctrip.platform.dal.dao.task.CombinedInsertTask;
 
@@ -68,9 +69,9 @@ public class BatchInsertTaskTestStub extends TaskTestStub {
 			if(this instanceof BatchInsertTaskSqlSvrTest)
 				SqlServerTestInitializer.turnOnIdentityInsert();
 			
-			Map<Integer, Map<String, ?>> pojos = getAllMap();
+			DalPojoPartition pojos = getAllMap();
 			int i = 111;
-			for(Map<String, ?> pojo: pojos.values()) {
+			for(Map<String, ?> pojo: pojos) {
 				((Map)pojo).put("id", new Integer(i++));
 			}
 			
@@ -81,7 +82,7 @@ public class BatchInsertTaskTestStub extends TaskTestStub {
 			pojos = getAllMap();
 			Set<Integer> ids = new HashSet<>();
 			
-			for(Map<String, ?> pojo: pojos.values()) {
+			for(Map<String, ?> pojo: pojos) {
 				ids.add((Integer)pojo.get("id"));
 			}
 			
@@ -112,8 +113,8 @@ public class BatchInsertTaskTestStub extends TaskTestStub {
 			fail();
 		}
 		
-		Map<Integer, Map<String, ?>> pojos = getAllMap();
-		for(Map<String, ?> pojo: pojos.values()) {
+		DalPojoPartition pojos = getAllMap();
+		for(Map<String, ?> pojo: pojos) {
 			assertNotNull(pojo.get("last_changed"));
 		}
 	}
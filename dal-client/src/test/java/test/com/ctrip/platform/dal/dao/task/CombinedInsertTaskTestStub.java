@@ -17,6 +17,7 @@ import com.ctrip.platform.dal.dao.DalParser;
 import com.ctrip.platform.dal.dao.DalTableDao;
 import com.ctrip.platform.dal.dao.KeyHolder;
 import com.ctrip.platform.dal.dao.helper.DalDefaultJpaParser;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.dao.task.CombinedInsertTask;
 
 //TODO handle keyholder and set nocount on issue
@@ -65,9 +66,9 @@ public class CombinedInsertTaskTestStub extends TaskTestStub {
 			if(this instanceof CombinedInsertTaskSqlSvrTest)
 				SqlServerTestInitializer.turnOnIdentityInsert();
 
-			Map<Integer, Map<String, ?>> pojos = getAllMap();
+			DalPojoPartition pojos = getAllMap();
 			int i = 111;
-			for(Map<String, ?> pojo: pojos.values()) {
+			for(Map<String, ?> pojo: pojos) {
 				((Map)pojo).put("id", new Integer(i++));
 			}
 			
@@ -77,7 +78,7 @@ public class CombinedInsertTaskTestStub extends TaskTestStub {
 			pojos = getAllMap();
 			Set<Integer> ids = new HashSet<>();
 			
-			for(Map<String, ?> pojo: pojos.values()) {
+			for(Map<String, ?> pojo: pojos) {
 				ids.add((Integer)pojo.get("id"));
 			}
 			
@@ -120,8 +121,8 @@ public class CombinedInsertTaskTestStub extends TaskTestStub {
 			fail();
 		}
 		
-		Map<Integer, Map<String, ?>> pojos = getAllMap();
-		for(Map<String, ?> pojo: pojos.values()) {
+		DalPojoPartition pojos = getAllMap();
+		for(Map<String, ?> pojo: pojos) {
 			assertNotNull(pojo.get("last_changed"));
 		}
 	}
@@ -4,16 +4,23 @@ import static org.junit.Assert.*;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
 import com.ctrip.platform.dal.dao.DalClientFactory;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalParser;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.dao.task.BulkTask;
 import com.ctrip.platform.dal.dao.task.BulkTaskResultMerger;
 import com.ctrip.platform.dal.dao.task.DalBulkTaskRequest;
@@ -50,7 +57,7 @@ public class DalBulkTaskRequestTest {
 		}
 
 		@Override
-		public Integer execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled) throws SQLException {
+		public Integer execute(DalHints hints, DalPojoPartition shaffled) throws SQLException {
 			return shaffled.size();
 		}
 
@@ -176,6 +183,44 @@ public class DalBulkTaskRequestTest {
 		}
 	}
 
+	@Test
+	public void testCreateTaskParallelTableShard() {
+		final Set<String> tableShards = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		// Each shard waits until all 4 shards are running, which only happens if they overlap
+		final CountDownLatch running = new CountDownLatch(4);
+		final AtomicBoolean overlapped = new AtomicBoolean(true);
+		TestBulkTask bulkTask = new TestBulkTask() {
+			@Override
+			public Integer execute(DalHints hints, DalPojoPartition shaffled) throws SQLException {
+				tableShards.add(hints.getTableShardId());
+				running.countDown();
+				try {
+					if(!running.await(5, TimeUnit.SECONDS))
+						overlapped.set(false);
+				} catch (InterruptedException e) {
+					overlapped.set(false);
+				}
+				return super.execute(hints, shaffled);
+			}
+		};
+		
+		List<TestPojo> pojos = new ArrayList<TestPojo>();
+		for(int i = 0; i < 8; i++)
+			pojos.add(new TestPojo(i));
+		
+		try {
+			DalBulkTaskRequest<Integer, TestPojo> test = new DalBulkTaskRequest<>("dao_test_sqlsvr_tableShard", "dal_client_test", new DalHints().parallelTableShardExecute(), pojos, bulkTask);
+			test.validate();
+			assertFalse(test.isCrossShard());
+			assertEquals(8, test.createTask().call().intValue());
+			assertEquals(4, tableShards.size());
+			assertTrue(overlapped.get());
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
 	@Test
 	public void testCreateTasks() {
 		DalBulkTaskRequest<Integer, TestPojo> test = null;
@@ -2,16 +2,20 @@ package test.com.ctrip.platform.dal.dao.task;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.ctrip.platform.dal.dao.DalHints;
@@ -19,6 +23,8 @@ import com.ctrip.platform.dal.dao.ResultMerger;
 import com.ctrip.platform.dal.dao.helper.DefaultResultCallback;
 import com.ctrip.platform.dal.dao.task.DalRequest;
 import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.dao.task.DefaultTaskFactory;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
 
 public class DalRequestExecutorTest {
 	private class TestDalRequest implements DalRequest<Integer> {
@@ -72,6 +78,38 @@ public class DalRequestExecutorTest {
 		}
 	}
 	
+	private class SlowDalRequest extends TestDalRequest {
+		private long[] delays;
+		
+		private SlowDalRequest(Integer[] values, long[] delays) {
+			super(null, values);
+			this.delays = delays;
+		}
+		
+		@Override
+		public Map<String, Callable<Integer>> createTasks() throws SQLException {
+			Map<String, Callable<Integer>> tasks = new HashMap<>();
+			
+			for(int i = 0; i < delays.length; i++) {
+				final Callable<Integer> task = super.createTasks().get(String.valueOf(i));
+				final long delay = delays[i];
+				tasks.put(String.valueOf(i), new Callable<Integer>() {
+					public Integer call() throws Exception {
+						Thread.sleep(delay);
+						return task.call();
+					}
+				});
+			}
+				
+			return tasks;
+		}
+	}
+	
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		DalRequestExecutor.init((String)null);
+	}
+	
 	@AfterClass
 	public static void testShutdownAsyncTaskExecutor() {
 		try{
@@ -141,6 +179,24 @@ public class DalRequestExecutorTest {
 		}
 	}
 
+	@Test
+	public void testExecuteCrossShardOfLogicDb() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		TestDalRequest request = new TestDalRequest(null, new Integer[]{1, 2}) {
+			@Override
+			public String getLogicDbName() {
+				return "dao_test";
+			}
+		};
+		
+		try {
+			Integer result = test.execute(new DalHints(), request);
+			assertEquals(3, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
 	@Test
 	public void testExecuteNullable() {
 		DalRequestExecutor test = new DalRequestExecutor();
@@ -177,4 +233,199 @@ public class DalRequestExecutorTest {
 			fail();
 		}
 	}
+
+	@Test
+	public void testExecuteCrossShardTimeout() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2}, new long[]{0, 5000});
+		DalHints hints = new DalHints().crossShardTimeout(100);
+		
+		long start = System.currentTimeMillis();
+		try {
+			test.execute(hints, request);
+			fail();
+		} catch (SQLException e) {
+			assertEquals(ErrorCode.CrossShardTimeout.getCode(), e.getErrorCode());
+		}
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+	
+	@Test
+	public void testExecuteCrossShardTimeoutPartialResult() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2}, new long[]{0, 5000});
+		DalHints hints = new DalHints().crossShardTimeout(100).continueOnError();
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(1, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+	
+	@Test
+	public void testExecuteCrossShardInTime() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2}, new long[]{10, 20});
+		DalHints hints = new DalHints().crossShardTimeout(5000);
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(3, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardInCompletionOrder() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2, 3}, new long[]{300, 0, 150}) {
+			@Override
+			public ResultMerger<Integer> getMerger() {
+				return new ResultMerger<Integer>() {
+					private StringBuilder order = new StringBuilder();
+					
+					@Override
+					public void addPartial(String shard, Integer partial) {
+						order.append(shard);
+					}
+
+					@Override
+					public Integer merge() {
+						return Integer.parseInt(order.toString());
+					}
+				};
+			}
+		};
+		
+		try {
+			Integer result = test.execute(new DalHints(), request);
+			assertEquals(120, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardWhenExecutorBusy() {
+		Map<String, String> settings = new HashMap<>();
+		settings.put(DalRequestExecutor.MAX_POOL_SIZE, "1");
+		settings.put(DalRequestExecutor.MAX_QUEUE_SIZE, "1");
+		DefaultTaskFactory factory = new DefaultTaskFactory();
+		factory.initialize(settings);
+		
+		DalRequestExecutor.shutdown();
+		DalRequestExecutor.init(factory);
+		try {
+			DalRequestExecutor test = new DalRequestExecutor();
+			SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2, 3, 4}, new long[]{50, 50, 50, 50});
+			
+			// Tasks that can not be queued are executed by the calling thread
+			Integer result = test.execute(new DalHints(), request);
+			assertEquals(10, result.intValue());
+		} catch (Exception e) {
+			fail();
+		} finally {
+			DalRequestExecutor.shutdown();
+			DalRequestExecutor.init((String)null);
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardOnVirtualThread() {
+		Map<String, String> settings = new HashMap<>();
+		settings.put(DalRequestExecutor.EXECUTOR_MODE, DalRequestExecutor.VIRTUAL_THREAD_MODE);
+		DefaultTaskFactory factory = new DefaultTaskFactory();
+		factory.initialize(settings);
+		
+		DalRequestExecutor.shutdown();
+		DalRequestExecutor.init(factory);
+		try {
+			DalRequestExecutor test = new DalRequestExecutor();
+			SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2, 3, 4}, new long[]{50, 50, 50, 50});
+			
+			// Falls back to platform thread pool if virtual thread is not supported
+			Integer result = test.execute(new DalHints(), request);
+			assertEquals(10, result.intValue());
+		} catch (Exception e) {
+			fail();
+		} finally {
+			DalRequestExecutor.shutdown();
+			DalRequestExecutor.init((String)null);
+		}
+	}
+
+	@Test
+	public void testExecuteAsync() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		TestDalRequest request = new TestDalRequest(null, new Integer[]{1});
+		
+		try {
+			CompletableFuture<Integer> future = test.executeAsync(new DalHints(), request);
+			assertEquals(1, future.get().intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteAsyncCrossShard() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2, 3}, new long[]{100, 0, 50});
+		DefaultResultCallback callback = new DefaultResultCallback();
+		
+		try {
+			CompletableFuture<Integer> future = test.executeAsync(new DalHints().callbackWith(callback), request);
+			assertEquals(6, future.get().intValue());
+			assertEquals(6, ((Integer)callback.getResult()).intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteAsyncCrossShardFail() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		final SQLException ex = new SQLException("Test");
+		TestDalRequest request = new TestDalRequest(null, new Integer[]{1, 2}) {
+			@Override
+			public Map<String, Callable<Integer>> createTasks() throws SQLException {
+				Map<String, Callable<Integer>> tasks = super.createTasks();
+				tasks.put("1", new Callable<Integer>() {
+					public Integer call() throws Exception {
+						throw ex;
+					}
+				});
+				return tasks;
+			}
+		};
+		
+		try {
+			test.executeAsync(new DalHints(), request).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(ex, e.getCause().getCause());
+		} catch (Exception e) {
+			fail();
+		}
+		
+		try {
+			// Partial result
+			Integer result = test.executeAsync(new DalHints().continueOnError(), request).get();
+			assertEquals(1, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteAsyncFailByValidate() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		TestDalRequest request = new TestDalRequest(new SQLException("Test"), null);
+		
+		CompletableFuture<Integer> future = test.executeAsync(new DalHints(), request);
+		assertTrue(future.isCompletedExceptionally());
+	}
 }
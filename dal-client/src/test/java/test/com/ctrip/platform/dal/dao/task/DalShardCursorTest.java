@@ -0,0 +1,275 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.DalClient;
+import com.ctrip.platform.dal.dao.DalCursor;
+import com.ctrip.platform.dal.dao.DalHintEnum;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.dao.ResultMerger;
+import com.ctrip.platform.dal.dao.task.DalRequest;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.dao.task.StreamQuerySqlTask;
+
+import test.com.ctrip.platform.dal.dao.unittests.JdbcStubs;
+
+public class DalShardCursorTest {
+	private static final DalRowMapper<Integer> MAPPER = new DalRowMapper<Integer>() {
+		@Override
+		public Integer map(ResultSet rs, int rowNum) throws SQLException {
+			return rs.getInt(1);
+		}
+	};
+	
+	private static final Comparator<Integer> ASC = new Comparator<Integer>() {
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return o1.compareTo(o2);
+		}
+	};
+	
+	/**
+	 * Request that reads rows of each shard from memory through the stream task
+	 */
+	private static class StreamDalRequest implements DalRequest<Integer> {
+		private Map<String, int[]> shards;
+		private StreamQuerySqlTask<Integer> task;
+		private SQLException error;
+		private AtomicInteger rowsRead = new AtomicInteger();
+		private Map<String, Object> fetchSizes = new ConcurrentHashMap<>();
+		
+		private StreamDalRequest(Map<String, int[]> shards, StreamQuerySqlTask<Integer> task) {
+			this.shards = shards;
+			this.task = task;
+		}
+
+		@Override
+		public String getLogicDbName() {
+			return "dao_test";
+		}
+
+		@Override
+		public void validate() throws SQLException {
+		}
+
+		@Override
+		public boolean isCrossShard() throws SQLException {
+			return shards.size() > 1;
+		}
+
+		@Override
+		public Callable<Integer> createTask() throws SQLException {
+			return createTasks().values().iterator().next();
+		}
+
+		@Override
+		public Map<String, Callable<Integer>> createTasks() throws SQLException {
+			Map<String, Callable<Integer>> tasks = new HashMap<>();
+			for(final String shard: shards.keySet()) {
+				tasks.put(shard, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						if(error != null)
+							throw error;
+						return task.execute(createClient(shard, shards.get(shard)), "", null, new DalHints().inShard(shard).fetchSize(2));
+					}
+				});
+			}
+			return tasks;
+		}
+
+		@Override
+		public ResultMerger<Integer> getMerger() {
+			return new ResultMerger.IntSummary();
+		}
+		
+		private DalClient createClient(final String shard, int[] values) {
+			Object[] column = new Object[values.length];
+			for(int i = 0; i < values.length; i++)
+				column[i] = values[i];
+			final ResultSet rows = JdbcStubs.resultSet(JdbcStubs.column(column));
+			final ResultSet rs = JdbcStubs.stub(ResultSet.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if(method.getName().equals("next"))
+						rowsRead.incrementAndGet();
+					return method.invoke(rows, args);
+				}
+			});
+			
+			return JdbcStubs.stub(DalClient.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					Object fetchSize = ((DalHints)args[2]).get(DalHintEnum.fetchSize);
+					if(fetchSize != null)
+						fetchSizes.put(shard, fetchSize);
+					return ((DalResultSetExtractor<?>)args[3]).extract(rs);
+				}
+			});
+		}
+	}
+	
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		DalRequestExecutor.init((String)null);
+	}
+	
+	@AfterClass
+	public static void tearDownAfterClass() {
+		DalRequestExecutor.shutdown();
+	}
+	
+	private Map<String, int[]> shards(int[]... values) {
+		Map<String, int[]> shards = new HashMap<>();
+		for(int i = 0; i < values.length; i++)
+			shards.put(String.valueOf(i), values[i]);
+		return shards;
+	}
+	
+	private List<Integer> readAll(DalCursor<Integer> cursor) throws SQLException {
+		List<Integer> rows = new ArrayList<>();
+		try {
+			while(cursor.hasNext())
+				rows.add(cursor.next());
+		} finally {
+			cursor.close();
+		}
+		return rows;
+	}
+	
+	private List<Integer> list(int count) {
+		List<Integer> rows = new ArrayList<>();
+		for(int i = 1; i <= count; i++)
+			rows.add(i);
+		return rows;
+	}
+	
+	@Test
+	public void testNotCrossShard() throws SQLException {
+		DalHints hints = new DalHints();
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1, 2, 3}), task);
+		
+		assertEquals(list(3), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+	}
+
+	@Test
+	public void testShardByShard() throws SQLException {
+		DalHints hints = new DalHints().fetchSize(1);
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1, 2, 3}, new int[]{}, new int[]{4, 5}), task);
+		
+		assertEquals(list(5), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+	}
+
+	@Test
+	public void testMergeBySorter() throws SQLException {
+		DalHints hints = new DalHints().fetchSize(2).sortBy(ASC);
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1, 4, 7}, new int[]{2, 5, 8, 10}, new int[]{3, 6, 9}), task);
+		
+		assertEquals(list(10), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+	}
+
+	@Test(timeout = 10000)
+	public void testMergeMoreShardsThanPoolThreads() throws SQLException {
+		// Every reader blocks on its full buffer until the merge takes its rows
+		DalRequestExecutor.shutdown();
+		DalRequestExecutor.init("2");
+		try {
+			int shardCount = 5;
+			int rowsPerShard = 20;
+			int[][] values = new int[shardCount][rowsPerShard];
+			for(int i = 0; i < shardCount; i++)
+				for(int j = 0; j < rowsPerShard; j++)
+					values[i][j] = j * shardCount + i + 1;
+			
+			DalHints hints = new DalHints().fetchSize(2).sortBy(ASC);
+			StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+			StreamDalRequest request = new StreamDalRequest(shards(values), task);
+			
+			assertEquals(list(shardCount * rowsPerShard), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+		} finally {
+			DalRequestExecutor.shutdown();
+			DalRequestExecutor.init((String)null);
+		}
+	}
+
+	@Test
+	public void testCloseBeforeEnd() throws Exception {
+		DalHints hints = new DalHints().fetchSize(10);
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+		int[] values = new int[10000];
+		StreamDalRequest request = new StreamDalRequest(shards(values, values), task);
+		
+		DalCursor<Integer> cursor = new DalRequestExecutor().openCursor(hints, request, task);
+		assertTrue(cursor.hasNext());
+		cursor.next();
+		cursor.close();
+		assertFalse(cursor.hasNext());
+		
+		// Reading is stopped by close, and the second shard is never read
+		Thread.sleep(300);
+		assertTrue(request.rowsRead.get() < 100);
+	}
+
+	@Test
+	public void testMySqlStreaming() throws SQLException {
+		DalHints hints = new DalHints().fetchSize(2);
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints, DatabaseCategory.MySql);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1, 2, 3}, new int[]{4, 5}), task);
+		
+		assertEquals(list(5), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+		assertEquals(2, request.fetchSizes.size());
+		for(Object fetchSize: request.fetchSizes.values())
+			assertEquals((Object)Integer.MIN_VALUE, fetchSize);
+		// Caller hints are not changed
+		assertEquals(2, (int)hints.getInt(DalHintEnum.fetchSize, 0));
+	}
+
+	@Test
+	public void testFetchSizeOfOtherDatabase() throws SQLException {
+		DalHints hints = new DalHints().fetchSize(2);
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints, DatabaseCategory.SqlServer);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1, 2, 3}), task);
+		
+		assertEquals(list(3), readAll(new DalRequestExecutor().openCursor(hints, request, task)));
+		assertEquals((Object)2, request.fetchSizes.values().iterator().next());
+	}
+
+	@Test
+	public void testError() {
+		DalHints hints = new DalHints();
+		StreamQuerySqlTask<Integer> task = new StreamQuerySqlTask<>(MAPPER, hints);
+		StreamDalRequest request = new StreamDalRequest(shards(new int[]{1}, new int[]{2}), task);
+		request.error = new SQLException("Test");
+		
+		try {
+			readAll(new DalRequestExecutor().openCursor(hints, request, task));
+			fail();
+		} catch (SQLException e) {
+		}
+	}
+}
@@ -15,13 +15,13 @@ public class ShardedIntArrayResultMergerTest {
 	public void testMerge() {
 		ShardedIntArrayResultMerger test = new ShardedIntArrayResultMerger();
 		try {
-			test.recordPartial("1", new Integer[] {0, 1, 2, 3});
+			test.recordPartial("1", new int[] {0, 1, 2, 3});
 			test.addPartial("1", new int[] {0, 1, 2, 3});
 			
-			test.recordPartial("2", new Integer[] {4, 5, 6});
+			test.recordPartial("2", new int[] {4, 5, 6});
 			test.addPartial("2", new int[] {4, 5, 6});
 
-			test.recordPartial("3", new Integer[] {7, 8, 9});
+			test.recordPartial("3", new int[] {7, 8, 9});
 			test.addPartial("3", new int[] {7, 8, 9});
 			
 			int[] result = test.merge();
@@ -32,4 +32,23 @@ public class ShardedIntArrayResultMergerTest {
 		}
 	}
 
+
+	@Test
+	public void testMergeInterleaved() {
+		ShardedIntArrayResultMerger test = new ShardedIntArrayResultMerger();
+		try {
+			test.recordPartial("1", new int[] {1, 4});
+			test.recordPartial("0", new int[] {0, 2, 5});
+			test.recordPartial("2", new int[] {7});
+			
+			test.addPartial("2", new int[] {70});
+			test.addPartial("0", new int[] {0, 20, 50});
+			test.addPartial("1", new int[] {10, 40});
+			
+			int[] result = test.merge();
+			Assert.assertArrayEquals(new int[]{0, 10, 20, 40, 50, 70}, result);
+		} catch (SQLException e) {
+			fail();
+		}
+	}
 }
@@ -15,6 +15,7 @@ import org.junit.Test;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalParser;
 import com.ctrip.platform.dal.dao.helper.DalDefaultJpaParser;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 import com.ctrip.platform.dal.dao.task.BatchInsertTask;
 import com.ctrip.platform.dal.dao.task.SingleInsertTask;
 
@@ -56,9 +57,9 @@ public class SingleInsertTaskTestStub extends TaskTestStub {
 
 			assertEquals(3+1, getCount());
 
-			Map<Integer, Map<String, ?>> pojos = getAllMap();
+			DalPojoPartition pojos = getAllMap();
 			Set<Integer> ids = new HashSet<>();
-			for(Map<String, ?> pojoi: pojos.values()) {
+			for(Map<String, ?> pojoi: pojos) {
 				ids.add((Integer)pojoi.get("id"));
 			}
 			
@@ -83,8 +84,8 @@ public class SingleInsertTaskTestStub extends TaskTestStub {
 
 		assertEquals(3+1, getCount());
 		
-		Map<Integer, Map<String, ?>> pojos = getAllMap();
-		for(Map<String, ?> pojo: pojos.values()) {
+		DalPojoPartition pojos = getAllMap();
+		for(Map<String, ?> pojo: pojos) {
 			assertNotNull(pojo.get("last_changed"));
 		}
 	}
@@ -10,6 +10,7 @@ import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalParser;
 import com.ctrip.platform.dal.dao.DalTableDao;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.DalPojoPartition;
 
 public class TaskTestStub {
 	private String dbName;
@@ -46,7 +47,7 @@ public class TaskTestStub {
 		return dao.query("1=1", new StatementParameters(), new DalHints());
 	}
 	
-	public Map<Integer, Map<String, ?>> getAllMap() throws SQLException {
-		return dao.getPojosFieldsMap(dao.query("1=1", new StatementParameters(), new DalHints()));
+	public DalPojoPartition getAllMap() throws SQLException {
+		return dao.getPojosPartition(dao.query("1=1", new StatementParameters(), new DalHints()));
 	}
 }
@@ -14,6 +14,8 @@ import org.junit.runners.Suite.SuiteClasses;
 	DalTabelDaoMySqlTest.class,
 	DalTableDaoSqlServerTest.class,
 	DatabaseSelectorTest.class,
+	DatabaseSelectPolicyTest.class,
+	KeyHolderTest.class,
 	DalClientFactoryTest.class,
 	DalClientFactoryLazeLoadTest.class,
 	DalStatusManagerTest.class,
@@ -1,5 +1,7 @@
 package test.com.ctrip.platform.dal.dao.unittests;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.AfterClass;
@@ -7,6 +9,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.dao.configure.DalConfigure;
+import com.ctrip.platform.dal.dao.configure.DatabaseSet;
 import com.ctrip.platform.dal.dao.status.DalStatusManager;
 
 public class DalStatusManagerTest {
@@ -29,6 +33,38 @@ public class DalStatusManagerTest {
 		DalStatusManager.shutdown();
 	}
 	
+	@Test
+	public void testRemoveOthers() throws Exception{
+		DalConfigure config = DalClientFactory.getDalConfigure();
+		DalStatusManager.initialize(config);
+		
+		String keptDb = config.getDatabaseSetNames().iterator().next();
+		Map<String, DatabaseSet> kept = new HashMap<>();
+		kept.put(keptDb, config.getDatabaseSet(keptDb));
+		DalConfigure reloaded = new DalConfigure(config.getName(), kept, config.getDalLogger(), config.getLocator(), config.getFacory());
+		
+		try {
+			DalStatusManager.removeOthers(reloaded);
+			
+			Assert.assertNotNull(DalStatusManager.getDatabaseSetStatus(keptDb));
+			Assert.assertNotNull(DalStatusManager.getExecutorStatus(keptDb));
+			for(String name: config.getDatabaseSetNames()) {
+				if(name.equals(keptDb))
+					continue;
+				Assert.assertNull(DalStatusManager.getDatabaseSetStatus(name));
+				Assert.assertNull(DalStatusManager.getExecutorStatus(name));
+			}
+			
+			for(String name: config.getDataSourceNames())
+				Assert.assertEquals(reloaded.getDataSourceNames().contains(name), DalStatusManager.containsDataSourceStatus(name));
+		} finally {
+			DalStatusManager.refresh(config);
+		}
+		
+		for(String name: config.getDataSourceNames())
+			Assert.assertTrue(DalStatusManager.containsDataSourceStatus(name));
+	}
+	
 	@Test
 	public void testParaInitShutdown(){
 		final CountDownLatch cdl = new CountDownLatch(10);
@@ -0,0 +1,151 @@
+package test.com.ctrip.platform.dal.dao.unittests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.configure.DataBase;
+import com.ctrip.platform.dal.dao.configure.DataBaseLoad;
+import com.ctrip.platform.dal.dao.configure.DatabaseSelectPolicies;
+import com.ctrip.platform.dal.dao.configure.DatabaseSelectPolicy;
+
+public class DatabaseSelectPolicyTest {
+	
+	private List<DataBase> createDbs(String prefix, int... weights) {
+		List<DataBase> dbs = new ArrayList<>();
+		for(int i = 0; i < weights.length; i++)
+			dbs.add(new DataBase(prefix + i, false, "", prefix + i, weights[i]));
+		return dbs;
+	}
+	
+	private Map<String, Integer> count(DatabaseSelectPolicy policy, List<DataBase> dbs, int times) {
+		Map<String, Integer> counts = new HashMap<>();
+		for(DataBase db: dbs)
+			counts.put(db.getConnectionString(), 0);
+		for(int i = 0; i < times; i++) {
+			String selected = policy.select(dbs).getConnectionString();
+			counts.put(selected, counts.get(selected) + 1);
+		}
+		return counts;
+	}
+
+	@Test
+	public void testCreate() throws Exception {
+		Assert.assertSame(DatabaseSelectPolicies.random, DatabaseSelectPolicies.create(null));
+		Assert.assertSame(DatabaseSelectPolicies.random, DatabaseSelectPolicies.create("random"));
+		Assert.assertSame(DatabaseSelectPolicies.leastOutstanding, DatabaseSelectPolicies.create("leastOutstanding"));
+		Assert.assertSame(DatabaseSelectPolicies.ewmaLatency, DatabaseSelectPolicies.create("ewmaLatency"));
+		Assert.assertTrue(DatabaseSelectPolicies.create(FirstPolicy.class.getName()) instanceof FirstPolicy);
+	}
+
+	@Test
+	public void testWeightedRandom() {
+		List<DataBase> dbs = createDbs("policy_random_", 1, 3, 0);
+		Map<String, Integer> counts = count(DatabaseSelectPolicies.random, dbs, 4000);
+		
+		Assert.assertEquals(0, counts.get("policy_random_2").intValue());
+		Assert.assertTrue(counts.get("policy_random_1") > counts.get("policy_random_0") * 2);
+		
+		// All zero weights are chosen evenly
+		counts = count(DatabaseSelectPolicies.random, createDbs("policy_random_zero_", 0, 0), 1000);
+		Assert.assertTrue(counts.get("policy_random_zero_0") > 0);
+		Assert.assertTrue(counts.get("policy_random_zero_1") > 0);
+	}
+
+	@Test
+	public void testLeastOutstanding() {
+		List<DataBase> dbs = createDbs("policy_outstanding_", 1, 1, 1);
+		DataBaseLoad.of("policy_outstanding_0").begin();
+		DataBaseLoad.of("policy_outstanding_0").begin();
+		DataBaseLoad.of("policy_outstanding_2").begin();
+		
+		for(int i = 0; i < 100; i++)
+			Assert.assertEquals("policy_outstanding_1", DatabaseSelectPolicies.leastOutstanding.select(dbs).getConnectionString());
+		
+		DataBaseLoad.of("policy_outstanding_0").end(1000000);
+		DataBaseLoad.of("policy_outstanding_0").end(1000000);
+		DataBaseLoad.of("policy_outstanding_2").end(1000000);
+		
+		// Ties are broken randomly
+		Map<String, Integer> counts = count(DatabaseSelectPolicies.leastOutstanding, dbs, 3000);
+		for(Integer c: counts.values())
+			Assert.assertTrue(c > 0);
+	}
+
+	@Test
+	public void testEwmaLatency() {
+		List<DataBase> dbs = createDbs("policy_ewma_", 1, 1);
+		for(int i = 0; i < 10; i++) {
+			DataBaseLoad.of("policy_ewma_0").begin();
+			DataBaseLoad.of("policy_ewma_0").end(100 * 1000000L);
+			DataBaseLoad.of("policy_ewma_1").begin();
+			DataBaseLoad.of("policy_ewma_1").end(1000000L);
+		}
+		
+		// With two candidates both are compared every time
+		for(int i = 0; i < 100; i++)
+			Assert.assertEquals("policy_ewma_1", DatabaseSelectPolicies.ewmaLatency.select(dbs).getConnectionString());
+		
+		Assert.assertEquals("policy_ewma_0", DatabaseSelectPolicies.ewmaLatency.select(dbs.subList(0, 1)).getConnectionString());
+	}
+
+	@Test
+	public void testZeroWeightNeverChosen() {
+		// Zero weight database is idle and fast, it would win on load if weight were ignored
+		List<DataBase> dbs = createDbs("policy_zero_", 0, 1, 1);
+		for(int i = 0; i < 10; i++) {
+			DataBaseLoad.of("policy_zero_0").begin();
+			DataBaseLoad.of("policy_zero_0").end(1000000L);
+			DataBaseLoad.of("policy_zero_1").begin();
+			DataBaseLoad.of("policy_zero_1").end(100 * 1000000L);
+			DataBaseLoad.of("policy_zero_2").begin();
+			DataBaseLoad.of("policy_zero_2").end(100 * 1000000L);
+		}
+		DataBaseLoad.of("policy_zero_1").begin();
+		DataBaseLoad.of("policy_zero_2").begin();
+		
+		try {
+			for(DatabaseSelectPolicy policy: new DatabaseSelectPolicy[]{DatabaseSelectPolicies.random, DatabaseSelectPolicies.leastOutstanding, DatabaseSelectPolicies.ewmaLatency})
+				Assert.assertEquals(0, count(policy, dbs, 1000).get("policy_zero_0").intValue());
+			
+			// Single positive weight, the zero weight one is not picked as the second choice
+			Assert.assertEquals(0, count(DatabaseSelectPolicies.ewmaLatency, dbs.subList(0, 2), 1000).get("policy_zero_0").intValue());
+			
+			// All zero weights are treated as equal
+			Map<String, Integer> counts = count(DatabaseSelectPolicies.leastOutstanding, createDbs("policy_zero_all_", 0, 0), 1000);
+			Assert.assertTrue(counts.get("policy_zero_all_0") > 0);
+			Assert.assertTrue(counts.get("policy_zero_all_1") > 0);
+		} finally {
+			DataBaseLoad.of("policy_zero_1").end(1000000L);
+			DataBaseLoad.of("policy_zero_2").end(1000000L);
+		}
+	}
+
+	@Test
+	public void testEwma() {
+		DataBaseLoad load = DataBaseLoad.of("policy_ewma_load");
+		Assert.assertEquals(0.0, load.getLatency());
+		
+		load.begin();
+		Assert.assertEquals(1, load.getOutstanding());
+		load.end(10 * 1000000L);
+		Assert.assertEquals(0, load.getOutstanding());
+		Assert.assertEquals(10.0, load.getLatency(), 0.0001);
+		
+		load.begin();
+		load.end(20 * 1000000L);
+		Assert.assertEquals(10 + DataBaseLoad.EWMA_ALPHA * 10, load.getLatency(), 0.0001);
+	}
+	
+	public static class FirstPolicy implements DatabaseSelectPolicy {
+		@Override
+		public DataBase select(List<DataBase> candidates) {
+			return candidates.get(0);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package test.com.ctrip.platform.dal.dao.unittests;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In memory JDBC objects for unit tests that do not need a database. They are dynamic
+ * proxies, methods that are not stubbed return null, false or 0.
+ */
+public class JdbcStubs {
+	/**
+	 * Create a proxy of the JDBC interface. hashCode and equals are by identity, other
+	 * calls go to the handler. A null returned for a primitive type becomes false or 0.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T stub(final Class<T> type, final InvocationHandler handler) {
+		return (T)Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("hashCode") && method.getParameterTypes().length == 0)
+					return System.identityHashCode(proxy);
+				if(method.getName().equals("equals") && method.getParameterTypes().length == 1)
+					return proxy == args[0];
+				if(method.getName().equals("toString") && method.getParameterTypes().length == 0)
+					return type.getSimpleName() + "@" + System.identityHashCode(proxy);
+
+				Object value = handler.invoke(proxy, method, args);
+				return value == null ? defaultValue(method.getReturnType()) : value;
+			}
+		});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if(!type.isPrimitive() || type == void.class)
+			return null;
+		if(type == boolean.class)
+			return false;
+		if(type == long.class)
+			return 0L;
+		if(type == double.class)
+			return 0.0;
+		if(type == float.class)
+			return 0.0f;
+		if(type == short.class)
+			return (short)0;
+		if(type == byte.class)
+			return (byte)0;
+		if(type == char.class)
+			return (char)0;
+		return 0;
+	}
+
+	/**
+	 * @return rows of one column
+	 */
+	public static Object[][] column(Object... values) {
+		Object[][] rows = new Object[values.length][];
+		for(int i = 0; i < values.length; i++)
+			rows[i] = new Object[]{values[i]};
+		return rows;
+	}
+
+	/**
+	 * A forward only result set of the rows without meta data
+	 */
+	public static ResultSet resultSet(Object[][] rows) {
+		return resultSet(null, null, rows);
+	}
+
+	/**
+	 * A forward only result set of the rows. Columns can be read by index or case
+	 * insensitive label with getObject, getString and the numeric getters.
+	 *
+	 * @param labels column labels, it also decides the column count of meta data
+	 * @param types sql types of the columns, null if not needed
+	 */
+	public static ResultSet resultSet(final String[] labels, final int[] types, final Object[][] rows) {
+		final ResultSetMetaData meta = stub(ResultSetMetaData.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("getColumnCount"))
+					return labels.length;
+				if(method.getName().equals("getColumnLabel") || method.getName().equals("getColumnName"))
+					return labels[(Integer)args[0] - 1];
+				if(method.getName().equals("getColumnType") && types != null)
+					return types[(Integer)args[0] - 1];
+				return null;
+			}
+		});
+
+		return stub(ResultSet.class, new InvocationHandler() {
+			private int row = -1;
+			private Object last;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				String name = method.getName();
+				if(name.equals("next"))
+					return ++row < rows.length;
+				if(name.equals("getMetaData"))
+					return meta;
+				if(name.equals("wasNull"))
+					return last == null;
+				if(!name.startsWith("get") || args == null || args.length != 1)
+					return null;
+
+				last = rows[row][args[0] instanceof Integer ? (Integer)args[0] - 1 : indexOf((String)args[0])];
+				if(name.equals("getObject"))
+					return last;
+				if(name.equals("getString"))
+					return last == null ? null : last.toString();
+
+				Number value = last == null ? 0 : (Number)last;
+				if(name.equals("getLong"))
+					return value.longValue();
+				if(name.equals("getInt"))
+					return value.intValue();
+				if(name.equals("getDouble"))
+					return value.doubleValue();
+				return null;
+			}
+
+			private int indexOf(String label) throws SQLException {
+				for(int i = 0; labels != null && i < labels.length; i++)
+					if(labels[i].equalsIgnoreCase(label))
+						return i;
+				throw new SQLException("Invalid column name " + label);
+			}
+		});
+	}
+
+	/**
+	 * A statement that remembers whether it is closed
+	 *
+	 * @param closed counts close calls, can be null
+	 * @param cancelled counts cancel calls, can be null
+	 */
+	public static <T extends Statement> T statement(Class<T> type, final AtomicInteger closed, final AtomicInteger cancelled) {
+		return stub(type, new InvocationHandler() {
+			private boolean isClosed;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("close")) {
+					isClosed = true;
+					if(closed != null)
+						closed.incrementAndGet();
+				}
+				if(method.getName().equals("cancel") && cancelled != null)
+					cancelled.incrementAndGet();
+				if(method.getName().equals("isClosed"))
+					return isClosed;
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * A connection that creates statements and prepared statements by the given factory
+	 */
+	public static Connection connection(final Callable<? extends PreparedStatement> statements) {
+		return stub(Connection.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("prepareStatement") || method.getName().equals("createStatement"))
+					return statements.call();
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,60 @@
+package test.com.ctrip.platform.dal.dao.unittests;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.KeyHolder;
+
+public class KeyHolderTest {
+	
+	private KeyHolder partial(int... ids) throws SQLException {
+		KeyHolder holder = new KeyHolder();
+		for(int id: ids) {
+			Map<String, Object> key = new HashMap<>();
+			key.put("id", id);
+			holder.getKeyList().add(key);
+		}
+		return holder;
+	}
+	
+	@Test
+	public void testAddPartial() throws SQLException {
+		KeyHolder holder = new KeyHolder();
+		holder.requireMerge();
+		holder.setSize(3);
+		
+		holder.addPatial(new int[]{0, 2}, partial(10, 12));
+		Assert.assertFalse(holder.isMerged());
+		holder.addPatial(new int[]{1}, partial(11));
+		
+		Assert.assertTrue(holder.isMerged());
+		Assert.assertEquals(10, holder.getKey(0).intValue());
+		Assert.assertEquals(11, holder.getKey(1).intValue());
+		Assert.assertEquals(12, holder.getKey(2).intValue());
+	}
+	
+	@Test
+	public void testAddPartialCountMismatch() throws SQLException {
+		KeyHolder holder = new KeyHolder();
+		holder.requireMerge();
+		holder.setSize(3);
+		
+		try {
+			holder.addPatial(new int[]{0, 1}, partial(10, 11, 12));
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+		
+		try {
+			holder.addPatial(new Integer[]{0, 1}, partial(10));
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+		Assert.assertFalse(holder.isMerged());
+	}
+}
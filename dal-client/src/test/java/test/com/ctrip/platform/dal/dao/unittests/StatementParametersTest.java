@@ -8,6 +8,7 @@ import static junit.framework.Assert.*;
 
 import org.junit.Test;
 
+import com.ctrip.platform.dal.dao.StatementParameter;
 import com.ctrip.platform.dal.dao.StatementParameters;
 
 public class StatementParametersTest {
@@ -22,14 +23,14 @@ public class StatementParametersTest {
 		assertEquals(2, test2.size());
 		assertEquals(2, test3.size());
 		
-		assertEquals(1, test.get(0).getValue());
-		assertEquals(2, test.get(1).getValue());
+		assertEquals(1, (int) test.get(0).getValue());
+		assertEquals(2, (int) test.get(1).getValue());
 
-		assertEquals(2, test2.get(0).getValue());
-		assertEquals(2, test2.get(1).getValue());
+		assertEquals(2, (int) test2.get(0).getValue());
+		assertEquals(2, (int) test2.get(1).getValue());
 
-		assertEquals(3, test3.get(0).getValue());
-		assertEquals(2, test3.get(1).getValue());
+		assertEquals(3, (int) test3.get(0).getValue());
+		assertEquals(2, (int) test3.get(1).getValue());
 	}
 
 	@Test
@@ -63,4 +64,56 @@ public class StatementParametersTest {
 		
 		assertEquals(5, test.size());
 	}
+	
+	@Test
+	public void testReset() {
+		StatementParameters test = new StatementParameters(2);
+		test.setSensitive(1, "name1", Types.INTEGER, 1);
+		test.registerOut("out", Types.INTEGER);
+		StatementParameter first = test.get(0);
+		
+		test.reset();
+		assertEquals(0, test.size());
+		// Values of the previous execution are released
+		assertNull(first.getValue());
+		
+		test.set(1, Types.VARCHAR, "a");
+		test.set(2, Types.INTEGER, 2);
+		test.set(3, Types.INTEGER, 3);
+		assertEquals(3, test.size());
+		
+		// Recycled parameter is reinitialized
+		assertTrue(test.get(0) == first || test.get(1) == first);
+		Object value = test.get(0).getValue();
+		assertEquals("a", value);
+		assertEquals(Types.VARCHAR, test.get(0).getSqlType());
+		assertTrue(test.get(0).isInputParameter());
+		for(StatementParameter p: test.values()) {
+			assertNull(p.getName());
+			assertFalse(p.isSensitive());
+			assertFalse(p.isOutParameter());
+		}
+	}
+	
+	@Test
+	public void testExpandSensitive() {
+		StatementParameters test = new StatementParameters();
+		List<Integer> values = new ArrayList<>();
+		values.add(1);
+		values.add(2);
+		
+		test.set(1, "name1", Types.INTEGER, 1);
+		test.setSensitiveInParameter(2, "name2", Types.INTEGER, values);
+		test.compile();
+		
+		assertEquals(3, test.size());
+		for(int i = 1; i < 3; i++) {
+			StatementParameter p = test.get(i);
+			Object value = p.getValue();
+			assertEquals(i, value);
+			assertEquals(i + 1, p.getIndex());
+			assertTrue(p.isSensitive());
+			assertFalse(p.isInParam());
+		}
+	}
 }